@@ -0,0 +1,117 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.benchmarks;
+
+import com.clinexa.basediagnosis.SearchHit;
+import com.clinexa.basediagnosis.systems.ICD11DiagnosesSystem;
+import com.clinexa.basediagnosis.systems.stub.ICD11StubServer;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end lookups through {@link ICD11DiagnosesSystem} over HTTP against the ICD API
+ * stub server of the tests, with and without the response cache.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiBenchmark {
+
+    /**
+     * Maximum number of cached API responses, 0 sends every request to the server.
+     */
+    @Param({"0", "10000"})
+    public String cacheSize;
+
+    /**
+     * Latency of the server in milliseconds.
+     */
+    @Param({"0", "5"})
+    public int latencyMillis;
+
+    private ICD11StubServer server;
+    private ICD11DiagnosesSystem system;
+    private List<String> codes;
+
+    /**
+     * Starts the stub server and initializes the system against it.
+     *
+     * @throws IOException if server can't be started.
+     */
+    @Setup
+    @SuppressWarnings("removal")
+    public void setUp() throws IOException {
+        server = ICD11StubServer.start();
+        system = new ICD11DiagnosesSystem();
+        server.configure(system);
+        system.setParameter(ICD11DiagnosesSystem.CACHE_MAX_SIZE_KEY, cacheSize);
+        system.init();
+        server.setLatency(ICD11StubServer.Latency.fixed(Duration.ofMillis(latencyMillis)));
+        codes = server.getCodes();
+    }
+
+    /**
+     * Closes the system and stops the server.
+     */
+    @TearDown
+    public void tearDown() {
+        system.close();
+        server.close();
+    }
+
+    /**
+     * Looks up a random recorded code.
+     *
+     * @return found entity.
+     */
+    @Benchmark
+    public Object byCode() {
+        return system.getByICD11Code(codes.get(ThreadLocalRandom.current().nextInt(codes.size())), ICDLanguage.ENGLISH);
+    }
+
+    /**
+     * Lists a category with three subcategories.
+     *
+     * @return subcategories.
+     */
+    @Benchmark
+    public List<Map.Entry<Object, String>> categoryListing() {
+        return system.getCategoryListing("588616678", ICDLanguage.ENGLISH);
+    }
+
+    /**
+     * Searches the server.
+     *
+     * @return first page of hits.
+     */
+    @Benchmark
+    public List<SearchHit> search() {
+        return system.getSearchHits("fear cancer", ICDLanguage.ENGLISH, 0, 10);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. Accepts the usual JMH command line
+ * (e.g. {@code -f 1 -wi 3 -i 5 EntityBenchmark}) and adds the GC profiler
+ * unless other profilers are given, so allocation rate per operation
+ * is always reported.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {}
+
+    /**
+     * Runs benchmarks selected by the command line.
+     *
+     * @param args JMH command line arguments.
+     * @throws Exception if command line is invalid or benchmarks fail.
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (commandLine.getProfilers().isEmpty())
+            options.addProfiler(GCProfiler.class);
+        Runner runner = new Runner(options.build());
+        if (commandLine.shouldList())
+            runner.list();
+        else
+            runner.run();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.benchmarks;
+
+import com.clinexa.basediagnosis.Diagnosis;
+import com.clinexa.basediagnosis.ICDVersion;
+import com.clinexa.basediagnosis.services.ICDCodeConverterRegistry;
+import com.clinexa.basediagnosis.systems.ICD11SnapshotDiagnosesSystem;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ICD 11 to ICD 10 conversion through {@link ICDCodeConverterRegistry}, backed by
+ * {@link TableCodeConverter}: one code through an entity, one code directly
+ * and a batch of codes at once.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodeConversionBenchmark {
+
+    private ICDCodeConverterRegistry registry;
+    private Diagnosis diagnosis;
+    private String[] codes;
+
+    /**
+     * Creates the diagnosis and codes to convert.
+     *
+     * @throws IOException if snapshot can't be written.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        registry = ICDCodeConverterRegistry.getDefault();
+        ICD11SnapshotDiagnosesSystem system = Fixtures.snapshotSystem();
+        diagnosis = new Diagnosis(system, ICDLanguage.ENGLISH, Fixtures.code(3, 1, 4), "Gastroenteritis or colitis of origin 4");
+        codes = new String[Fixtures.BLOCKS * Fixtures.DIAGNOSES];
+        for (int block = 0; block < Fixtures.BLOCKS; block++)
+            for (int diagnosis = 0; diagnosis < Fixtures.DIAGNOSES; diagnosis++)
+                codes[block * Fixtures.DIAGNOSES + diagnosis] = Fixtures.code(5, block, diagnosis);
+    }
+
+    /**
+     * Converts code of the diagnosis.
+     *
+     * @return ICD 10 code.
+     */
+    @Benchmark
+    public String entityCode() {
+        return diagnosis.getICDCode(ICDVersion.ICD10);
+    }
+
+    /**
+     * Converts code through the registry.
+     *
+     * @return ICD 10 code.
+     */
+    @Benchmark
+    public String registryCode() {
+        return registry.convert(diagnosis.getICD11Code(), ICDVersion.ICD11, ICDVersion.ICD10);
+    }
+
+    /**
+     * Converts all codes of a chapter at once.
+     *
+     * @return ICD 10 codes.
+     */
+    @Benchmark
+    public String[] registryBatch() {
+        return registry.convertAll(codes, ICDVersion.ICD11, ICDVersion.ICD10);
+    }
+}
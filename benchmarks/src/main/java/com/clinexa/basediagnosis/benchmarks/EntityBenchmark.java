@@ -0,0 +1,126 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.benchmarks;
+
+import com.clinexa.basediagnosis.Diagnosis;
+import com.clinexa.basediagnosis.DiagnosisCategory;
+import com.clinexa.basediagnosis.Symptom;
+import com.clinexa.basediagnosis.systems.ICD11SnapshotDiagnosesSystem;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creation and comparison of entities, as done for every API response
+ * by {@code createPairByResponse()}.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntityBenchmark {
+
+    private ICD11SnapshotDiagnosesSystem system;
+    private String code;
+    private String title;
+    private String categoryID;
+    private Diagnosis diagnosis;
+    private Diagnosis sameDiagnosis;
+    private Diagnosis otherDiagnosis;
+
+    /**
+     * Opens the snapshot and creates entities to compare.
+     *
+     * @throws IOException if snapshot can't be written.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        system = Fixtures.snapshotSystem();
+        code = Fixtures.code(7, 3, 5);
+        title = "Gastroenteritis or colitis of origin 5";
+        categoryID = Fixtures.blockID(7, 3);
+        diagnosis = new Diagnosis(system, ICDLanguage.ENGLISH, code, title);
+        sameDiagnosis = new Diagnosis(system, ICDLanguage.ENGLISH, new String(code), title);
+        otherDiagnosis = new Diagnosis(system, ICDLanguage.ENGLISH, Fixtures.code(7, 3, 6), title);
+    }
+
+    /**
+     * Creates a diagnosis.
+     *
+     * @return created diagnosis.
+     */
+    @Benchmark
+    public Diagnosis createDiagnosis() {
+        return new Diagnosis(system, ICDLanguage.ENGLISH, code, title);
+    }
+
+    /**
+     * Creates a symptom.
+     *
+     * @return created symptom.
+     */
+    @Benchmark
+    public Symptom createSymptom() {
+        return new Symptom(system, ICDLanguage.ENGLISH, code, title);
+    }
+
+    /**
+     * Creates a category.
+     *
+     * @return created category.
+     */
+    @Benchmark
+    public DiagnosisCategory createCategory() {
+        return new DiagnosisCategory(title, categoryID, ICDLanguage.ENGLISH, system);
+    }
+
+    /**
+     * Compares equal diagnoses with different code instances.
+     *
+     * @return true.
+     */
+    @Benchmark
+    public boolean equalsSame() {
+        return diagnosis.equals(sameDiagnosis);
+    }
+
+    /**
+     * Compares diagnoses with different codes.
+     *
+     * @return false.
+     */
+    @Benchmark
+    public boolean equalsOther() {
+        return diagnosis.equals(otherDiagnosis);
+    }
+
+    /**
+     * Computes hash code of a diagnosis.
+     *
+     * @return hash code.
+     */
+    @Benchmark
+    public int hashCodeOf() {
+        return diagnosis.hashCode();
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.benchmarks;
+
+import com.clinexa.basediagnosis.systems.ICD11SnapshotDiagnosesSystem;
+import com.clinexa.basediagnosis.systems.ICD11SnapshotEntry;
+import com.clinexa.basediagnosis.systems.ICD11SnapshotWriter;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Synthetic ICD 11 hierarchy shared by the benchmarks: chapters with blocks,
+ * every block with diagnoses, titled in English and Russian.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+final class Fixtures {
+
+    /**
+     * Number of chapters.
+     */
+    static final int CHAPTERS = 20;
+
+    /**
+     * Number of blocks in every chapter.
+     */
+    static final int BLOCKS = 10;
+
+    /**
+     * Number of diagnoses in every block.
+     */
+    static final int DIAGNOSES = 10;
+
+    private Fixtures() {}
+
+    /**
+     * Returns ICD 11 code of a diagnosis.
+     *
+     * @param chapter number of the chapter.
+     * @param block number of the block in the chapter.
+     * @param diagnosis number of the diagnosis in the block.
+     * @return code like "1A23.4".
+     */
+    static @NotNull String code(int chapter, int block, int diagnosis) {
+        return blockCode(chapter, block) + "." + diagnosis;
+    }
+
+    /**
+     * Returns entity ID of a block, which is a category.
+     *
+     * @param chapter number of the chapter.
+     * @param block number of the block in the chapter.
+     * @return entity ID.
+     */
+    static @NotNull String blockID(int chapter, int block) {
+        return "2" + (chapter * 100 + block);
+    }
+
+    /**
+     * Creates entries of the whole hierarchy.
+     *
+     * @return entries, chapters first.
+     */
+    static @NotNull List<ICD11SnapshotEntry> entries() {
+        List<ICD11SnapshotEntry> entries = new ArrayList<>();
+        for (int chapter = 0; chapter < CHAPTERS; chapter++) {
+            List<String> blocks = new ArrayList<>();
+            for (int block = 0; block < BLOCKS; block++)
+                blocks.add(blockID(chapter, block));
+            entries.add(new ICD11SnapshotEntry(chapterID(chapter), null, List.of(), blocks,
+                    titles("Chapter " + chapter + " diseases", "Болезни главы " + chapter)));
+
+            for (int block = 0; block < BLOCKS; block++) {
+                List<String> diagnoses = new ArrayList<>();
+                for (int diagnosis = 0; diagnosis < DIAGNOSES; diagnosis++)
+                    diagnoses.add(diagnosisID(chapter, block, diagnosis));
+                entries.add(new ICD11SnapshotEntry(blockID(chapter, block), blockCode(chapter, block),
+                        List.of(chapterID(chapter)), diagnoses,
+                        titles("Infectious gastroenteritis group " + block, "Инфекционный гастроэнтерит, группа " + block)));
+
+                for (int diagnosis = 0; diagnosis < DIAGNOSES; diagnosis++)
+                    entries.add(new ICD11SnapshotEntry(diagnosisID(chapter, block, diagnosis),
+                            code(chapter, block, diagnosis), List.of(blockID(chapter, block)), List.of(),
+                            titles("Gastroenteritis or colitis of origin " + diagnosis,
+                                    "Гастроэнтерит или колит происхождения " + diagnosis)));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Writes the hierarchy to a temporary snapshot and opens it.
+     *
+     * @return system over the snapshot.
+     * @throws IOException if snapshot can't be written.
+     */
+    static @NotNull ICD11SnapshotDiagnosesSystem snapshotSystem() throws IOException {
+        Path file = Files.createTempFile("icd11-benchmark", ".snapshot");
+        file.toFile().deleteOnExit();
+        ICD11SnapshotWriter.write(file, entries(), "2025-01");
+        return new ICD11SnapshotDiagnosesSystem(file);
+    }
+
+    /**
+     * Returns entity ID of a chapter.
+     */
+    private static @NotNull String chapterID(int chapter) {
+        return "1" + chapter;
+    }
+
+    /**
+     * Returns entity ID of a diagnosis.
+     */
+    private static @NotNull String diagnosisID(int chapter, int block, int diagnosis) {
+        return "3" + (chapter * 100 + block) * 100 + diagnosis;
+    }
+
+    /**
+     * Returns code of a block.
+     */
+    private static @NotNull String blockCode(int chapter, int block) {
+        return Integer.toString(chapter + 1, 36).toUpperCase() + "A" + block + chapter % 10;
+    }
+
+    /**
+     * Returns titles in both languages.
+     */
+    private static @NotNull Map<ICDLanguage, String> titles(@NotNull String english, @NotNull String russian) {
+        return Map.of(ICDLanguage.ENGLISH, english, ICDLanguage.RUSSIAN, russian);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.benchmarks;
+
+import com.clinexa.basediagnosis.SearchHit;
+import com.clinexa.basediagnosis.systems.ICD11SnapshotDiagnosesSystem;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end lookups through {@link ICD11SnapshotDiagnosesSystem}: entity by code,
+ * category listing and title search, each including creation of the returned entities.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LookupBenchmark {
+
+    /**
+     * Language of the lookups.
+     */
+    @Param({"ENGLISH", "RUSSIAN"})
+    public ICDLanguage language;
+
+    private ICD11SnapshotDiagnosesSystem system;
+
+    /**
+     * Opens the snapshot and builds its search index.
+     *
+     * @throws IOException if snapshot can't be written.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        system = Fixtures.snapshotSystem();
+        system.getSearchIndex();
+    }
+
+    /**
+     * Looks up a random diagnosis by code.
+     *
+     * @return found diagnosis.
+     */
+    @Benchmark
+    public Object byCode() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return system.getByICD11Code(Fixtures.code(random.nextInt(Fixtures.CHAPTERS),
+                random.nextInt(Fixtures.BLOCKS), random.nextInt(Fixtures.DIAGNOSES)), language);
+    }
+
+    /**
+     * Lists a random block.
+     *
+     * @return diagnoses of the block.
+     */
+    @Benchmark
+    public List<Map.Entry<Object, String>> categoryListing() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return system.getCategoryListing(Fixtures.blockID(random.nextInt(Fixtures.CHAPTERS),
+                random.nextInt(Fixtures.BLOCKS)), language);
+    }
+
+    /**
+     * Searches titles with a two-word query.
+     *
+     * @return first page of hits.
+     */
+    @Benchmark
+    public List<SearchHit> search() {
+        String query = language == ICDLanguage.RUSSIAN ? "гастроэнтерит колит" : "gastroenteritis colitis";
+        return system.getSearchIndex().search(query, language, 0, 10, system);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.benchmarks;
+
+import com.clinexa.basediagnosis.Diagnosis;
+import com.clinexa.basediagnosis.DiagnosisEntity;
+import com.clinexa.basediagnosis.systems.ICD11SnapshotDiagnosesSystem;
+import com.clinexa.basediagnosis.utils.DiagnosisEntityCodec;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of a list of diagnoses through Java serialization and through
+ * {@link DiagnosisEntityCodec}.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    /**
+     * Number of diagnoses written at once.
+     */
+    @Param({"1", "100"})
+    public int size;
+
+    private ICD11SnapshotDiagnosesSystem system;
+    private ArrayList<Diagnosis> diagnoses;
+
+    /**
+     * Creates diagnoses to write.
+     *
+     * @throws IOException if snapshot can't be written.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        system = Fixtures.snapshotSystem();
+        diagnoses = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int block = i / Fixtures.DIAGNOSES % Fixtures.BLOCKS;
+            int diagnosis = i % Fixtures.DIAGNOSES;
+            diagnoses.add(new Diagnosis(system, ICDLanguage.ENGLISH, Fixtures.code(1, block, diagnosis),
+                    "Gastroenteritis or colitis of origin " + diagnosis));
+        }
+    }
+
+    /**
+     * Writes diagnoses with {@link ObjectOutputStream} and reads them back.
+     *
+     * @return read diagnoses.
+     * @throws IOException never.
+     * @throws ClassNotFoundException never.
+     */
+    @Benchmark
+    public Object javaSerialization() throws IOException, ClassNotFoundException {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(bytes)) {
+            out.writeObject(diagnoses);
+        }
+        try (var in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return in.readObject();
+        }
+    }
+
+    /**
+     * Writes diagnoses with {@link DiagnosisEntityCodec} and reads them back.
+     *
+     * @return read diagnoses.
+     * @throws IOException never.
+     */
+    @Benchmark
+    public List<DiagnosisEntity> codec() throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        DiagnosisEntityCodec.write(bytes, diagnoses);
+        return DiagnosisEntityCodec.read(new ByteArrayInputStream(bytes.toByteArray()), system);
+    }
+}
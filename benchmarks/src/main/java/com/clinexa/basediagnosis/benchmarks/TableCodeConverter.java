@@ -0,0 +1,74 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.benchmarks;
+
+import com.clinexa.basediagnosis.ICDVersion;
+import com.clinexa.basediagnosis.services.ICDCodeConverter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ICD 11 to ICD 10 converter over a lookup table of the {@link Fixtures} codes.
+ * Installed as a service, so it is found by {@link com.clinexa.basediagnosis.services.ICDCodeConverterRegistry#getDefault()}.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+public final class TableCodeConverter implements ICDCodeConverter {
+
+    private static final Map<String, String> TABLE = new HashMap<>();
+
+    static {
+        for (int chapter = 0; chapter < Fixtures.CHAPTERS; chapter++)
+            for (int block = 0; block < Fixtures.BLOCKS; block++)
+                for (int diagnosis = 0; diagnosis < Fixtures.DIAGNOSES; diagnosis++)
+                    TABLE.put(Fixtures.code(chapter, block, diagnosis),
+                            "A" + String.format("%02d", block * 10 + diagnosis) + "." + chapter % 10);
+    }
+
+    /**
+     * Returns ICD 11.
+     *
+     * @return {@link ICDVersion#ICD11}.
+     */
+    @Override
+    public @NotNull ICDVersion getFromVersion() {
+        return ICDVersion.ICD11;
+    }
+
+    /**
+     * Returns ICD 10.
+     *
+     * @return {@link ICDVersion#ICD10}.
+     */
+    @Override
+    public @NotNull ICDVersion getToVersion() {
+        return ICDVersion.ICD10;
+    }
+
+    /**
+     * Looks up ICD 10 code.
+     *
+     * @param code ICD 11 code.
+     * @return ICD 10 code or "R69" (unknown illness) if code isn't in the table.
+     */
+    @Override
+    public @NotNull String convert(@NotNull String code) {
+        return TABLE.getOrDefault(code, "R69");
+    }
+}
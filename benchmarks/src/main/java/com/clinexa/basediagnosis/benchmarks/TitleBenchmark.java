@@ -0,0 +1,88 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.benchmarks;
+
+import com.clinexa.basediagnosis.Diagnosis;
+import com.clinexa.basediagnosis.systems.ICD11SnapshotDiagnosesSystem;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code getTitle()} in the original language, in an already translated language
+ * and in a language that has to be requested from the system.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TitleBenchmark {
+
+    private ICD11SnapshotDiagnosesSystem system;
+    private String code;
+    private Diagnosis diagnosis;
+
+    /**
+     * Opens the snapshot and translates the diagnosis once, so the translation is cached.
+     *
+     * @throws IOException if snapshot can't be written.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        system = Fixtures.snapshotSystem();
+        code = Fixtures.code(12, 4, 2);
+        diagnosis = new Diagnosis(system, ICDLanguage.ENGLISH, code, "Gastroenteritis or colitis of origin 2");
+        diagnosis.getTitle(ICDLanguage.RUSSIAN);
+    }
+
+    /**
+     * Returns title in the language the diagnosis was created in.
+     *
+     * @return English title.
+     */
+    @Benchmark
+    public String originalLanguage() {
+        return diagnosis.getTitle(ICDLanguage.ENGLISH);
+    }
+
+    /**
+     * Returns title that was translated before.
+     *
+     * @return Russian title.
+     */
+    @Benchmark
+    public String cachedTranslation() {
+        return diagnosis.getTitle(ICDLanguage.RUSSIAN);
+    }
+
+    /**
+     * Creates a diagnosis and translates its title, which requests the system.
+     *
+     * @return Russian title.
+     */
+    @Benchmark
+    public String uncachedTranslation() {
+        return new Diagnosis(system, ICDLanguage.ENGLISH, code, "Gastroenteritis or colitis of origin 2")
+                .getTitle(ICDLanguage.RUSSIAN);
+    }
+}
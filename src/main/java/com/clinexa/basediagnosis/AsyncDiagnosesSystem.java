@@ -0,0 +1,79 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis;
+
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link DiagnosesSystem}.
+ * <br>
+ *
+ * Methods return immediately; the results are delivered through {@link CompletableFuture}.
+ * Failures complete the future exceptionally with the same exceptions the blocking methods
+ * would throw. Cancelling the future aborts requests that are still in progress.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ * @see DiagnosesSystem
+ */
+public interface AsyncDiagnosesSystem {
+
+    /**
+     * Asynchronously returns {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} object
+     * for a given ICD 11 code.
+     *
+     * @param icd11Code ICD 11 code
+     * @param language language to be used as default in returned object.
+     * @return future of {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} object for a given ICD 11 code.
+     * @see DiagnosesSystem#getByICD11Code(String, ICDLanguage)
+     */
+    @NotNull CompletableFuture<Object> getByICD11CodeAsync(@NotNull String icd11Code, @NotNull ICDLanguage language);
+    /**
+     * Asynchronously returns elements of the category.
+     *
+     * @param category ID of category to check, empty for main categories.
+     * @param language default language of the results.
+     * @return future of list of {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} objects form the category.
+     * @see DiagnosesSystem#getCategoryListing(String, ICDLanguage)
+     */
+    @NotNull CompletableFuture<List<Map.Entry<Object, String>>> getCategoryListingAsync(@NotNull String category,
+                                                                                       @NotNull ICDLanguage language);
+    /**
+     * Asynchronously returns search results for the given input query.
+     *
+     * @param query query to search.
+     * @param language default language of the results.
+     * @return future of list of {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} objects for the given query.
+     * @see DiagnosesSystem#getSearchResult(String, ICDLanguage)
+     */
+    @NotNull CompletableFuture<List<Map.Entry<Object, String>>> getSearchResultAsync(@NotNull String query,
+                                                                                    @NotNull ICDLanguage language);
+    /**
+     * Asynchronously returns untranslatable {@link Titled} object with title of
+     * the entity by its ID.
+     *
+     * @param entity ID of the entity to search.
+     * @param language the only language results will be available in.
+     * @return future of {@link Titled} object with title of entity with given ID.
+     * @see DiagnosesSystem#getTitleByEntityID(String, ICDLanguage)
+     */
+    @NotNull CompletableFuture<Titled> getTitleByEntityIDAsync(@NotNull String entity, @NotNull ICDLanguage language);
+}
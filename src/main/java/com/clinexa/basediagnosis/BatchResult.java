@@ -0,0 +1,79 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Result of a batch lookup: values for the keys that were resolved and failures
+ * for the ones that weren't.
+ * <br>
+ *
+ * Every distinct requested key is present in exactly one of the maps. Both maps keep
+ * the order in which keys were requested.
+ *
+ * @param results resolved values by key.
+ * @param failures exceptions by key that couldn't be resolved.
+ * @param <V> type of the values.
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ * @see DiagnosesSystem#getByICD11Codes(Collection, com.clinexa.basediagnosis.utils.ICDLanguage)
+ */
+public record BatchResult<V>(@NotNull Map<String, V> results, @NotNull Map<String, RuntimeException> failures) {
+
+    /**
+     * Creates batch result with unmodifiable copies of the given maps.
+     *
+     * @param results resolved values by key.
+     * @param failures exceptions by key that couldn't be resolved.
+     */
+    public BatchResult {
+        results = Collections.unmodifiableMap(new LinkedHashMap<>(results));
+        failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+    }
+
+    /**
+     * Checks whether all the keys were resolved.
+     *
+     * @return true if there are no failures.
+     */
+    public boolean isComplete() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * Resolves distinct keys one by one.
+     *
+     * @param keys keys to resolve, may contain duplicates.
+     * @param lookup function that resolves a single key.
+     * @return result with values and failures of all the distinct keys.
+     */
+    static <V> @NotNull BatchResult<V> collect(@NotNull Collection<String> keys, @NotNull Function<String, ? extends V> lookup) {
+        Map<String, V> results = new LinkedHashMap<>();
+        Map<String, RuntimeException> failures = new LinkedHashMap<>();
+        for (String key : new LinkedHashSet<>(keys)) {
+            try {
+                results.put(key, lookup.apply(key));
+            } catch (RuntimeException e) {
+                failures.put(key, e);
+            }
+        }
+        return new BatchResult<>(results, failures);
+    }
+}
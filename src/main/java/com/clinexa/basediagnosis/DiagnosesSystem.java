@@ -19,6 +19,8 @@ import com.clinexa.basediagnosis.systems.ICD11DiagnosesSystem;
 import com.clinexa.basediagnosis.utils.ICDLanguage;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -28,7 +30,7 @@ import java.util.Map;
  * @since 0.1-dev.1
  * @author Nikita S.
  */
-public interface DiagnosesSystem {
+public interface DiagnosesSystem extends AutoCloseable {
 
     /**
      * Returns instance of diagnoses system used by default.
@@ -132,6 +134,77 @@ public interface DiagnosesSystem {
      */
     @NotNull Titled getTitleByEntityID(@NotNull String entity, @NotNull ICDLanguage language);
 
+    /**
+     * Returns {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} objects
+     * for many ICD 11 codes at once.
+     * <br>
+     *
+     * Duplicate codes are resolved once. A code that can't be resolved is reported
+     * in {@link BatchResult#failures()} and doesn't fail the rest of the batch.
+     *
+     * @param icd11Codes ICD 11 codes.
+     * @param language language to be used as default in returned objects.
+     * @return {@link BatchResult} with objects by their codes.
+     * @implSpec default implementation calls {@link #getByICD11Code(String, ICDLanguage)} for
+     *           every distinct code one by one.
+     * @since 0.1-dev.2
+     */
+    default @NotNull BatchResult<Object> getByICD11Codes(@NotNull Collection<String> icd11Codes, @NotNull ICDLanguage language) {
+        return BatchResult.collect(icd11Codes, code -> getByICD11Code(code, language));
+    }
+
+    /**
+     * Returns untranslatable {@link Titled} objects with titles of many entities at once.
+     * <br>
+     *
+     * Duplicate IDs are resolved once. An entity that can't be resolved is reported
+     * in {@link BatchResult#failures()} and doesn't fail the rest of the batch.
+     *
+     * @param entities IDs of the entities.
+     * @param language the only language results will be available in.
+     * @return {@link BatchResult} with {@link Titled} objects by entity IDs.
+     * @implSpec default implementation calls {@link #getTitleByEntityID(String, ICDLanguage)} for
+     *           every distinct ID one by one.
+     * @since 0.1-dev.2
+     */
+    default @NotNull BatchResult<Titled> getTitlesByEntityIDs(@NotNull Collection<String> entities, @NotNull ICDLanguage language) {
+        return BatchResult.collect(entities, entity -> getTitleByEntityID(entity, language));
+    }
+
+    /**
+     * Returns one page of lightweight search results for the given input query.
+     * <br>
+     *
+     * Unlike {@link #getSearchResult(String, ICDLanguage)}, full entities are not
+     * required to be requested: {@link SearchHit#getEntity()} gets them on demand.
+     *
+     * @param query query to search.
+     * @param language language of the titles of results.
+     * @param page number of the page, starting from 0.
+     * @param limit maximum number of hits on the page.
+     * @return list of {@link SearchHit} objects on the given page, best first.
+     * @throws IllegalArgumentException if page is negative or limit isn't positive.
+     * @implSpec default implementation pages results of {@link #getSearchResult(String, ICDLanguage)},
+     *           so it requests every full entity. Implementations should override it.
+     * @since 0.1-dev.2
+     */
+    default @NotNull List<SearchHit> getSearchHits(@NotNull String query, @NotNull ICDLanguage language, int page, int limit) {
+        if (page < 0 || limit <= 0)
+            throw new IllegalArgumentException("Invalid page " + page + " with limit " + limit);
+        List<Map.Entry<Object, String>> results = getSearchResult(query, language);
+
+        List<SearchHit> hits = new ArrayList<>();
+        long from = (long) page * limit;
+        for (long i = from; i < Math.min(results.size(), from + limit); i++) {
+            Map.Entry<Object, String> result = results.get((int) i);
+            Object entity = result.getKey();
+            String code = entity instanceof DiagnosisEntity diagnosisEntity ? diagnosisEntity.getICD11Code() : null;
+            hits.add(new SearchHit(result.getValue(), code, ((Titled) entity).getTitle(language), 0,
+                    language, () -> entity));
+        }
+        return hits;
+    }
+
 
     /**
      * Sets parameter for system.
@@ -152,4 +225,16 @@ public interface DiagnosesSystem {
      */
     void init();
 
+    /**
+     * Releases resources (e.g. pooled network connections) held by the system.
+     * <br>
+     *
+     * Does nothing by default. Particular implementation may allow using the
+     * system after this method was called.
+     *
+     * @since 0.1-dev.2
+     */
+    @Override
+    default void close() {}
+
 }
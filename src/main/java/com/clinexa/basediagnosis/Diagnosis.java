@@ -17,12 +17,14 @@ package com.clinexa.basediagnosis;
 
 import com.clinexa.basediagnosis.implementations.DiagnosisEntityImplementationICD11;
 import com.clinexa.basediagnosis.services.SymptomSupplier;
+import com.clinexa.basediagnosis.services.SymptomSupplierRegistry;
 import com.clinexa.basediagnosis.utils.ICDLanguage;
 import org.jetbrains.annotations.NotNull;
 
 import java.nio.file.ProviderNotFoundException;
+import java.util.Collection;
 import java.util.List;
-import java.util.ServiceLoader;
+import java.util.Map;
 
 /**
  * Stores diagnosis information.
@@ -78,19 +80,29 @@ public class Diagnosis extends DiagnosisEntityImplementationICD11 {
      * <br>
      *
      * If several providers give symptoms for this diagnosis, the
-     * behavior is undefined.
+     * first one is used. Provider of the diagnosis and its symptoms are
+     * remembered (see {@link SymptomSupplierRegistry#getDefault()}).
      *
-     * @return list of symptoms of this diagnosis.
+     * @return unmodifiable list of symptoms of this diagnosis.
      * @throws ProviderNotFoundException if no provider gives symptoms for this diagnosis.
      * @see SymptomSupplier
      */
     @SuppressWarnings("unused")
     public @NotNull List<Symptom> getSymptoms() {
-        ServiceLoader<SymptomSupplier> loader = ServiceLoader.load(SymptomSupplier.class);
-        for (SymptomSupplier symptomSupplier : loader) {
-            if (symptomSupplier.canProcess(this))
-                return symptomSupplier.process(this);
-        }
-        throw new ProviderNotFoundException("No symptom provider for diagnosis: " + this);
+        return SymptomSupplierRegistry.getDefault().getSymptoms(this);
+    }
+
+    /**
+     * Returns symptoms of many diagnoses at once, letting every provider
+     * process all of its diagnoses in a single call.
+     *
+     * @param diagnoses diagnoses to list symptoms for.
+     * @return unmodifiable lists of symptoms by diagnoses. Diagnoses no provider gives
+     *         symptoms for are not included.
+     * @since 0.1-dev.2
+     * @see SymptomSupplierRegistry#getSymptoms(Collection)
+     */
+    public static @NotNull Map<Diagnosis, List<Symptom>> getSymptoms(@NotNull Collection<Diagnosis> diagnoses) {
+        return SymptomSupplierRegistry.getDefault().getSymptoms(diagnoses);
     }
 }
@@ -0,0 +1,144 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis;
+
+import com.clinexa.basediagnosis.implementations.TitledImplementation;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Supplier;
+
+/**
+ * Single result of a search, built only from the data returned by the search itself.
+ * <br>
+ *
+ * Full {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} object is
+ * requested from the diagnoses system only when {@link #getEntity()} is called (or
+ * title is asked in a different language), and then reused.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ * @see DiagnosesSystem#getSearchHits(String, ICDLanguage, int, int)
+ */
+public final class SearchHit extends TitledImplementation {
+
+    private final String entityID;
+    private final String code;
+    private final double score;
+    private final Supplier<Object> entityGetter;
+
+    /**
+     * Creates new search hit.
+     *
+     * @param entityID ID of the found entity.
+     * @param code ICD 11 code of the found entity or null if it has no code (e.g. it is a block).
+     * @param title title of the found entity in the given language.
+     * @param score relevance of the hit given by the system, higher is better.
+     * @param language language of the given title.
+     * @param entityGetter function that requests full entity from the system.
+     */
+    public SearchHit(@NotNull String entityID, @Nullable String code, @NotNull String title, double score,
+                     @NotNull ICDLanguage language, @NotNull Supplier<Object> entityGetter) {
+        this(entityID, code, title, score, language, new MemoizedEntity(entityGetter));
+    }
+
+    /**
+     * Creates new search hit with a getter that already saves its result.
+     */
+    private SearchHit(String entityID, String code, String title, double score, ICDLanguage language,
+                      MemoizedEntity entityGetter) {
+        super(title, language, (var lang) -> ((Titled) entityGetter.get()).getTitle(lang));
+        this.entityID = entityID;
+        this.code = code;
+        this.score = score;
+        this.entityGetter = entityGetter;
+    }
+
+    /**
+     * Returns ID of the found entity.
+     *
+     * @return entity ID.
+     */
+    public @NotNull String getEntityID() {
+        return entityID;
+    }
+
+    /**
+     * Returns ICD 11 code of the found entity.
+     *
+     * @return ICD 11 code or null if the entity has no code.
+     */
+    public @Nullable String getCode() {
+        return code;
+    }
+
+    /**
+     * Returns relevance of the hit.
+     *
+     * @return score given by the system, or 0 if the system doesn't score results.
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Returns full entity for this hit. It is requested from the system on
+     * the first call only.
+     *
+     * @return {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} object for this hit.
+     */
+    public @NotNull Object getEntity() {
+        return entityGetter.get();
+    }
+
+    /**
+     * Returns a String describing the hit.
+     *
+     * @return String description of the hit.
+     */
+    @Override
+    public @NotNull String toString() {
+        return "SearchHit{" +
+                "entityID='" + entityID + '\'' +
+                ", code='" + code + '\'' +
+                ", score=" + score +
+                '}';
+    }
+
+    /**
+     * Supplier that requests entity once and then returns the saved one.
+     */
+    private static final class MemoizedEntity implements Supplier<Object> {
+
+        private final Supplier<Object> getter;
+        private volatile Object entity;
+
+        private MemoizedEntity(Supplier<Object> getter) {
+            this.getter = getter;
+        }
+
+        @Override
+        public Object get() {
+            Object result = entity;
+            if (result == null) {
+                result = getter.get();
+                entity = result;
+            }
+            return result;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.clinexa.basediagnosis;
 import com.clinexa.basediagnosis.utils.ICDLanguage;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.EnumSet;
+
 /**
  * Interface for objects that have translatable title.
  *
@@ -26,4 +28,18 @@ public interface Titled {
      */
     @Deprecated(since = "1.0-dev.2", forRemoval = true)
     @NotNull String getTitle();
+
+    /**
+     * Loads titles in the given languages in advance, so later {@link #getTitle(ICDLanguage)}
+     * calls for them return without waiting.
+     *
+     * @param languages languages to load titles in.
+     * @throws UnsupportedOperationException if one of the languages isn't supported.
+     * @implSpec default implementation asks titles one by one.
+     * @since 0.1-dev.2
+     */
+    default void prefetchTitles(@NotNull EnumSet<ICDLanguage> languages) {
+        for (ICDLanguage language : languages)
+            getTitle(language);
+    }
 }
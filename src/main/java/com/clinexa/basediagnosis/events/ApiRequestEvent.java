@@ -0,0 +1,80 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.events;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event of a single exchange with ICD API, from sending the request to reading
+ * the whole response. Recorded only if it takes longer than the threshold (20 ms by default).
+ * <br>
+ *
+ * The event is committed on the thread that completes the exchange, whose stack says nothing
+ * about the caller, so it has no stack trace. The caller is identified by {@link #callerThread} instead.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+@Name("com.clinexa.basediagnosis.ApiRequest")
+@Label("ICD API Request")
+@Category({"DiagnosisBase", "ICD API"})
+@Description("Exchange with ICD API, including reading of the response")
+@StackTrace(false)
+@Threshold("20 ms")
+public final class ApiRequestEvent extends Event {
+
+    /**
+     * Type of the request: codeinfo, entity, search, release or token.
+     */
+    @Label("Endpoint")
+    public String endpoint;
+
+    /**
+     * Code of the language requested, empty for token requests.
+     */
+    @Label("Language")
+    public String language;
+
+    /**
+     * HTTP status of the last response, 0 if no response was received.
+     */
+    @Label("Status")
+    public int status;
+
+    /**
+     * Size of the response body.
+     */
+    @Label("Response Size")
+    @DataAmount
+    public long responseBytes;
+
+    /**
+     * Class of the exception the request failed with, null if it succeeded.
+     */
+    @Label("Error")
+    public String error;
+
+    /**
+     * Thread that started the request.
+     */
+    @Label("Caller Thread")
+    public Thread callerThread;
+
+    /**
+     * Creates event of a request. Fields are filled by the caller before the event is committed.
+     */
+    public ApiRequestEvent() {}
+}
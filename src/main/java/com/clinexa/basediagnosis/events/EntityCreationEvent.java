@@ -0,0 +1,65 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.events;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event of creating a {@link com.clinexa.basediagnosis.Diagnosis},
+ * {@link com.clinexa.basediagnosis.Symptom} or {@link com.clinexa.basediagnosis.DiagnosisCategory}
+ * object from an already received response. Recorded only if it takes longer than the
+ * threshold (1 ms by default).
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+@Name("com.clinexa.basediagnosis.EntityCreation")
+@Label("Entity Creation")
+@Category({"DiagnosisBase", "Entities"})
+@Description("Creation of an entity object from an API response")
+@StackTrace
+@Threshold("1 ms")
+public final class EntityCreationEvent extends Event {
+
+    /**
+     * ID of the entity.
+     */
+    @Label("Entity ID")
+    public String entityID;
+
+    /**
+     * ICD 11 code of the entity, null for categories without code.
+     */
+    @Label("Code")
+    public String code;
+
+    /**
+     * Type of the created object: category, diagnosis or symptom.
+     */
+    @Label("Type")
+    public String type;
+
+    /**
+     * Code of the language of the title.
+     */
+    @Label("Language")
+    public String language;
+
+    /**
+     * Creates event of an entity creation. Fields are filled by the caller before the event is committed.
+     */
+    public EntityCreationEvent() {}
+}
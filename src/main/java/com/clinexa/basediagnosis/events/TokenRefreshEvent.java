@@ -0,0 +1,69 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.events;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event of an access token refresh, from the start of the request until the new
+ * token is available to waiting requests. Threads that join a refresh in progress don't
+ * record their own events.
+ * <br>
+ *
+ * The event is committed on the thread that receives the token, so it has no stack trace.
+ * The thread that started the refresh is recorded in {@link #callerThread}.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+@Name("com.clinexa.basediagnosis.TokenRefresh")
+@Label("ICD API Token Refresh")
+@Category({"DiagnosisBase", "ICD API"})
+@Description("Request of a new access token for ICD API")
+@StackTrace(false)
+@Threshold("0 ms")
+public final class TokenRefreshEvent extends Event {
+
+    /**
+     * Whether a token was already known, i.e. it expires or was rejected.
+     */
+    @Label("Replaces Token")
+    public boolean replacesToken;
+
+    /**
+     * Whether the new token was received.
+     */
+    @Label("Success")
+    public boolean success;
+
+    /**
+     * Lifetime of the new token, 0 if it is unknown or the refresh failed.
+     */
+    @Label("Lifetime")
+    @Timespan(Timespan.SECONDS)
+    public long lifetime;
+
+    /**
+     * Thread that started the refresh.
+     */
+    @Label("Caller Thread")
+    public Thread callerThread;
+
+    /**
+     * Creates event of a token refresh. Fields are filled by the caller before the event is committed.
+     */
+    public TokenRefreshEvent() {}
+}
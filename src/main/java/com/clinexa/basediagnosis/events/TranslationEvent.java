@@ -0,0 +1,59 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.events;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event of a title request in another language (see
+ * {@link com.clinexa.basediagnosis.implementations.AnotherLanguageGetter}). Recorded only if
+ * it takes longer than the threshold (20 ms by default). Titles already received are not requested
+ * again, so they don't produce events.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+@Name("com.clinexa.basediagnosis.Translation")
+@Label("Title Translation")
+@Category({"DiagnosisBase", "Entities"})
+@Description("Request of a title in another language")
+@StackTrace
+@Threshold("20 ms")
+public final class TranslationEvent extends Event {
+
+    /**
+     * Code of the language the object was created with.
+     */
+    @Label("Source Language")
+    public String sourceLanguage;
+
+    /**
+     * Code of the requested language.
+     */
+    @Label("Target Language")
+    public String targetLanguage;
+
+    /**
+     * Whether the title was received.
+     */
+    @Label("Success")
+    public boolean success;
+
+    /**
+     * Creates event of a translation. Fields are filled by the caller before the event is committed.
+     */
+    public TranslationEvent() {}
+}
@@ -5,15 +5,14 @@ import com.clinexa.basediagnosis.DiagnosisEntity;
 import com.clinexa.basediagnosis.ICDVersion;
 import com.clinexa.basediagnosis.Titled;
 import com.clinexa.basediagnosis.services.ICDCodeConverter;
+import com.clinexa.basediagnosis.services.ICDCodeConverterRegistry;
 import com.clinexa.basediagnosis.utils.ICDLanguage;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
-import java.lang.reflect.InvocationTargetException;
 import java.nio.file.ProviderNotFoundException;
 import java.util.Objects;
-import java.util.ServiceLoader;
 
 /**
  * Default implementation of {@link DiagnosisEntity} interface which
@@ -41,11 +40,22 @@ public abstract class DiagnosisEntityImplementationICD11 extends TitledImplement
      * @since 0.1-dev.2
      */
     public DiagnosisEntityImplementationICD11(DiagnosesSystem system, ICDLanguage language, String ICD11Code, String title) {
-        super(title, language, (var lang) -> ((Titled) system.getByICD11Code(ICD11Code, lang)).getTitle(lang));
+        super(title, language, translator(system, ICD11Code));
         this.system = system;
         this.ICD11Code = ICD11Code;
     }
 
+    /**
+     * Creates getter that requests title in another language from the system.
+     *
+     * @param system system to request title from.
+     * @param ICD11Code ICD 11 code of the entity.
+     * @return getter of the title in another language.
+     */
+    private static @NotNull AnotherLanguageGetter translator(@NotNull DiagnosesSystem system, @NotNull String ICD11Code) {
+        return (var lang) -> ((Titled) system.getByICD11Code(ICD11Code, lang)).getTitle(lang);
+    }
+
     /**
      * Default constructor for serialization. DO NOT USE IT!
      *
@@ -84,8 +94,9 @@ public abstract class DiagnosisEntityImplementationICD11 extends TitledImplement
      * Get ICD code in given version.
      * <br>
      *
-     * If ICD version is different from 11, then {@link ServiceLoader} is used to search
-     * for converter. If no converter is found, exception is raised.
+     * If ICD version is different from 11, code is converted with installed services
+     * (see {@link ICDCodeConverterRegistry#getDefault()}), through intermediate versions if
+     * needed. If no converter is found, exception is raised.
      *
      * @param version ICD version for which you need the code. May not be supported.
      * @return code in the given version of the ICD.
@@ -94,17 +105,12 @@ public abstract class DiagnosisEntityImplementationICD11 extends TitledImplement
      */
     @Override
     public @NotNull String getICDCode(@NotNull ICDVersion version) {
-        if (version == ICDVersion.ICD11) {
+        if (version == ICDVersion.ICD11)
             return ICD11Code;
-        } else {
-            ServiceLoader<ICDCodeConverter> loader = ServiceLoader.load(ICDCodeConverter.class);
-            for (ICDCodeConverter converter : loader) {
-                if (converter.getFromVersion() == ICDVersion.ICD11 && converter.getToVersion() == version) {
-                    return converter.convert(ICD11Code);
-                }
-            }
-        }
-        throw new ProviderNotFoundException("Unsupported ICD version: " + version);
+        ICDCodeConverterRegistry registry = ICDCodeConverterRegistry.getDefault();
+        if (!registry.supports(ICDVersion.ICD11, version))
+            throw new ProviderNotFoundException("Unsupported ICD version: " + version);
+        return registry.convert(ICD11Code, ICDVersion.ICD11, version);
     }
 
     /**
@@ -143,33 +149,43 @@ public abstract class DiagnosisEntityImplementationICD11 extends TitledImplement
 
     /**
      * Used to store information about entity using serialization.
-     * For simplicity, only ICD 11 code is saved.
+     * ICD 11 code, title and its language are saved, so the entity can
+     * be read without access to ICD 11 API.
      *
      * @see #readObject(ObjectInputStream)
      */
     @Serial
     private void writeObject(@NotNull ObjectOutputStream out) throws IOException {
         out.writeObject(ICD11Code);
+        out.writeObject(title);
+        out.writeObject(language);
     }
 
     /**
      * Used to get information about entity using serialization.
-     * ICD 11 code is read and then used to get other data from
-     * ICD 11 API.
+     * <br>
+     *
+     * Nothing is requested from ICD 11 API while reading. Titles in other languages are
+     * requested from the default diagnoses system only when asked. Entities written by
+     * 0.1-dev.1 contain only ICD 11 code, so for them even the title is requested on
+     * first use, in the language it is asked in.
      *
      * @see #writeObject(ObjectOutputStream)
      */
     @Serial
-    private void readObject(@NotNull ObjectInputStream in) throws IOException, ClassNotFoundException, NoSuchMethodException,
-            InvocationTargetException, InstantiationException, IllegalAccessException {
+    private void readObject(@NotNull ObjectInputStream in) throws IOException, ClassNotFoundException {
         ICD11Code = (String) in.readObject();
+        try {
+            title = (String) in.readObject();
+            language = (ICDLanguage) in.readObject();
+        } catch (OptionalDataException e) {
+            if (!e.eof)
+                throw e;
+            title = null;
+            language = null;
+        }
 
-        DiagnosesSystem defaultSystem = DiagnosesSystem.getDefaultDiagnosesSystem();
-        var object = (DiagnosisEntityImplementationICD11) defaultSystem.getByICD11Code(ICD11Code);
-
-        system = defaultSystem;
-        language = object.language;
-        title = object.title;
-        anotherLanguageGetter = object.anotherLanguageGetter;
+        system = DiagnosesSystem.getDefaultDiagnosesSystem();
+        anotherLanguageGetter = translator(system, ICD11Code);
     }
 }
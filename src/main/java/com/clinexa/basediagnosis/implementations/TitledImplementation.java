@@ -1,12 +1,31 @@
 package com.clinexa.basediagnosis.implementations;
 
 import com.clinexa.basediagnosis.Titled;
+import com.clinexa.basediagnosis.events.TranslationEvent;
+import com.clinexa.basediagnosis.exceptions.DiagnosesSystemException;
+import com.clinexa.basediagnosis.metrics.MetricsRegistry;
 import com.clinexa.basediagnosis.utils.ICDLanguage;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Default implementation for class that gives its title in
  * different languages.
+ * <br>
+ *
+ * Titles in other languages are requested once per language and kept in the object.
+ * If several threads ask for the same language at once, only one of them requests it.
+ * <br>
+ *
+ * Translations are counted in {@link MetricsRegistry#getDefault()}: {@value #TRANSLATIONS_METRIC}
+ * and {@value #TRANSLATION_ERRORS_METRIC} counters, {@value #TRANSLATION_LATENCY_METRIC} histogram
+ * and {@value #SHARED_TRANSLATIONS_METRIC} counter of threads that waited for another one's request.
  *
  * @since 0.1-dev.2
  * @author Nikita S.
@@ -15,11 +34,43 @@ import org.jetbrains.annotations.NotNull;
 @SuppressWarnings("removal")
 public class TitledImplementation implements Titled {
 
+    /**
+     * Name of the counter of titles requested in another language.
+     *
+     * @since 0.1-dev.2
+     */
+    public static final String TRANSLATIONS_METRIC = "titled.translations";
+
+    /**
+     * Name of the counter of failed title requests in another language.
+     *
+     * @since 0.1-dev.2
+     */
+    public static final String TRANSLATION_ERRORS_METRIC = "titled.translation.errors";
+
+    /**
+     * Name of the histogram of durations of title requests in another language, in nanoseconds.
+     *
+     * @since 0.1-dev.2
+     */
+    public static final String TRANSLATION_LATENCY_METRIC = "titled.translation.latency.nanos";
+
+    /**
+     * Name of the counter of translations received from a request of another thread.
+     *
+     * @since 0.1-dev.2
+     */
+    public static final String SHARED_TRANSLATIONS_METRIC = "titled.translation.shared";
+
     // protected is used for serialization purposes only
     protected String title;
     protected ICDLanguage language;
     protected AnotherLanguageGetter anotherLanguageGetter;
 
+    // slot per language: null, translated String or CompletableFuture of the request in progress
+    private final transient AtomicReferenceArray<Object> translations =
+            new AtomicReferenceArray<>(ICDLanguage.values().length);
+
     /**
      * Create new TitledImplementation using title, its language and method
      * for translating. Should be called from child classes, but may rarely
@@ -56,8 +107,121 @@ public class TitledImplementation implements Titled {
     public final @NotNull String getTitle(@NotNull ICDLanguage language) {
         if (this.language == language)
             return title;
-        else
-            return anotherLanguageGetter.getInAnotherLanguage(language);
+        int slot = language.ordinal();
+        while (true) {
+            Object translation = translations.get(slot);
+            if (translation instanceof String translated)
+                return translated;
+            if (translation instanceof CompletableFuture<?> request) {
+                MetricsRegistry.getDefault().counter(SHARED_TRANSLATIONS_METRIC).increment();
+                return awaitTranslation(request);
+            }
+
+            CompletableFuture<String> request = new CompletableFuture<>();
+            if (translations.compareAndSet(slot, null, request)) {
+                MetricsRegistry metrics = MetricsRegistry.getDefault();
+                metrics.counter(TRANSLATIONS_METRIC).increment();
+                TranslationEvent event = new TranslationEvent();
+                event.begin();
+                long start = System.nanoTime();
+                try {
+                    String translated = anotherLanguageGetter.getInAnotherLanguage(language);
+                    translations.set(slot, translated);
+                    request.complete(translated);
+                    event.success = true;
+                    return translated;
+                } catch (RuntimeException e) {
+                    metrics.counter(TRANSLATION_ERRORS_METRIC).increment();
+                    translations.set(slot, null);
+                    request.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    metrics.histogram(TRANSLATION_LATENCY_METRIC).record(System.nanoTime() - start);
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.sourceLanguage = this.language == null ? "" : this.language.getCode();
+                        event.targetLanguage = language.getCode();
+                        event.commit();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads titles in the given languages concurrently, so later {@link #getTitle(ICDLanguage)}
+     * calls for them return without waiting. Titles that are already loaded are not requested again.
+     *
+     * @param languages languages to load titles in.
+     * @throws UnsupportedOperationException if one of the languages isn't supported.
+     * @throws DiagnosesSystemException if the thread was interrupted while waiting for titles.
+     * @since 0.1-dev.2
+     */
+    @Override
+    public void prefetchTitles(@NotNull EnumSet<ICDLanguage> languages) {
+        List<ICDLanguage> missing = new ArrayList<>();
+        for (ICDLanguage language : languages) {
+            if (language != this.language && !(translations.get(language.ordinal()) instanceof String))
+                missing.add(language);
+        }
+        if (missing.size() <= 1) {
+            missing.forEach(this::getTitle);
+            return;
+        }
+
+        List<Future<String>> requests = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (ICDLanguage language : missing)
+                requests.add(executor.submit(() -> getTitle(language)));
+            for (Future<String> request : requests)
+                request.get();
+        } catch (InterruptedException e) {
+            requests.forEach(request -> request.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new DiagnosesSystemException(e);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    /**
+     * Waits for translation requested by another thread.
+     *
+     * @param request request in progress.
+     * @return translated title.
+     */
+    private String awaitTranslation(CompletableFuture<?> request) {
+        try {
+            return (String) request.join();
+        } catch (CompletionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    /**
+     * Converts failure of translation into unchecked exception that can be rethrown.
+     *
+     * @param cause failure of translation.
+     * @return the cause itself if it is unchecked, or {@link DiagnosesSystemException} wrapping it.
+     */
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException)
+            return runtimeException;
+        if (cause instanceof Error error)
+            throw error;
+        return new DiagnosesSystemException((Exception) cause);
+    }
+
+    /**
+     * Returns language the object was created with, i.e. the language
+     * its title is available in without translation.
+     *
+     * @return original language or null if the object has no title yet (e.g. it was
+     *         deserialized from an old stream with no title).
+     * @since 0.1-dev.2
+     */
+    public @Nullable ICDLanguage getLanguage() {
+        return language;
     }
 
     /**
@@ -0,0 +1,173 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.management.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Read-only MBean with metrics of a {@link MetricsRegistry} as attributes.
+ * Attributes are read from the registry on every request, so metrics created
+ * after registration are visible too.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ * @see MetricsRegistry#registerMBean(String)
+ */
+final class MetricsMBean implements DynamicMBean {
+
+    /**
+     * Attributes every histogram is represented with, by suffix.
+     */
+    private static final Map<String, Function<Histogram.Snapshot, Object>> HISTOGRAM_ATTRIBUTES = Map.of(
+            ".count", Histogram.Snapshot::count,
+            ".sum", Histogram.Snapshot::sum,
+            ".max", Histogram.Snapshot::max,
+            ".mean", Histogram.Snapshot::mean,
+            ".p50", snapshot -> snapshot.percentile(50),
+            ".p90", snapshot -> snapshot.percentile(90),
+            ".p99", snapshot -> snapshot.percentile(99));
+
+    private final MetricsRegistry registry;
+
+    /**
+     * Creates MBean over the registry.
+     *
+     * @param registry registry to expose.
+     */
+    MetricsMBean(@NotNull MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Returns current value of the metric.
+     *
+     * @param attribute name of a counter, a gauge, or a histogram with a suffix.
+     * @return value of the metric.
+     * @throws AttributeNotFoundException if there's no such metric.
+     */
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        return getAttribute(registry.snapshot(), attribute);
+    }
+
+    /**
+     * Returns current values of the metrics, skipping unknown ones.
+     *
+     * @param attributes names of the metrics.
+     * @return list of found attributes.
+     */
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        MetricsSnapshot snapshot = registry.snapshot();
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            try {
+                list.add(new Attribute(attribute, getAttribute(snapshot, attribute)));
+            } catch (AttributeNotFoundException _) {
+                // Unknown attributes are left out, as the contract of getAttributes() says
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Always fails: metrics can't be changed through JMX.
+     *
+     * @throws AttributeNotFoundException always.
+     */
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    /**
+     * Changes nothing: metrics can't be changed through JMX.
+     *
+     * @return empty list.
+     */
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    /**
+     * Always fails: the MBean has no operations.
+     *
+     * @throws ReflectionException always.
+     */
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    /**
+     * Describes attributes of all the metrics currently in the registry.
+     *
+     * @return description of the MBean.
+     */
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        MetricsSnapshot snapshot = registry.snapshot();
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (String counter : snapshot.counters().keySet())
+            attributes.add(attribute(counter, Long.class, "Counter"));
+        for (String gauge : snapshot.gauges().keySet())
+            attributes.add(attribute(gauge, Long.class, "Gauge"));
+        for (String histogram : snapshot.histograms().keySet()) {
+            for (String suffix : HISTOGRAM_ATTRIBUTES.keySet())
+                attributes.add(attribute(histogram + suffix, suffix.equals(".mean") ? Double.class : Long.class,
+                        "Histogram"));
+        }
+        return new MBeanInfo(MetricsRegistry.class.getName(), "Metrics of DiagnosisBase",
+                attributes.toArray(MBeanAttributeInfo[]::new), null, null, null);
+    }
+
+    /**
+     * Returns value of the attribute from the snapshot.
+     *
+     * @throws AttributeNotFoundException if there's no such metric.
+     */
+    private static Object getAttribute(@NotNull MetricsSnapshot snapshot, @NotNull String attribute)
+            throws AttributeNotFoundException {
+        Long value = snapshot.counters().get(attribute);
+        if (value == null)
+            value = snapshot.gauges().get(attribute);
+        if (value != null)
+            return value;
+        int dot = attribute.lastIndexOf('.');
+        if (dot > 0) {
+            Histogram.Snapshot histogram = snapshot.histograms().get(attribute.substring(0, dot));
+            Function<Histogram.Snapshot, Object> getter = HISTOGRAM_ATTRIBUTES.get(attribute.substring(dot));
+            if (histogram != null && getter != null)
+                return getter.apply(histogram);
+        }
+        throw new AttributeNotFoundException("No such metric: " + attribute);
+    }
+
+    /**
+     * Describes a read-only attribute.
+     */
+    private static @NotNull MBeanAttributeInfo attribute(@NotNull String name, @NotNull Class<?> type,
+                                                         @NotNull String description) {
+        return new MBeanAttributeInfo(name, type.getName(), description, true, false, false);
+    }
+}
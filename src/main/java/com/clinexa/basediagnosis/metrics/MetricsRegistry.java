@@ -0,0 +1,173 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.metrics;
+
+import com.clinexa.basediagnosis.exceptions.DiagnosesSystemException;
+import org.jetbrains.annotations.NotNull;
+
+import javax.management.JMException;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of named counters, gauges and histograms of the library.
+ * <br>
+ *
+ * Metrics are created on first use and never removed. All of them are additive,
+ * so several systems may share a registry: their counts are summed up.
+ * Current values can be read with {@link #snapshot()} or through JMX
+ * (see {@link #registerMBean(String)}).
+ * <br>
+ *
+ * Registry is thread-safe. Recording a value costs no locks.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+public final class MetricsRegistry {
+
+    /**
+     * JMX domain of registered registries.
+     */
+    public static final String JMX_DOMAIN = "com.clinexa.basediagnosis";
+
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongAdder> gauges = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Creates empty registry. Most applications should use {@link #getDefault()} instead.
+     */
+    public MetricsRegistry() {}
+
+    /**
+     * Returns registry used by the library unless another one is given.
+     *
+     * @return default registry.
+     */
+    public static @NotNull MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns counter with the given name, creating it if needed. Counters should only grow.
+     *
+     * @param name name of the counter.
+     * @return counter.
+     */
+    public @NotNull LongAdder counter(@NotNull String name) {
+        LongAdder counter = counters.get(name);
+        return counter != null ? counter : counters.computeIfAbsent(name, _ -> new LongAdder());
+    }
+
+    /**
+     * Returns gauge with the given name, creating it if needed. Gauges are increased
+     * and decreased, e.g. when a request starts and finishes.
+     *
+     * @param name name of the gauge.
+     * @return gauge.
+     */
+    public @NotNull LongAdder gauge(@NotNull String name) {
+        LongAdder gauge = gauges.get(name);
+        return gauge != null ? gauge : gauges.computeIfAbsent(name, _ -> new LongAdder());
+    }
+
+    /**
+     * Returns histogram with the given name, creating it if needed.
+     *
+     * @param name name of the histogram.
+     * @return histogram.
+     */
+    public @NotNull Histogram histogram(@NotNull String name) {
+        Histogram histogram = histograms.get(name);
+        return histogram != null ? histogram : histograms.computeIfAbsent(name, _ -> new Histogram());
+    }
+
+    /**
+     * Returns current values of all the metrics.
+     *
+     * @return snapshot with metrics sorted by name.
+     */
+    public @NotNull MetricsSnapshot snapshot() {
+        Map<String, Long> counterValues = new TreeMap<>();
+        counters.forEach((name, counter) -> counterValues.put(name, counter.sum()));
+        Map<String, Long> gaugeValues = new TreeMap<>();
+        gauges.forEach((name, gauge) -> gaugeValues.put(name, gauge.sum()));
+        Map<String, Histogram.Snapshot> histogramValues = new TreeMap<>();
+        histograms.forEach((name, histogram) -> histogramValues.put(name, histogram.snapshot()));
+        return new MetricsSnapshot(Collections.unmodifiableMap(counterValues), Collections.unmodifiableMap(gaugeValues),
+                Collections.unmodifiableMap(histogramValues));
+    }
+
+    /**
+     * Registers the registry in the platform MBean server as a read-only MBean.
+     * <br>
+     *
+     * Every counter and gauge is an attribute with its name. Every histogram is
+     * represented by attributes with its name and suffixes {@code .count}, {@code .sum},
+     * {@code .max}, {@code .mean}, {@code .p50}, {@code .p90} and {@code .p99}.
+     *
+     * @param name value of the {@code name} key of the object name, e.g. "icd11".
+     * @return object name the registry was registered with.
+     * @throws DiagnosesSystemException if the name is invalid or already taken.
+     */
+    public @NotNull ObjectName registerMBean(@NotNull String name) {
+        ObjectName objectName = objectName(name);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMBean(this), objectName);
+        } catch (JMException e) {
+            throw new DiagnosesSystemException(e);
+        }
+        return objectName;
+    }
+
+    /**
+     * Removes the registry registered with {@link #registerMBean(String)} from the platform MBean server.
+     *
+     * @param name name the registry was registered with.
+     * @throws DiagnosesSystemException if there's no such MBean.
+     */
+    public void unregisterMBean(@NotNull String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName(name));
+        } catch (JMException e) {
+            throw new DiagnosesSystemException(e);
+        }
+    }
+
+    /**
+     * Creates object name of a registry.
+     *
+     * @param name value of the {@code name} key.
+     * @return object name.
+     * @throws DiagnosesSystemException if the name is invalid.
+     */
+    private static @NotNull ObjectName objectName(@NotNull String name) {
+        try {
+            return new ObjectName(JMX_DOMAIN + ":type=Metrics,name=" + ObjectName.quote(name));
+        } catch (MalformedObjectNameException e) {
+            throw new DiagnosesSystemException(e);
+        }
+    }
+}
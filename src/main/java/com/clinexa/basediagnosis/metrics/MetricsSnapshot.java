@@ -0,0 +1,64 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * Values of all the metrics of a {@link MetricsRegistry} at some moment.
+ *
+ * @param counters values of counters by name.
+ * @param gauges values of gauges by name.
+ * @param histograms snapshots of histograms by name.
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+public record MetricsSnapshot(@NotNull Map<String, Long> counters, @NotNull Map<String, Long> gauges,
+                              @NotNull Map<String, Histogram.Snapshot> histograms) {
+
+    /**
+     * Returns value of the counter.
+     *
+     * @param name name of the counter.
+     * @return value or 0 if nothing was counted yet.
+     */
+    public long counter(@NotNull String name) {
+        return counters.getOrDefault(name, 0L);
+    }
+
+    /**
+     * Returns value of the gauge.
+     *
+     * @param name name of the gauge.
+     * @return value or 0 if the gauge wasn't changed yet.
+     */
+    public long gauge(@NotNull String name) {
+        return gauges.getOrDefault(name, 0L);
+    }
+
+    /**
+     * Returns snapshot of the histogram.
+     *
+     * @param name name of the histogram.
+     * @return snapshot, empty if nothing was recorded yet.
+     */
+    public @NotNull Histogram.Snapshot histogram(@NotNull String name) {
+        Histogram.Snapshot histogram = histograms.get(name);
+        return histogram != null ? histogram : new Histogram.Snapshot(0, 0, 0, new long[Histogram.BUCKETS]);
+    }
+}
@@ -38,4 +38,22 @@ public interface ICDCodeConverter {
      */
     @NotNull String convert(@NotNull String code);
 
+    /**
+     * Converts many codes from ICD version specified in {@link #getFromVersion()} to
+     * version specified in {@link #getToVersion()} at once.
+     *
+     * @param codes codes to convert.
+     * @return new array with converted codes in the same order.
+     * @implSpec default implementation calls {@link #convert(String)} for every code. Override it
+     *           if converting codes together is cheaper (e.g. one lookup in a mapping table).
+     * @since 0.1-dev.2
+     * @see ICDCodeConverterRegistry#convertAll(String[], ICDVersion, ICDVersion)
+     */
+    default @NotNull String @NotNull [] convertAll(@NotNull String @NotNull [] codes) {
+        String[] converted = new String[codes.length];
+        for (int i = 0; i < codes.length; i++)
+            converted[i] = convert(codes[i]);
+        return converted;
+    }
+
 }
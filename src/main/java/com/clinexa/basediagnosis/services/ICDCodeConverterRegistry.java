@@ -0,0 +1,170 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.services;
+
+import com.clinexa.basediagnosis.ICDVersion;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.ProviderNotFoundException;
+import java.util.*;
+
+/**
+ * Registry of {@link ICDCodeConverter} services indexed by versions they convert between.
+ * <br>
+ *
+ * When there's no converter between two versions, codes are converted through
+ * intermediate versions (e.g. ICD 11 to ICD 10 to ICD 10-CM) using the shortest chain of
+ * converters. All chains are found once on creation, so the registry is immutable and
+ * can be shared between threads.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ * @see ICDCodeConverter
+ */
+public final class ICDCodeConverterRegistry {
+
+    private final Map<ICDVersion, Map<ICDVersion, List<ICDCodeConverter>>> paths = new EnumMap<>(ICDVersion.class);
+
+    /**
+     * Holder of the registry with installed services, loaded on first use.
+     */
+    private static final class DefaultRegistry {
+        private static final ICDCodeConverterRegistry INSTANCE =
+                new ICDCodeConverterRegistry(ServiceLoader.load(ICDCodeConverter.class));
+    }
+
+    /**
+     * Creates registry of the given converters. If there are several converters between
+     * the same versions, the first one is used.
+     *
+     * @param converters converters to register.
+     */
+    public ICDCodeConverterRegistry(@NotNull Iterable<? extends ICDCodeConverter> converters) {
+        Map<ICDVersion, Map<ICDVersion, ICDCodeConverter>> direct = new EnumMap<>(ICDVersion.class);
+        for (ICDCodeConverter converter : converters) {
+            direct.computeIfAbsent(converter.getFromVersion(), _ -> new EnumMap<>(ICDVersion.class))
+                    .putIfAbsent(converter.getToVersion(), converter);
+        }
+        for (ICDVersion from : ICDVersion.values())
+            paths.put(from, findPaths(from, direct));
+    }
+
+    /**
+     * Returns registry of converters installed as services. Services are loaded once,
+     * on the first call.
+     *
+     * @return registry of installed converters.
+     */
+    public static @NotNull ICDCodeConverterRegistry getDefault() {
+        return DefaultRegistry.INSTANCE;
+    }
+
+    /**
+     * Checks whether codes can be converted between the versions.
+     *
+     * @param from version of the codes.
+     * @param to version to convert codes to.
+     * @return true if there's a direct converter or a chain of converters, or versions are the same.
+     */
+    public boolean supports(@NotNull ICDVersion from, @NotNull ICDVersion to) {
+        return from == to || paths.get(from).containsKey(to);
+    }
+
+    /**
+     * Converts code between the versions.
+     *
+     * @param code code to convert.
+     * @param from version of the code.
+     * @param to version to convert code to.
+     * @return converted code, or the same code if versions are the same.
+     * @throws ProviderNotFoundException if there's no converter or chain of converters between the versions.
+     */
+    public @NotNull String convert(@NotNull String code, @NotNull ICDVersion from, @NotNull ICDVersion to) {
+        String converted = code;
+        for (ICDCodeConverter converter : getPath(from, to))
+            converted = converter.convert(converted);
+        return converted;
+    }
+
+    /**
+     * Converts codes between the versions, passing the whole array to every converter
+     * in the chain at once.
+     *
+     * @param codes codes to convert.
+     * @param from version of the codes.
+     * @param to version to convert codes to.
+     * @return new array with converted codes in the same order.
+     * @throws ProviderNotFoundException if there's no converter or chain of converters between the versions.
+     * @see ICDCodeConverter#convertAll(String[])
+     */
+    public @NotNull String @NotNull [] convertAll(@NotNull String @NotNull [] codes, @NotNull ICDVersion from,
+                                                  @NotNull ICDVersion to) {
+        String[] converted = codes.clone();
+        for (ICDCodeConverter converter : getPath(from, to)) {
+            converted = converter.convertAll(converted);
+            if (converted.length != codes.length)
+                throw new IllegalStateException("Converter " + converter.getClass().getName() + " returned " +
+                        converted.length + " codes instead of " + codes.length);
+        }
+        return converted;
+    }
+
+    /**
+     * Returns chain of converters between the versions.
+     *
+     * @param from version of the codes.
+     * @param to version to convert codes to.
+     * @return converters to apply in order, empty if versions are the same.
+     * @throws ProviderNotFoundException if there's no converter or chain of converters between the versions.
+     */
+    private @NotNull List<ICDCodeConverter> getPath(@NotNull ICDVersion from, @NotNull ICDVersion to) {
+        if (from == to)
+            return List.of();
+        List<ICDCodeConverter> path = paths.get(from).get(to);
+        if (path == null)
+            throw new ProviderNotFoundException("No ICD code converter from " + from + " to " + to);
+        return path;
+    }
+
+    /**
+     * Finds the shortest chains of converters from the version to all reachable ones
+     * with breadth-first search.
+     *
+     * @param from version to start from.
+     * @param direct direct converters by versions.
+     * @return chains of converters by target version.
+     */
+    private static @NotNull Map<ICDVersion, List<ICDCodeConverter>> findPaths(
+            @NotNull ICDVersion from, @NotNull Map<ICDVersion, Map<ICDVersion, ICDCodeConverter>> direct) {
+        Map<ICDVersion, List<ICDCodeConverter>> found = new EnumMap<>(ICDVersion.class);
+        Deque<ICDVersion> queue = new ArrayDeque<>();
+        found.put(from, List.of());
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            ICDVersion version = queue.poll();
+            for (Map.Entry<ICDVersion, ICDCodeConverter> next : direct.getOrDefault(version, Map.of()).entrySet()) {
+                if (found.containsKey(next.getKey()))
+                    continue;
+                List<ICDCodeConverter> path = new ArrayList<>(found.get(version));
+                path.add(next.getValue());
+                found.put(next.getKey(), List.copyOf(path));
+                queue.add(next.getKey());
+            }
+        }
+        found.remove(from);
+        return found;
+    }
+}
@@ -4,7 +4,10 @@ import com.clinexa.basediagnosis.Diagnosis;
 import com.clinexa.basediagnosis.Symptom;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service that lists symptoms for a given diagnosis.
@@ -38,4 +41,23 @@ public interface SymptomSupplier {
      */
     @NotNull List<Symptom> process(@NotNull Diagnosis diagnosis);
 
+    /**
+     * Gets symptoms for many diagnoses at once. Only diagnoses {@link #canProcess(Diagnosis)}
+     * returns true for are passed.
+     *
+     * @param diagnoses diagnoses to list symptoms for.
+     * @return lists of symptoms by diagnoses. Diagnoses missing from the map are treated as
+     *         having no known symptoms and are not remembered.
+     * @implSpec default implementation calls {@link #process(Diagnosis)} for every diagnosis.
+     *           Override it if diagnoses can be processed together (e.g. in one database query).
+     * @since 0.1-dev.2
+     * @see SymptomSupplierRegistry#getSymptoms(Collection)
+     */
+    default @NotNull Map<Diagnosis, List<Symptom>> processAll(@NotNull Collection<Diagnosis> diagnoses) {
+        Map<Diagnosis, List<Symptom>> symptoms = new LinkedHashMap<>();
+        for (Diagnosis diagnosis : diagnoses)
+            symptoms.put(diagnosis, process(diagnosis));
+        return symptoms;
+    }
+
 }
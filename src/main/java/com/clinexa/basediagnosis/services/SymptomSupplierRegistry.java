@@ -0,0 +1,185 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.services;
+
+import com.clinexa.basediagnosis.Diagnosis;
+import com.clinexa.basediagnosis.Symptom;
+import com.clinexa.basediagnosis.utils.BoundedCache;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.ProviderNotFoundException;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Registry of {@link SymptomSupplier} services that remembers which supplier
+ * processes which diagnosis and the symptoms it returned.
+ * <br>
+ *
+ * Diagnoses are identified by their ICD 11 codes. The first supplier that can process
+ * a diagnosis is found once and then used directly. Symptom lists are kept in a bounded
+ * cache (see {@link #setMemoization(long, Duration)}).
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ * @see SymptomSupplier
+ */
+public final class SymptomSupplierRegistry {
+
+    /**
+     * Maximum number of symptom lists remembered by default.
+     */
+    public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+    /**
+     * Time symptom lists are remembered for by default.
+     */
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofHours(1);
+
+    private static final int NO_SUPPLIER = -1;
+
+    private final List<SymptomSupplier> suppliers;
+    private final BoundedCache<String, Integer> routes;
+    private volatile BoundedCache<String, List<Symptom>> symptoms;
+
+    /**
+     * Holder of the registry with installed services, loaded on first use.
+     */
+    private static final class DefaultRegistry {
+        private static final SymptomSupplierRegistry INSTANCE =
+                new SymptomSupplierRegistry(ServiceLoader.load(SymptomSupplier.class));
+    }
+
+    /**
+     * Creates registry of the given suppliers with default memoization.
+     *
+     * @param suppliers suppliers in order of priority.
+     */
+    public SymptomSupplierRegistry(@NotNull Iterable<? extends SymptomSupplier> suppliers) {
+        List<SymptomSupplier> list = new ArrayList<>();
+        suppliers.forEach(list::add);
+        this.suppliers = List.copyOf(list);
+        this.routes = new BoundedCache<>(DEFAULT_MAXIMUM_SIZE, DEFAULT_TIME_TO_LIVE);
+        this.symptoms = new BoundedCache<>(DEFAULT_MAXIMUM_SIZE, DEFAULT_TIME_TO_LIVE);
+    }
+
+    /**
+     * Returns registry of suppliers installed as services. Services are loaded once,
+     * on the first call.
+     *
+     * @return registry of installed suppliers.
+     */
+    public static @NotNull SymptomSupplierRegistry getDefault() {
+        return DefaultRegistry.INSTANCE;
+    }
+
+    /**
+     * Sets how many symptom lists are remembered and for how long. Lists remembered
+     * before are forgotten.
+     *
+     * @param maximumSize maximum number of remembered lists, 0 disables memoization.
+     * @param timeToLive time a list is remembered for.
+     */
+    public void setMemoization(long maximumSize, @NotNull Duration timeToLive) {
+        symptoms = new BoundedCache<>(maximumSize, timeToLive);
+    }
+
+    /**
+     * Forgets all remembered symptom lists and suppliers of diagnoses, e.g. after
+     * data of the suppliers was updated.
+     */
+    public void invalidateAll() {
+        routes.invalidateAll();
+        symptoms.invalidateAll();
+    }
+
+    /**
+     * Returns symptoms of the diagnosis.
+     *
+     * @param diagnosis diagnosis to list symptoms for.
+     * @return unmodifiable list of symptoms of this diagnosis.
+     * @throws ProviderNotFoundException if no supplier gives symptoms for this diagnosis.
+     */
+    public @NotNull List<Symptom> getSymptoms(@NotNull Diagnosis diagnosis) {
+        BoundedCache<String, List<Symptom>> cache = symptoms;
+        String code = diagnosis.getICD11Code();
+        List<Symptom> result = cache.get(code);
+        if (result != null)
+            return result;
+
+        int supplier = findSupplier(diagnosis);
+        if (supplier == NO_SUPPLIER)
+            throw new ProviderNotFoundException("No symptom provider for diagnosis: " + diagnosis);
+        result = List.copyOf(suppliers.get(supplier).process(diagnosis));
+        cache.put(code, result);
+        return result;
+    }
+
+    /**
+     * Returns symptoms of many diagnoses at once. Diagnoses that are not remembered
+     * are grouped by their suppliers, and every supplier gets its diagnoses in a single
+     * {@link SymptomSupplier#processAll(Collection)} call.
+     *
+     * @param diagnoses diagnoses to list symptoms for.
+     * @return unmodifiable lists of symptoms by diagnoses, in the order of the given diagnoses.
+     *         Diagnoses no supplier gives symptoms for are not included.
+     */
+    public @NotNull Map<Diagnosis, List<Symptom>> getSymptoms(@NotNull Collection<Diagnosis> diagnoses) {
+        BoundedCache<String, List<Symptom>> cache = symptoms;
+        Map<Diagnosis, List<Symptom>> results = new LinkedHashMap<>();
+        Map<Integer, List<Diagnosis>> missing = new HashMap<>();
+        for (Diagnosis diagnosis : diagnoses) {
+            if (results.containsKey(diagnosis))
+                continue;
+            List<Symptom> remembered = cache.get(diagnosis.getICD11Code());
+            results.put(diagnosis, remembered);
+            if (remembered == null) {
+                int supplier = findSupplier(diagnosis);
+                if (supplier != NO_SUPPLIER)
+                    missing.computeIfAbsent(supplier, _ -> new ArrayList<>()).add(diagnosis);
+            }
+        }
+
+        for (Map.Entry<Integer, List<Diagnosis>> group : missing.entrySet()) {
+            Map<Diagnosis, List<Symptom>> processed = suppliers.get(group.getKey()).processAll(group.getValue());
+            for (Diagnosis diagnosis : group.getValue()) {
+                List<Symptom> result = processed.get(diagnosis);
+                if (result == null)
+                    continue;
+                result = List.copyOf(result);
+                cache.put(diagnosis.getICD11Code(), result);
+                results.put(diagnosis, result);
+            }
+        }
+        results.values().removeIf(Objects::isNull);
+        return results;
+    }
+
+    /**
+     * Returns index of the first supplier that can process the diagnosis, remembering it.
+     *
+     * @param diagnosis diagnosis to process.
+     * @return index of the supplier or {@link #NO_SUPPLIER} if none of them can process it.
+     */
+    private int findSupplier(@NotNull Diagnosis diagnosis) {
+        return routes.get(diagnosis.getICD11Code(), _ -> {
+            for (int i = 0; i < suppliers.size(); i++) {
+                if (suppliers.get(i).canProcess(diagnosis))
+                    return i;
+            }
+            return NO_SUPPLIER;
+        });
+    }
+}
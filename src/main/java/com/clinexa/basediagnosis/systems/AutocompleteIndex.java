@@ -0,0 +1,377 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.*;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * In-process prefix index over titles and codes of ICD 11 entities for type-ahead suggestions.
+ * <br>
+ *
+ * Every word of every title (split as in {@link TitleSearchIndex}) and every code is stored
+ * in a sorted array, so all the words starting with a prefix are found with a binary search.
+ * An entity is suggested when each word of the query is a prefix of one of its words.
+ * <br>
+ *
+ * Index is immutable and can be shared between threads. Suggestions are given by a
+ * {@link Session}, which narrows down its previous candidates while the query grows.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ * @see ICD11SnapshotDiagnosesSystem#getAutocompleteIndex()
+ */
+public final class AutocompleteIndex {
+
+    /**
+     * Default time budget of a single {@link Session#suggest(String, int)} call.
+     */
+    public static final Duration DEFAULT_TIME_BUDGET = Duration.ofMillis(5);
+
+    /**
+     * Number of candidates checked between reading the clock.
+     */
+    private static final int DEADLINE_CHECK_INTERVAL = 64;
+
+    private final String[] entityIDs;
+    private final String[] codes;
+    private final EntityType[] types;
+    private final Map<ICDLanguage, LanguageIndex> languages = new EnumMap<>(ICDLanguage.class);
+
+    /**
+     * Index of titles in a single language.
+     *
+     * @param locale locale used for tokenization.
+     * @param titles titles by document, null if document has no title in this language.
+     * @param terms distinct words by document, including the code.
+     * @param sortedTerms all the words of all the documents in increasing order.
+     * @param sortedDocuments documents of the words in {@code sortedTerms}.
+     */
+    private record LanguageIndex(@NotNull Locale locale, @NotNull String[] titles, @NotNull String[][] terms,
+                                 @NotNull String[] sortedTerms, int @NotNull [] sortedDocuments) {}
+
+    /**
+     * Builds index from the given entries.
+     */
+    private AutocompleteIndex(@NotNull List<ICD11SnapshotEntry> entries) {
+        int size = entries.size();
+        entityIDs = new String[size];
+        codes = new String[size];
+        types = new EntityType[size];
+        EnumSet<ICDLanguage> present = EnumSet.noneOf(ICDLanguage.class);
+        for (int i = 0; i < size; i++) {
+            ICD11SnapshotEntry entry = entries.get(i);
+            entityIDs[i] = entry.entityID();
+            codes[i] = entry.code();
+            types[i] = entry.type();
+            present.addAll(entry.titles().keySet());
+        }
+        for (ICDLanguage language : present)
+            languages.put(language, buildLanguage(entries, language));
+    }
+
+    /**
+     * Builds index of the titles and codes of the given entries in all their languages.
+     *
+     * @param entries entries to index, e.g. from {@link ICD11Crawler#readDump(java.nio.file.Path)}.
+     *                Entries without titles are never suggested.
+     * @return new index.
+     */
+    public static @NotNull AutocompleteIndex of(@NotNull Collection<ICD11SnapshotEntry> entries) {
+        return new AutocompleteIndex(List.copyOf(entries));
+    }
+
+    /**
+     * Checks whether titles in the given language are indexed.
+     *
+     * @param language language to check.
+     * @return true if suggestions in this language are supported.
+     */
+    public boolean supports(@NotNull ICDLanguage language) {
+        return languages.containsKey(language);
+    }
+
+    /**
+     * Starts new session, e.g. for a single search field.
+     *
+     * @param language language of the queries and suggested titles.
+     * @param system system the suggested entities will belong to.
+     * @return new session.
+     * @throws UnsupportedOperationException if titles in the language are not indexed.
+     */
+    public @NotNull Session newSession(@NotNull ICDLanguage language, @NotNull DiagnosesSystem system) {
+        LanguageIndex index = languages.get(language);
+        if (index == null)
+            throw new UnsupportedOperationException("Titles in " + language + " are not indexed");
+        return new Session(index, language, system);
+    }
+
+    /**
+     * Suggestions for a query.
+     *
+     * @param hits best suggestions, first is the best one. Score of a hit is higher
+     *             when more query words match whole words of the title and the title is shorter.
+     * @param complete false if time budget ran out before all the candidates were found and checked,
+     *                 so better suggestions might be missing.
+     */
+    public record Suggestions(@NotNull List<SearchHit> hits, boolean complete) {}
+
+    /**
+     * Type-ahead session. It remembers candidates of the previous query, so when the user
+     * types one more character only those candidates are checked again.
+     * <br>
+     *
+     * Session is not thread-safe: it is meant to serve a single input field.
+     *
+     * @since 0.1-dev.2
+     * @author Nikita S.
+     */
+    public final class Session {
+
+        private final LanguageIndex index;
+        private final ICDLanguage language;
+        private final DiagnosesSystem system;
+        private long timeBudgetNanos = DEFAULT_TIME_BUDGET.toNanos();
+
+        private String previousQuery;
+        private int[] previousCandidates;
+
+        /**
+         * Creates session over the index of a language.
+         */
+        private Session(@NotNull LanguageIndex index, @NotNull ICDLanguage language, @NotNull DiagnosesSystem system) {
+            this.index = index;
+            this.language = language;
+            this.system = system;
+        }
+
+        /**
+         * Sets maximum time a single {@link #suggest(String, int)} call may take.
+         * Suggestions found before it runs out are returned as incomplete.
+         *
+         * @param budget time budget, {@link #DEFAULT_TIME_BUDGET} by default.
+         * @throws IllegalArgumentException if budget isn't positive.
+         */
+        public void setTimeBudget(@NotNull Duration budget) {
+            if (budget.isNegative() || budget.isZero())
+                throw new IllegalArgumentException("Invalid time budget: " + budget);
+            timeBudgetNanos = budget.toNanos();
+        }
+
+        /**
+         * Returns best suggestions for the current text of the input field.
+         * <br>
+         *
+         * If the query extends the previous one, only previous candidates are checked.
+         * Otherwise, candidates are found in the index again.
+         *
+         * @param query current text of the field.
+         * @param limit maximum number of suggestions.
+         * @return suggestions, empty if the query has no words.
+         * @throws IllegalArgumentException if limit isn't positive.
+         */
+        public @NotNull Suggestions suggest(@NotNull String query, int limit) {
+            if (limit <= 0)
+                throw new IllegalArgumentException("Invalid limit: " + limit);
+            long deadline = System.nanoTime() + timeBudgetNanos;
+            List<String> words = TitleSearchIndex.tokenize(query, index.locale());
+            String normalized = String.join(" ", words);
+            if (words.isEmpty()) {
+                previousQuery = null;
+                previousCandidates = null;
+                return new Suggestions(List.of(), true);
+            }
+
+            boolean complete = true;
+            int[] candidates;
+            if (previousQuery != null && normalized.startsWith(previousQuery)) {
+                candidates = previousCandidates;
+            } else {
+                BitSet found = new BitSet(entityIDs.length);
+                complete = prefixCandidates(longest(words), found, deadline);
+                candidates = found.stream().toArray();
+            }
+            int[] matches = new int[candidates.length];
+            int matchCount = 0;
+            Top top = new Top(Math.min(limit, candidates.length));
+            for (int i = 0; i < candidates.length; i++) {
+                if (i % DEADLINE_CHECK_INTERVAL == 0 && i > 0 && System.nanoTime() - deadline > 0) {
+                    complete = false;
+                    break;
+                }
+                int document = candidates[i];
+                double score = score(document, words);
+                if (score < 0)
+                    continue;
+                matches[matchCount++] = document;
+                top.offer(document, score);
+            }
+
+            // Partial candidates can't be narrowed later, as some matches might be missing
+            previousQuery = complete ? normalized : null;
+            previousCandidates = complete ? Arrays.copyOf(matches, matchCount) : null;
+            return new Suggestions(top.toHits(), complete);
+        }
+
+        /**
+         * Collects documents with words starting with the prefix. A short prefix may match
+         * most of the index, so the deadline is checked while the terms are scanned.
+         *
+         * @return false if the deadline passed before all the matching terms were scanned.
+         */
+        private boolean prefixCandidates(@NotNull String prefix, @NotNull BitSet documents, long deadline) {
+            String[] sortedTerms = index.sortedTerms();
+            int from = 0;
+            int to = sortedTerms.length;
+            // The same word repeats for many documents, so find the first one not less than the prefix
+            while (from < to) {
+                int middle = (from + to) >>> 1;
+                if (sortedTerms[middle].compareTo(prefix) < 0)
+                    from = middle + 1;
+                else
+                    to = middle;
+            }
+            for (int i = from; i < sortedTerms.length && sortedTerms[i].startsWith(prefix); i++) {
+                if ((i - from) % DEADLINE_CHECK_INTERVAL == 0 && i > from && System.nanoTime() - deadline > 0)
+                    return false;
+                documents.set(index.sortedDocuments()[i]);
+            }
+            return true;
+        }
+
+        /**
+         * Scores the document for the query.
+         *
+         * @return score or -1 if some word of the query doesn't start any word of the document.
+         */
+        private double score(int document, @NotNull List<String> words) {
+            String[] terms = index.terms()[document];
+            int exact = 0;
+            for (String word : words) {
+                boolean found = false;
+                for (String term : terms) {
+                    if (term.startsWith(word)) {
+                        found = true;
+                        if (term.length() == word.length()) {
+                            exact++;
+                            break;
+                        }
+                    }
+                }
+                if (!found)
+                    return -1;
+            }
+            return exact + 1.0 / (1 + terms.length);
+        }
+
+        /**
+         * Best suggestions collected so far, kept sorted in a small array.
+         */
+        private final class Top {
+            private final int[] documents;
+            private final double[] scores;
+            private int size;
+
+            /**
+             * Creates empty collection of the given capacity.
+             */
+            private Top(int capacity) {
+                documents = new int[capacity];
+                scores = new double[capacity];
+            }
+
+            /**
+             * Inserts document if it is better than the worst collected one.
+             */
+            private void offer(int document, double score) {
+                if (size == documents.length && score <= scores[size - 1])
+                    return;
+                int position = size == documents.length ? size - 1 : size++;
+                while (position > 0 && scores[position - 1] < score) {
+                    documents[position] = documents[position - 1];
+                    scores[position] = scores[position - 1];
+                    position--;
+                }
+                documents[position] = document;
+                scores[position] = score;
+            }
+
+            /**
+             * Creates hits of the collected documents.
+             */
+            private @NotNull List<SearchHit> toHits() {
+                List<SearchHit> hits = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    int document = documents[i];
+                    String title = index.titles()[document];
+                    hits.add(new SearchHit(entityIDs[document], codes[document], title, scores[i], language,
+                            () -> types[document].create(system, entityIDs[document], codes[document], title, language)));
+                }
+                return hits;
+            }
+        }
+    }
+
+    /**
+     * Returns the longest word, which usually has the fewest candidates.
+     */
+    private static @NotNull String longest(@NotNull List<String> words) {
+        String longest = words.getFirst();
+        for (String word : words)
+            if (word.length() > longest.length())
+                longest = word;
+        return longest;
+    }
+
+    /**
+     * Builds index of titles in a single language.
+     */
+    private static @NotNull LanguageIndex buildLanguage(@NotNull List<ICD11SnapshotEntry> entries,
+                                                        @NotNull ICDLanguage language) {
+        Locale locale = Locale.forLanguageTag(language.getCode());
+        String[] titles = new String[entries.size()];
+        String[][] terms = new String[entries.size()][];
+        List<Map.Entry<String, Integer>> pairs = new ArrayList<>();
+        for (int document = 0; document < entries.size(); document++) {
+            ICD11SnapshotEntry entry = entries.get(document);
+            String title = entry.titles().get(language);
+            if (title == null) {
+                terms[document] = new String[0];
+                continue;
+            }
+            titles[document] = title;
+            Set<String> distinct = new LinkedHashSet<>(TitleSearchIndex.tokenize(title, locale));
+            if (entry.code() != null)
+                distinct.add(entry.code().toLowerCase(Locale.ROOT));
+            terms[document] = distinct.toArray(String[]::new);
+            for (String term : distinct)
+                pairs.add(Map.entry(term, document));
+        }
+        pairs.sort(Map.Entry.<String, Integer>comparingByKey().thenComparing(Map.Entry.comparingByValue()));
+
+        String[] sortedTerms = new String[pairs.size()];
+        int[] sortedDocuments = new int[pairs.size()];
+        for (int i = 0; i < pairs.size(); i++) {
+            sortedTerms[i] = pairs.get(i).getKey();
+            sortedDocuments[i] = pairs.get(i).getValue();
+        }
+        return new LanguageIndex(locale, titles, terms, sortedTerms, sortedDocuments);
+    }
+}
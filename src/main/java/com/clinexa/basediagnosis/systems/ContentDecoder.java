@@ -0,0 +1,101 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.systems;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Streaming decoder of compressed HTTP response bodies.
+ * <br>
+ *
+ * Supports {@code gzip} and {@code deflate} content encodings (and their combinations).
+ * Body is decompressed while it's being read, so a compressed response is never held
+ * in memory as a whole.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+final class ContentDecoder {
+
+    /**
+     * Value of {@code Accept-Encoding} header listing supported encodings.
+     */
+    static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private ContentDecoder() {}
+
+    /**
+     * Wraps the body, so it's decompressed while being read.
+     *
+     * @param body body of the response as received.
+     * @param contentEncoding value of {@code Content-Encoding} header, empty if there's none.
+     * @return stream of the decoded body, the body itself if it isn't encoded.
+     * @throws IOException if encoding isn't supported or compressed data is corrupted.
+     */
+    static @NotNull InputStream decode(@NotNull InputStream body, @NotNull String contentEncoding) throws IOException {
+        String[] encodings = contentEncoding.split(",");
+        InputStream decoded = body;
+        // Encodings are listed in the order they were applied
+        for (int i = encodings.length - 1; i >= 0; i--) {
+            String encoding = encodings[i].strip().toLowerCase(Locale.ROOT);
+            decoded = switch (encoding) {
+                case "", "identity" -> decoded;
+                case "gzip", "x-gzip" -> new GZIPInputStream(decoded, BUFFER_SIZE);
+                case "deflate" -> inflate(decoded);
+                default -> throw new IOException("Unsupported content encoding: " + encoding);
+            };
+        }
+        return decoded;
+    }
+
+    /**
+     * Wraps {@code deflate} encoded body. Per HTTP it is zlib format, but some servers
+     * send raw deflate data, so the zlib header is detected first.
+     *
+     * @param body body of the response.
+     * @return stream of the decoded body.
+     * @throws IOException if body can't be read.
+     */
+    private static @NotNull InputStream inflate(@NotNull InputStream body) throws IOException {
+        InputStream buffered = new BufferedInputStream(body, BUFFER_SIZE);
+        buffered.mark(2);
+        int cmf = buffered.read();
+        int flg = buffered.read();
+        buffered.reset();
+        boolean zlib = cmf >= 0 && flg >= 0 && (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0;
+        Inflater inflater = new Inflater(!zlib);
+        return new InflaterInputStream(buffered, inflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.*;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Type of ICD 11 entity, which defines the class used to represent it.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+enum EntityType {
+    DIAGNOSIS(0),
+    SYMPTOM(1),
+    CATEGORY(2);
+
+    private final int id;
+
+    /**
+     * Creates type with the given stored ID.
+     *
+     * @param id ID of the type in files.
+     */
+    EntityType(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Returns ID the type is stored with in snapshots and crawl dumps. Unlike the ordinal,
+     * it doesn't change when types are added or reordered.
+     *
+     * @return ID of the type.
+     */
+    int id() {
+        return id;
+    }
+
+    /**
+     * Returns type by its stored ID.
+     *
+     * @param id ID of the type in a file.
+     * @return type or null if there's no type with this ID.
+     */
+    static @Nullable EntityType byID(int id) {
+        for (EntityType type : values()) {
+            if (type.id == id)
+                return type;
+        }
+        return null;
+    }
+
+    /**
+     * Returns type of ICD 11 entity.
+     * <br>
+     *
+     * Category has children. Diagnosis has an ICD 11 code. Symptom has an ICD 11 code starting
+     * with 'M'. Entity with neither children nor code is treated as a category.
+     *
+     * @param hasChildren whether entity has children.
+     * @param code ICD 11 code of the entity or null if it has no code.
+     * @return type of the entity.
+     */
+    static @NotNull EntityType of(boolean hasChildren, @Nullable String code) {
+        if (hasChildren || code == null || code.isEmpty())
+            return CATEGORY;
+        if (code.startsWith("M"))
+            return SYMPTOM;
+        return DIAGNOSIS;
+    }
+
+    /**
+     * Creates object that represents entity of this type.
+     *
+     * @param system system that was used to get entity. Will be used for translations.
+     * @param entityID ID of the entity.
+     * @param code ICD 11 code of the entity. Required for diagnoses and symptoms.
+     * @param title title of the entity in the given language.
+     * @param language language of the title.
+     * @return {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} object.
+     */
+    @NotNull Object create(@NotNull DiagnosesSystem system, @NotNull String entityID, @Nullable String code,
+                           @NotNull String title, @NotNull ICDLanguage language) {
+        return switch (this) {
+            case CATEGORY -> new DiagnosisCategory(title, entityID, language, system);
+            case DIAGNOSIS -> new Diagnosis(system, language, code, title);
+            case SYMPTOM -> new Symptom(system, language, code, title);
+        };
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.exceptions.DiagnosesSystemException;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Runs blocking lookups concurrently on virtual threads.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+final class FanOut {
+
+    private FanOut() {}
+
+    /**
+     * Applies mapper to every item concurrently, with no more than maxConcurrency
+     * calls running at once.
+     * <br>
+     *
+     * Results keep the order of the items. As soon as one call fails, the rest are
+     * cancelled and the failure is rethrown.
+     *
+     * @param items items to process.
+     * @param mapper function to apply. Usually sends a blocking request.
+     * @param maxConcurrency maximum number of concurrent calls.
+     * @return list of results in the same order as the items.
+     * @throws DiagnosesSystemException if the calling thread was interrupted or mapper threw a checked exception.
+     */
+    static <T, R> @NotNull List<R> map(@NotNull List<T> items, @NotNull Function<? super T, ? extends R> mapper,
+                                       int maxConcurrency) {
+        if (items.size() <= 1 || maxConcurrency <= 1) {
+            List<R> results = new ArrayList<>(items.size());
+            for (T item : items)
+                results.add(mapper.apply(item));
+            return results;
+        }
+
+        Semaphore permits = new Semaphore(maxConcurrency);
+        Object[] results = new Object[items.size()];
+        List<Future<?>> futures = new ArrayList<>(items.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<Map.Entry<Integer, R>> completionService = new ExecutorCompletionService<>(executor);
+            for (int i = 0; i < items.size(); i++) {
+                final int index = i;
+                futures.add(completionService.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return Map.entry(index, mapper.apply(items.get(index)));
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            for (int completed = 0; completed < items.size(); completed++) {
+                try {
+                    Map.Entry<Integer, R> result = completionService.take().get();
+                    results[result.getKey()] = result.getValue();
+                } catch (ExecutionException e) {
+                    futures.forEach(future -> future.cancel(true));
+                    throw Futures.unwrap(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new DiagnosesSystemException(e);
+        }
+
+        @SuppressWarnings("unchecked")
+        List<R> list = (List<R>) new ArrayList<>(Arrays.asList(results));
+        return list;
+    }
+}
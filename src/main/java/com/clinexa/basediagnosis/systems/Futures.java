@@ -0,0 +1,348 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.exceptions.DiagnosesSystemException;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Helpers for {@link CompletableFuture} chains whose cancellation reaches the
+ * HTTP exchange at their start.
+ * <br>
+ *
+ * Cancelling a dependent stage of {@link CompletableFuture} doesn't cancel the stage it
+ * depends on, so every helper here links them: cancelling the returned future cancels
+ * the stage that is still running.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+final class Futures {
+
+    private Futures() {}
+
+    /**
+     * Waits for the future to complete.
+     *
+     * @param future future to wait for.
+     * @return result of the future.
+     * @throws DiagnosesSystemException if the thread was interrupted (the future is cancelled then) or
+     *                                  the future failed with a checked exception.
+     */
+    static <T> T await(@NotNull CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new DiagnosesSystemException(e);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    /**
+     * Starts asynchronous step, turning exception thrown while starting it into a failed future.
+     *
+     * @param step function that starts the step.
+     * @return future of the step.
+     */
+    static <T> @NotNull CompletableFuture<T> start(@NotNull Supplier<CompletableFuture<T>> step) {
+        try {
+            return step.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Applies function to the result of the future.
+     * <br>
+     *
+     * If the source fails with a checked exception (e.g. {@link java.io.IOException} of
+     * the HTTP client), the returned future fails with {@link DiagnosesSystemException} wrapping it.
+     *
+     * @param source future to transform.
+     * @param function function to apply.
+     * @return future with the result of the function, cancelling it cancels the source.
+     */
+    static <T, R> @NotNull CompletableFuture<R> map(@NotNull CompletableFuture<T> source,
+                                                    @NotNull Function<? super T, ? extends R> function) {
+        CompletableFuture<R> result = source.handle((value, error) -> {
+            if (error != null)
+                throw unwrap(error);
+            return function.apply(value);
+        });
+        cancelOnCancel(result, source);
+        return result;
+    }
+
+    /**
+     * Starts the next asynchronous step when the first one completes.
+     *
+     * @param first first step.
+     * @param next function that starts the next step with the result of the first one.
+     * @return future with the result of the next step, cancelling it cancels the step that runs at the moment.
+     */
+    static <T, R> @NotNull CompletableFuture<R> compose(@NotNull CompletableFuture<T> first,
+                                                        @NotNull Function<? super T, CompletableFuture<R>> next) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<?>> current = new AtomicReference<>(first);
+        first.whenComplete((value, error) -> {
+            if (error != null) {
+                result.completeExceptionally(unwrap(error));
+                return;
+            }
+            CompletableFuture<R> second;
+            try {
+                second = next.apply(value);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            current.set(second);
+            if (result.isCancelled())
+                second.cancel(true);
+            second.whenComplete((secondValue, secondError) -> {
+                if (secondError != null)
+                    result.completeExceptionally(unwrap(secondError));
+                else
+                    result.complete(secondValue);
+            });
+        });
+        result.whenComplete((_, _) -> {
+            if (result.isCancelled())
+                current.get().cancel(true);
+        });
+        return result;
+    }
+
+    /**
+     * Starts the step and, if it hasn't completed after the delay, starts it once more (hedges it).
+     * <br>
+     *
+     * The first successful result wins and the other attempt is cancelled. The returned future
+     * fails only when every started attempt has failed; if the first one fails before the delay,
+     * no hedge is started.
+     *
+     * @param step function that starts the step.
+     * @param delay time to wait for the first attempt before starting the second one.
+     * @param onHedge called when the second attempt is started.
+     * @return future of the first successful attempt, cancelling it cancels both attempts.
+     */
+    static <T> @NotNull CompletableFuture<T> hedge(@NotNull Supplier<CompletableFuture<T>> step, @NotNull Duration delay,
+                                                   @NotNull Runnable onHedge) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        List<CompletableFuture<T>> attempts = new CopyOnWriteArrayList<>();
+        AtomicInteger running = new AtomicInteger(1);
+        BiConsumer<T, Throwable> onComplete = (value, error) -> {
+            if (error == null)
+                result.complete(value);
+            else if (running.decrementAndGet() == 0)
+                result.completeExceptionally(unwrap(error));
+        };
+        CompletableFuture<T> first = start(step);
+        attempts.add(first);
+        first.whenComplete(onComplete);
+        if (!result.isDone()) {
+            CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+                // Not started if the first attempt has already finished
+                if (result.isDone() || running.getAndUpdate(count -> count == 0 ? 0 : count + 1) == 0)
+                    return;
+                onHedge.run();
+                CompletableFuture<T> second = start(step);
+                attempts.add(second);
+                if (result.isDone())
+                    second.cancel(true);
+                second.whenComplete(onComplete);
+            });
+        }
+        result.whenComplete((_, _) -> {
+            for (CompletableFuture<T> attempt : attempts)
+                attempt.cancel(true);
+        });
+        return result;
+    }
+
+    /**
+     * Starts asynchronous step for every item, with no more than maxConcurrency steps
+     * running at once.
+     * <br>
+     *
+     * Results keep the order of the items. As soon as one step fails, the running ones
+     * are cancelled, the rest are not started and the returned future fails. Cancelling the
+     * returned future cancels the running steps too.
+     *
+     * @param items items to process.
+     * @param mapper function that starts the step for an item.
+     * @param maxConcurrency maximum number of steps running at once.
+     * @return future with list of results in the same order as the items.
+     */
+    static <T, R> @NotNull CompletableFuture<List<R>> mapAll(@NotNull List<T> items,
+                                                             @NotNull Function<? super T, CompletableFuture<R>> mapper,
+                                                             int maxConcurrency) {
+        return new BoundedMapping<>(items, mapper, Math.max(1, maxConcurrency)).start();
+    }
+
+    /**
+     * Returns future that completes normally with either the result or the failure of the source,
+     * so a single failure can be reported without failing a whole {@link #mapAll(List, Function, int)}.
+     *
+     * @param source future to wait for.
+     * @return future of the outcome, cancelling it cancels the source.
+     */
+    static <T> @NotNull CompletableFuture<Outcome<T>> settle(@NotNull CompletableFuture<T> source) {
+        CompletableFuture<Outcome<T>> result = source.handle((value, error) ->
+                error == null ? new Outcome<>(value, null) : new Outcome<>(null, unwrap(error)));
+        cancelOnCancel(result, source);
+        return result;
+    }
+
+    /**
+     * Removes {@link CompletionException} and {@link ExecutionException} wrappers and converts
+     * failure into unchecked exception that can be rethrown.
+     *
+     * @param error failure of a future or a task.
+     * @return the cause itself if it is unchecked, or {@link DiagnosesSystemException} wrapping it.
+     */
+    static @NotNull RuntimeException unwrap(@NotNull Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null)
+            cause = cause.getCause();
+        if (cause instanceof RuntimeException runtimeException)
+            return runtimeException;
+        if (cause instanceof Error e)
+            throw e;
+        return new DiagnosesSystemException((Exception) cause);
+    }
+
+    /**
+     * Result or failure of a settled future.
+     *
+     * @param value result of the future, null if it failed.
+     * @param failure failure of the future, null if it succeeded.
+     */
+    record Outcome<T>(T value, RuntimeException failure) {}
+
+    /**
+     * Cancels target when source is cancelled.
+     */
+    private static void cancelOnCancel(CompletableFuture<?> source, CompletableFuture<?> target) {
+        source.whenComplete((_, _) -> {
+            if (source.isCancelled())
+                target.cancel(true);
+        });
+    }
+
+    /**
+     * State of a single {@link #mapAll(List, Function, int)} call.
+     * <br>
+     *
+     * Steps are started from a drain loop, so steps that complete right away (e.g. from
+     * cache) don't start the next ones recursively.
+     */
+    private static final class BoundedMapping<T, R> {
+
+        private final List<T> items;
+        private final Function<? super T, CompletableFuture<R>> mapper;
+        private final Object[] results;
+        private final CompletableFuture<List<R>> result = new CompletableFuture<>();
+        private final Set<CompletableFuture<R>> running = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger permits;
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger drainRequests = new AtomicInteger();
+        private int next;
+
+        BoundedMapping(List<T> items, Function<? super T, CompletableFuture<R>> mapper, int maxConcurrency) {
+            this.items = items;
+            this.mapper = mapper;
+            this.results = new Object[items.size()];
+            this.permits = new AtomicInteger(maxConcurrency);
+        }
+
+        CompletableFuture<List<R>> start() {
+            result.whenComplete((_, _) -> {
+                if (result.isCancelled())
+                    running.forEach(future -> future.cancel(true));
+            });
+            if (items.isEmpty())
+                complete();
+            else
+                drain();
+            return result;
+        }
+
+        private void drain() {
+            if (drainRequests.getAndIncrement() != 0)
+                return;
+            do {
+                while (next < items.size() && !result.isDone() && permits.get() > 0) {
+                    permits.decrementAndGet();
+                    startStep(next++);
+                }
+            } while (drainRequests.decrementAndGet() != 0);
+        }
+
+        private void startStep(int index) {
+            CompletableFuture<R> future;
+            try {
+                future = mapper.apply(items.get(index));
+            } catch (RuntimeException e) {
+                fail(e);
+                return;
+            }
+            running.add(future);
+            if (result.isDone())
+                future.cancel(true);
+            future.whenComplete((value, error) -> {
+                running.remove(future);
+                if (error != null) {
+                    fail(error);
+                    return;
+                }
+                results[index] = value;
+                if (completed.incrementAndGet() == items.size()) {
+                    complete();
+                } else {
+                    permits.incrementAndGet();
+                    drain();
+                }
+            });
+        }
+
+        private void fail(Throwable error) {
+            if (result.completeExceptionally(unwrap(error)))
+                running.forEach(future -> future.cancel(true));
+        }
+
+        @SuppressWarnings("unchecked")
+        private void complete() {
+            result.complete((List<R>) new ArrayList<>(Arrays.asList(results)));
+        }
+    }
+}
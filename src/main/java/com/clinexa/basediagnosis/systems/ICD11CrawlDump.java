@@ -0,0 +1,370 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only dump file written by {@link ICD11Crawler}.
+ * <br>
+ *
+ * After a header, the file is a sequence of frames: length of the payload, its CRC32 and
+ * the payload itself (big-endian). Entity frames describe a found entity, children frames
+ * are written after a category has been listed. Frames are only appended, so a crash can
+ * damage only the last frame, which is dropped when the dump is opened again.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+final class ICD11CrawlDump implements AutoCloseable {
+
+    private static final int MAGIC = 0x49434444;  // "ICDD"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int FRAME_HEADER_SIZE = 8;
+
+    private static final byte ENTITY = 1;
+    private static final byte CHILDREN = 2;
+
+    private final FileChannel channel;
+    private final Contents contents;
+
+    /**
+     * Entity found by the crawler.
+     *
+     * @param entityID ID of the entity.
+     * @param parentID ID of the category the entity was found in, empty for chapters.
+     * @param code ICD 11 code of the entity or null if it has no code.
+     * @param type type of the entity.
+     * @param titles titles of the entity by language.
+     */
+    record Entity(@NotNull String entityID, @NotNull String parentID, @Nullable String code, @NotNull EntityType type,
+                  @NotNull Map<ICDLanguage, String> titles) {}
+
+    /**
+     * Valid contents of the dump.
+     *
+     * @param entities entities by ID in order they were written. If an entity was written
+     *                 several times, the last one is kept.
+     * @param children IDs of the children by ID of the category, for listed categories only.
+     * @param size size of the valid part of the file.
+     */
+    record Contents(@NotNull Map<String, Entity> entities, @NotNull Map<String, List<String>> children, long size) {}
+
+    /**
+     * Creates dump over an opened channel.
+     */
+    private ICD11CrawlDump(@NotNull FileChannel channel, @NotNull Contents contents) {
+        this.channel = channel;
+        this.contents = contents;
+    }
+
+    /**
+     * Opens dump for appending, creating it if it doesn't exist. Damaged frame at
+     * the end of the file is cut off.
+     *
+     * @param path path of the dump.
+     * @return opened dump.
+     * @throws IOException if file can't be opened or isn't a dump.
+     */
+    static @NotNull ICD11CrawlDump open(@NotNull Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            Contents contents = read(channel);
+            if (contents.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+                channel.truncate(0);
+                writeFully(channel, header);
+                contents = new Contents(contents.entities(), contents.children(), HEADER_SIZE);
+            } else {
+                channel.truncate(contents.size());
+            }
+            channel.position(contents.size());
+            return new ICD11CrawlDump(channel, contents);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads valid contents of the dump.
+     *
+     * @param path path of the dump.
+     * @return contents of the dump, empty if file doesn't exist.
+     * @throws IOException if file can't be read or isn't a dump.
+     */
+    static @NotNull Contents read(@NotNull Path path) throws IOException {
+        if (!Files.exists(path))
+            return new Contents(Map.of(), Map.of(), 0);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel);
+        }
+    }
+
+    /**
+     * Returns contents the dump had when it was opened.
+     *
+     * @return contents of the dump.
+     */
+    @NotNull Contents contents() {
+        return contents;
+    }
+
+    /**
+     * Appends frames to the dump in a single write, so they are not interleaved with
+     * frames written by other threads.
+     *
+     * @param frames frames created by {@link #entityFrame(Entity)} and {@link #childrenFrame(String, List)}.
+     * @throws IOException if file can't be written.
+     */
+    synchronized void append(@NotNull List<ByteBuffer> frames) throws IOException {
+        ByteBuffer[] buffers = frames.toArray(ByteBuffer[]::new);
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers)
+            remaining += buffer.remaining();
+        while (remaining > 0)
+            remaining -= channel.write(buffers);
+    }
+
+    /**
+     * Forces written frames to the storage device and closes the file.
+     *
+     * @throws IOException if file can't be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try (channel) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Creates frame of the found entity.
+     *
+     * @param entity found entity.
+     * @return frame ready to be appended.
+     */
+    static @NotNull ByteBuffer entityFrame(@NotNull Entity entity) {
+        List<byte[]> strings = new ArrayList<>();
+        strings.add(utf8(entity.entityID()));
+        strings.add(utf8(entity.parentID()));
+        strings.add(entity.code() == null ? null : utf8(entity.code()));
+        for (Map.Entry<ICDLanguage, String> title : entity.titles().entrySet()) {
+            strings.add(utf8(title.getKey().getCode()));
+            strings.add(utf8(title.getValue()));
+        }
+        ByteBuffer payload = ByteBuffer.allocate(3 + stringsSize(strings));
+        payload.put(ENTITY).put((byte) entity.type().id()).put((byte) entity.titles().size());
+        strings.forEach(string -> putString(payload, string));
+        return frame(payload.flip());
+    }
+
+    /**
+     * Creates frame of the listed category.
+     *
+     * @param categoryID ID of the category, empty for the root.
+     * @param childIDs IDs of the children in ICD 11 order.
+     * @return frame ready to be appended.
+     */
+    static @NotNull ByteBuffer childrenFrame(@NotNull String categoryID, @NotNull List<String> childIDs) {
+        List<byte[]> strings = new ArrayList<>();
+        strings.add(utf8(categoryID));
+        childIDs.forEach(child -> strings.add(utf8(child)));
+        ByteBuffer payload = ByteBuffer.allocate(5 + stringsSize(strings));
+        payload.put(CHILDREN).putInt(childIDs.size());
+        strings.forEach(string -> putString(payload, string));
+        return frame(payload.flip());
+    }
+
+    /**
+     * Reads valid frames from the channel with positional reads. The file isn't mapped,
+     * so it can be truncated right after.
+     */
+    private static @NotNull Contents read(@NotNull FileChannel channel) throws IOException {
+        Map<String, Entity> entities = new LinkedHashMap<>();
+        Map<String, List<String>> children = new LinkedHashMap<>();
+        long size = channel.size();
+        if (size == 0)
+            return new Contents(entities, children, 0);
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("Crawl dump is too large");
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (size < HEADER_SIZE || !readFully(channel, header, 0) || header.getInt(0) != MAGIC)
+            throw new StreamCorruptedException("File is not an ICD 11 crawl dump");
+        if (header.getInt(4) != VERSION)
+            throw new StreamCorruptedException("Unsupported ICD 11 crawl dump version: " + header.getInt(4));
+
+        int position = HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        ByteBuffer frameHeader = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+        while (size - position >= FRAME_HEADER_SIZE) {
+            if (!readFully(channel, frameHeader.clear(), position))
+                break;
+            int length = frameHeader.getInt(0);
+            if (length <= 0 || length > size - position - FRAME_HEADER_SIZE)
+                break;
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            if (!readFully(channel, payload, position + FRAME_HEADER_SIZE))
+                break;
+            payload.flip();
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != frameHeader.getInt(4))
+                break;
+            try {
+                readFrame(payload, entities, children);
+            } catch (BufferUnderflowException e) {
+                throw new StreamCorruptedException("Truncated frame in crawl dump");
+            }
+            position += FRAME_HEADER_SIZE + length;
+        }
+        return new Contents(entities, children, position);
+    }
+
+    /**
+     * Reads payload of a single frame with a valid checksum.
+     */
+    private static void readFrame(ByteBuffer payload, Map<String, Entity> entities,
+                                  Map<String, List<String>> children) throws IOException {
+        switch (payload.get()) {
+            case ENTITY -> {
+                int typeID = payload.get();
+                int titleCount = payload.get() & 0xFF;
+                EntityType type = EntityType.byID(typeID);
+                if (type == null)
+                    throw new StreamCorruptedException("Unknown entity type in crawl dump: " + typeID);
+                String entityID = getString(payload);
+                String parentID = getString(payload);
+                String code = getString(payload);
+                Map<ICDLanguage, String> titles = new EnumMap<>(ICDLanguage.class);
+                for (int i = 0; i < titleCount; i++)
+                    titles.put(language(getString(payload)), getString(payload));
+                entities.remove(entityID);
+                entities.put(entityID, new Entity(entityID, parentID, code, type, titles));
+            }
+            case CHILDREN -> {
+                int count = payload.getInt();
+                String categoryID = getString(payload);
+                List<String> childIDs = new ArrayList<>(count);
+                for (int i = 0; i < count; i++)
+                    childIDs.add(getString(payload));
+                children.put(categoryID, List.copyOf(childIDs));
+            }
+            default -> throw new StreamCorruptedException("Unknown frame in crawl dump");
+        }
+    }
+
+    /**
+     * Returns language by its code.
+     */
+    private static ICDLanguage language(String code) throws StreamCorruptedException {
+        for (ICDLanguage language : ICDLanguage.values()) {
+            if (language.getCode().equals(code))
+                return language;
+        }
+        throw new StreamCorruptedException("Unknown language in crawl dump: " + code);
+    }
+
+    /**
+     * Wraps payload into a frame with its length and checksum.
+     */
+    private static ByteBuffer frame(ByteBuffer payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        return ByteBuffer.allocate(FRAME_HEADER_SIZE + payload.remaining())
+                .putInt(payload.remaining()).putInt((int) crc.getValue()).put(payload).flip();
+    }
+
+    /**
+     * Returns number of bytes strings take in a payload.
+     */
+    private static int stringsSize(List<byte[]> strings) {
+        int size = 0;
+        for (byte[] string : strings)
+            size += 4 + (string == null ? 0 : string.length);
+        return size;
+    }
+
+    /**
+     * Puts string as its length and bytes, or -1 for null.
+     */
+    private static void putString(ByteBuffer buffer, byte[] string) {
+        if (string == null)
+            buffer.putInt(-1);
+        else
+            buffer.putInt(string.length).put(string);
+    }
+
+    /**
+     * Gets string written by {@link #putString(ByteBuffer, byte[])}.
+     */
+    private static String getString(ByteBuffer buffer) throws StreamCorruptedException {
+        int length = buffer.getInt();
+        if (length == -1)
+            return null;
+        if (length < 0 || length > buffer.remaining())
+            throw new StreamCorruptedException("Invalid string in crawl dump");
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes string to UTF-8.
+     */
+    private static byte[] utf8(String string) {
+        return string.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads bytes at the position until the buffer is full.
+     *
+     * @return false if the file ended first.
+     */
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0)
+                return false;
+            position += read;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the whole buffer.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+}
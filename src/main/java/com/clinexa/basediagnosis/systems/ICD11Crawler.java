@@ -0,0 +1,368 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.*;
+import com.clinexa.basediagnosis.exceptions.DiagnosesSystemException;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Crawler that walks the whole ICD 11 MMS linearization and exports it to a local dump.
+ * <br>
+ *
+ * Categories are listed with {@link DiagnosesSystem#getParentCategoryListing(ICDLanguage)} and
+ * {@link DiagnosesSystem#getCategoryListing(String, ICDLanguage)} on virtual threads, no more than
+ * {@link #setMaxConcurrency(int)} at a time. Every found entity (ID, code, type, parent and titles
+ * in all the languages) is appended to the dump as soon as its category is listed, so memory use
+ * doesn't grow with the size of ICD 11.
+ * <br>
+ *
+ * Crawl is resumable: if dump file already exists, entities from it are not requested again and
+ * only categories that were not listed yet are crawled. Finished dump can be converted into
+ * a snapshot for {@link ICD11SnapshotDiagnosesSystem} with {@link #writeSnapshot(Path, Path, String)}.
+ * <br>
+ *
+ * Crawler uses only {@link DiagnosesSystem} methods, so codes are stored only for diagnoses
+ * and symptoms: categories are represented by {@link DiagnosisCategory} objects that have no code.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+public final class ICD11Crawler {
+
+    /**
+     * Maximum number of categories listed at the same time by default.
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY = 8;
+
+    private static final String ROOT = "";
+
+    private final DiagnosesSystem system;
+    private final Path dumpFile;
+    private EnumSet<ICDLanguage> languages = EnumSet.of(ICDLanguage.ENGLISH);
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    private ProgressListener progressListener = _ -> {};
+
+    /**
+     * Progress of the crawl.
+     *
+     * @param entities number of entities in the dump, including ones found before resuming.
+     * @param resumedEntities number of entities that were already in the dump when crawl started.
+     * @param listedCategories number of categories listed during this crawl.
+     * @param pendingCategories number of categories waiting to be listed or being listed.
+     * @param elapsed time since the crawl started.
+     */
+    public record Progress(long entities, long resumedEntities, long listedCategories, long pendingCategories,
+                           @NotNull Duration elapsed) {
+
+        /**
+         * Returns throughput of this crawl.
+         *
+         * @return entities found per second since the crawl started, not counting resumed ones.
+         */
+        public double entitiesPerSecond() {
+            long millis = elapsed.toMillis();
+            return millis == 0 ? 0 : (entities - resumedEntities) * 1000.0 / millis;
+        }
+    }
+
+    /**
+     * Listener of the crawl progress.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        /**
+         * Called every time a category is listed and its entities are written. May be called
+         * from several threads at once.
+         *
+         * @param progress progress of the crawl.
+         */
+        void onProgress(@NotNull Progress progress);
+    }
+
+    /**
+     * Creates crawler.
+     *
+     * @param system system to crawl, usually {@link ICD11DiagnosesSystem} ready to work.
+     * @param dumpFile file to write the dump to. If it exists, crawl is resumed.
+     */
+    public ICD11Crawler(@NotNull DiagnosesSystem system, @NotNull Path dumpFile) {
+        this.system = system;
+        this.dumpFile = dumpFile;
+    }
+
+    /**
+     * Sets languages titles are saved in. Listings are requested in the first of them,
+     * titles in other languages are requested for every entity. English only by default.
+     *
+     * @param languages languages of the titles.
+     * @throws IllegalArgumentException if no languages were given.
+     */
+    public void setLanguages(@NotNull EnumSet<ICDLanguage> languages) {
+        if (languages.isEmpty())
+            throw new IllegalArgumentException("At least one language is required");
+        this.languages = EnumSet.copyOf(languages);
+    }
+
+    /**
+     * Sets maximum number of categories listed at the same time. Every listing
+     * may send several requests at once (see {@link ICD11DiagnosesSystem#MAX_CONCURRENT_REQUESTS_KEY}).
+     *
+     * @param maxConcurrency maximum number of concurrent listings, {@link #DEFAULT_MAX_CONCURRENCY} by default.
+     * @throws IllegalArgumentException if number isn't positive.
+     */
+    public void setMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency <= 0)
+            throw new IllegalArgumentException("Invalid maximum concurrency: " + maxConcurrency);
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Sets listener of the crawl progress.
+     *
+     * @param progressListener listener to be called after every listed category.
+     */
+    public void setProgressListener(@NotNull ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Crawls all the categories that are not in the dump yet. Blocks until the crawl is
+     * finished. If any category can't be listed, the crawl is stopped; everything found
+     * before is kept in the dump, so the crawl can be resumed later.
+     *
+     * @return final progress of the crawl.
+     * @throws DiagnosesSystemException if crawl failed or was interrupted.
+     */
+    public @NotNull Progress crawl() {
+        try (ICD11CrawlDump dump = ICD11CrawlDump.open(dumpFile)) {
+            return new Crawl(dump).run();
+        } catch (IOException e) {
+            throw new DiagnosesSystemException(e);
+        }
+    }
+
+    /**
+     * Reads entries from the dump. Parents of every entry are all the categories that
+     * listed it, children are known only for listed categories.
+     *
+     * @param dumpFile dump written by the crawler.
+     * @return entries of the dump, with the root entry first.
+     * @throws IOException if file can't be read or isn't a dump.
+     */
+    public static @NotNull List<ICD11SnapshotEntry> readDump(@NotNull Path dumpFile) throws IOException {
+        ICD11CrawlDump.Contents contents = ICD11CrawlDump.read(dumpFile);
+        Map<String, List<String>> parents = new HashMap<>();
+        for (Map.Entry<String, List<String>> category : contents.children().entrySet()) {
+            for (String child : category.getValue()) {
+                List<String> childParents = parents.computeIfAbsent(child, _ -> new ArrayList<>());
+                if (!category.getKey().equals(ROOT) && !childParents.contains(category.getKey()))
+                    childParents.add(category.getKey());
+            }
+        }
+
+        List<ICD11SnapshotEntry> entries = new ArrayList<>(contents.entities().size() + 1);
+        entries.add(new ICD11SnapshotEntry(ROOT, null, List.of(), contents.children().getOrDefault(ROOT, List.of()),
+                Map.of()));
+        for (ICD11CrawlDump.Entity entity : contents.entities().values()) {
+            entries.add(new ICD11SnapshotEntry(entity.entityID(), entity.code(),
+                    parents.getOrDefault(entity.entityID(), List.of()),
+                    contents.children().getOrDefault(entity.entityID(), List.of()), entity.titles()));
+        }
+        return entries;
+    }
+
+    /**
+     * Converts dump into a snapshot that can be opened by {@link ICD11SnapshotDiagnosesSystem}.
+     *
+     * @param dumpFile dump written by the crawler.
+     * @param snapshotFile snapshot file to write.
+     * @param release name of ICD 11 release the dump belongs to or null if unknown.
+     * @throws IOException if dump can't be read or snapshot can't be written.
+     * @see ICD11SnapshotWriter#write(Path, Collection, String)
+     */
+    public static void writeSnapshot(@NotNull Path dumpFile, @NotNull Path snapshotFile,
+                                     @Nullable String release) throws IOException {
+        ICD11SnapshotWriter.write(snapshotFile, readDump(dumpFile), release);
+    }
+
+    /**
+     * State of a single crawl.
+     */
+    private final class Crawl {
+
+        private final ICD11CrawlDump dump;
+        private final EnumSet<ICDLanguage> languages = EnumSet.copyOf(ICD11Crawler.this.languages);
+        private final ICDLanguage listingLanguage = languages.iterator().next();
+        private final Set<String> known = ConcurrentHashMap.newKeySet();
+        private final Semaphore permits = new Semaphore(maxConcurrency);
+        private final AtomicLong pending = new AtomicLong();
+        private final AtomicLong entities = new AtomicLong();
+        private final AtomicLong listed = new AtomicLong();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private final long resumed;
+        private final long started = System.nanoTime();
+        private ExecutorService executor;
+
+        /**
+         * Creates crawl over the opened dump.
+         */
+        private Crawl(@NotNull ICD11CrawlDump dump) {
+            this.dump = dump;
+            this.known.addAll(dump.contents().entities().keySet());
+            this.resumed = known.size();
+            this.entities.set(resumed);
+        }
+
+        /**
+         * Lists all the categories that were not listed yet and waits for the crawl to finish.
+         */
+        private @NotNull Progress run() {
+            ICD11CrawlDump.Contents contents = dump.contents();
+            List<String> frontier = new ArrayList<>();
+            if (!contents.children().containsKey(ROOT))
+                frontier.add(ROOT);
+            for (ICD11CrawlDump.Entity entity : contents.entities().values()) {
+                if (entity.type() == EntityType.CATEGORY && !contents.children().containsKey(entity.entityID()))
+                    frontier.add(entity.entityID());
+            }
+            if (frontier.isEmpty())
+                return progress();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                this.executor = executor;
+                // Held while the frontier is submitted, so the crawl doesn't finish after the first category
+                pending.incrementAndGet();
+                frontier.forEach(this::submit);
+                if (pending.decrementAndGet() == 0)
+                    done.complete(null);
+                try {
+                    Futures.await(done);
+                } finally {
+                    executor.shutdownNow();
+                }
+            }
+            return progress();
+        }
+
+        /**
+         * Schedules listing of the category.
+         */
+        private void submit(@NotNull String category) {
+            pending.incrementAndGet();
+            try {
+                executor.execute(() -> {
+                    try {
+                        permits.acquire();
+                        try {
+                            if (!done.isDone())
+                                list(category);
+                        } finally {
+                            permits.release();
+                        }
+                    } catch (InterruptedException e) {
+                        done.completeExceptionally(new DiagnosesSystemException(e));
+                    } catch (RuntimeException | Error e) {
+                        done.completeExceptionally(e);
+                    } finally {
+                        if (pending.decrementAndGet() == 0)
+                            done.complete(null);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Crawl is being stopped after a failure
+                pending.decrementAndGet();
+            }
+        }
+
+        /**
+         * Lists the category, writes its new children and the category itself, and
+         * schedules listing of its subcategories.
+         */
+        private void list(@NotNull String category) {
+            List<Map.Entry<Object, String>> listing = category.equals(ROOT)
+                    ? system.getParentCategoryListing(listingLanguage)
+                    : system.getCategoryListing(category, listingLanguage);
+
+            List<String> childIDs = new ArrayList<>(listing.size());
+            List<Map.Entry<Object, String>> found = new ArrayList<>();
+            for (Map.Entry<Object, String> child : listing) {
+                childIDs.add(child.getValue());
+                // Entity listed in several categories is written once
+                if (known.add(child.getValue()))
+                    found.add(child);
+            }
+            List<ICD11CrawlDump.Entity> children = FanOut.map(found,
+                    child -> toEntity(child.getKey(), child.getValue(), category), maxConcurrency);
+
+            List<ByteBuffer> frames = new ArrayList<>(children.size() + 1);
+            children.forEach(child -> frames.add(ICD11CrawlDump.entityFrame(child)));
+            frames.add(ICD11CrawlDump.childrenFrame(category, childIDs));
+            try {
+                dump.append(frames);
+            } catch (IOException e) {
+                throw new DiagnosesSystemException(e);
+            }
+            entities.addAndGet(children.size());
+            listed.incrementAndGet();
+
+            for (ICD11CrawlDump.Entity child : children) {
+                if (child.type() == EntityType.CATEGORY)
+                    submit(child.entityID());
+            }
+            progressListener.onProgress(progress());
+        }
+
+        /**
+         * Collects data of the listed entity, requesting its titles in all the languages.
+         */
+        private @NotNull ICD11CrawlDump.Entity toEntity(@NotNull Object object, @NotNull String entityID,
+                                                        @NotNull String parentID) {
+            Titled titled = (Titled) object;
+            if (languages.size() > 1)
+                titled.prefetchTitles(languages);
+            Map<ICDLanguage, String> titles = new EnumMap<>(ICDLanguage.class);
+            for (ICDLanguage language : languages)
+                titles.put(language, titled.getTitle(language));
+            EntityType type = switch (object) {
+                case Symptom _ -> EntityType.SYMPTOM;
+                case Diagnosis _ -> EntityType.DIAGNOSIS;
+                default -> EntityType.CATEGORY;
+            };
+            String code = object instanceof DiagnosisEntity entity ? entity.getICD11Code() : null;
+            return new ICD11CrawlDump.Entity(entityID, parentID, code, type, titles);
+        }
+
+        /**
+         * Returns current progress.
+         */
+        private @NotNull Progress progress() {
+            return new Progress(entities.get(), resumed, listed.get(), pending.get(),
+                    Duration.ofNanos(System.nanoTime() - started));
+        }
+    }
+}
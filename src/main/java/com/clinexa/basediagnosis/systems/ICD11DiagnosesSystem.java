@@ -16,41 +16,74 @@
 package com.clinexa.basediagnosis.systems;
 
 import com.clinexa.basediagnosis.*;
+import com.clinexa.basediagnosis.events.EntityCreationEvent;
 import com.clinexa.basediagnosis.exceptions.DiagnosesSystemException;
 import com.clinexa.basediagnosis.implementations.TitledImplementation;
+import com.clinexa.basediagnosis.metrics.Histogram;
+import com.clinexa.basediagnosis.metrics.MetricsRegistry;
+import com.clinexa.basediagnosis.utils.BoundedCache;
 import com.clinexa.basediagnosis.utils.ICDLanguage;
 import org.jetbrains.annotations.NotNull;
-import org.json.JSONArray;
+import org.jetbrains.annotations.Nullable;
 import org.json.JSONObject;
 
 import javax.net.ssl.HttpsURLConnection;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.*;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 /**
  * ICD 11-based symptoms and diagnoses management system.
  * <br>
  *
  * Can be used to get subcategories of ICD 11, their subcategories, diagnoses
- * and symptoms in them, get information by ICD 11 code etc.
+ * and symptoms in them, get information by ICD 11 code etc. Every lookup is also
+ * available without blocking (see {@link AsyncDiagnosesSystem}).
+ * <br>
+ *
+ * The system is thread-safe. Parameters, default language and release are kept in an
+ * immutable state that is replaced atomically, so lookups never take locks and
+ * {@link #setParameter(String, String)}, {@link #setLanguage(ICDLanguage)} and {@link #init()}
+ * may be called while other threads use the system.
  *
  * @since 0.1-dev.1
  * @author Nikita S.
  * @see DiagnosesSystem
  */
-public final class ICD11DiagnosesSystem implements DiagnosesSystem {
+public final class ICD11DiagnosesSystem implements DiagnosesSystem, AsyncDiagnosesSystem {
 
-    private ICDLanguage language = ICDLanguage.ENGLISH;
+    private final AtomicReference<State> state = new AtomicReference<>(
+            new State(Collections.unmodifiableMap(new HashMap<>()), ICDLanguage.ENGLISH, null));
 
-    private final Map<String, String> data;
+    private static final long DEFAULT_TIMEOUT_SECONDS = 10;
+    private static final long DEFAULT_MAX_CONCURRENT_REQUESTS = 16;
+    private static final long DEFAULT_CACHE_MAX_SIZE = 10_000;
+    private static final long DEFAULT_CACHE_TTL_SECONDS = 60 * 60;
+    private static final long DEFAULT_CACHE_NOT_FOUND_TTL_SECONDS = 5 * 60;
+    private static final String DEFAULT_API_URL = "https://id.who.int/icd/";
+    private static final String DEFAULT_TOKEN_URL = "https://icdaccessmanagement.who.int/connect/token";
+    private static final long DEFAULT_MAX_RETRIES = 2;
+    private static final long DEFAULT_RETRY_BACKOFF_MILLIS = 100;
+    private static final long MIN_HEDGE_SAMPLES = 20;
 
-    private static final int REQUEST_TIMEOUT = 10;
+    private volatile Executor executor;
+    private volatile ICD11Transport transport;
+    private volatile BoundedCache<ResponseKey, CachedResponse> responseCache;
+    private volatile TitleSearchIndex searchIndex;
+    private final Map<String, String> codeIndex = new ConcurrentHashMap<>();
+    private volatile ICD11Metrics metrics = new ICD11Metrics(MetricsRegistry.getDefault());
+    private final SingleFlight<ResponseKey, CachedResponse> inFlight = new SingleFlight<>(() -> metrics.coalesced());
 
     /**
      * Key that should be passed to {@link #setParameter(String, String)} to set ICD 11 API's client id
@@ -60,21 +93,140 @@ public final class ICD11DiagnosesSystem implements DiagnosesSystem {
      * Key that should be passed to {@link #setParameter(String, String)} to set ICD 11 API's client secret
      */
     public static final String CLIENT_SECRET_KEY = "CLIENT_SECRET";
+    /**
+     * Key that should be passed to {@link #setParameter(String, String)} to set timeout (in seconds)
+     * for establishing a new connection to ICD 11 API. 10 seconds by default.
+     */
+    public static final String CONNECT_TIMEOUT_KEY = "CONNECT_TIMEOUT";
+    /**
+     * Key that should be passed to {@link #setParameter(String, String)} to set timeout (in seconds)
+     * for a single request to ICD 11 API. 10 seconds by default.
+     */
+    public static final String REQUEST_TIMEOUT_KEY = "REQUEST_TIMEOUT";
+    /**
+     * Key that should be passed to {@link #setParameter(String, String)} to set maximum number
+     * of concurrent requests sent while resolving a single listing. 16 by default.
+     */
+    public static final String MAX_CONCURRENT_REQUESTS_KEY = "MAX_CONCURRENT_REQUESTS";
+    /**
+     * Key that should be passed to {@link #setParameter(String, String)} to set maximum number
+     * of API responses kept in cache. 10 000 by default, 0 disables caching.
+     */
+    public static final String CACHE_MAX_SIZE_KEY = "CACHE_MAX_SIZE";
+    /**
+     * Key that should be passed to {@link #setParameter(String, String)} to set time (in seconds)
+     * API response is kept in cache. 1 hour by default.
+     */
+    public static final String CACHE_TTL_KEY = "CACHE_TTL";
+    /**
+     * Key that should be passed to {@link #setParameter(String, String)} to set time (in seconds)
+     * "not found" API response is kept in cache. 5 minutes by default.
+     */
+    public static final String CACHE_NOT_FOUND_TTL_KEY = "CACHE_NOT_FOUND_TTL";
+    /**
+     * Key that should be passed to {@link #setParameter(String, String)} to set base URL of
+     * ICD 11 API, e.g. of a local mirror or a test server. {@code https://id.who.int/icd/} by default.
+     * Cached responses are dropped when it changes, {@link #init()} should be called again.
+     */
+    public static final String API_URL_KEY = "API_URL";
+    /**
+     * Key that should be passed to {@link #setParameter(String, String)} to set URL of
+     * the token endpoint. {@code https://icdaccessmanagement.who.int/connect/token} by default.
+     */
+    public static final String TOKEN_URL_KEY = "TOKEN_URL";
+    /**
+     * Key that should be passed to {@link #setParameter(String, String)} with "false" to send requests
+     * without access token, e.g. to a local ICD-API container with authentication disabled. Client id
+     * and secret are not needed then. Authentication is enabled by default.
+     */
+    public static final String AUTHENTICATION_KEY = "AUTHENTICATION";
+    /**
+     * Key that should be passed to {@link #setParameter(String, String)} to set maximum number
+     * of retries of a request failed with an I/O error, 429 or a 5xx gateway status. 2 by default,
+     * 0 disables retries.
+     */
+    public static final String MAX_RETRIES_KEY = "MAX_RETRIES";
+    /**
+     * Key that should be passed to {@link #setParameter(String, String)} to set base delay (in milliseconds)
+     * before the first retry. The delay doubles with every retry and is randomized. 100 ms by default.
+     */
+    public static final String RETRY_BACKOFF_KEY = "RETRY_BACKOFF";
+    /**
+     * Key that should be passed to {@link #setParameter(String, String)} to enable hedged requests:
+     * if a request takes longer than the given percentile (between 0 and 100, exclusive) of recent
+     * latencies of its endpoint, a duplicate is sent and the first response wins. Disabled by default.
+     */
+    public static final String HEDGE_PERCENTILE_KEY = "HEDGE_PERCENTILE";
+
+    private final ICD11TokenManager tokens = new ICD11TokenManager(this::requestToken);
+
+    /**
+     * Key of the cached API response.
+     *
+     * @param release release of ICD 11 the response belongs to.
+     * @param path API path of the request (with code or entity ID in it).
+     * @param language language of the request.
+     */
+    private record ResponseKey(@NotNull String release, @NotNull String path, @NotNull ICDLanguage language) {}
 
-    private final String CLIENT_TOKEN_KEY = "CLIENT_TOKEN";
+    /**
+     * Configuration of the system. Never modified: every change publishes a new
+     * state, so lookups read a consistent configuration without locking.
+     *
+     * @param parameters parameters given to {@link #setParameter(String, String)}, unmodifiable.
+     * @param language default language.
+     * @param release name of the current release of ICD 11, null before {@link #init()}.
+     */
+    private record State(@NotNull Map<String, String> parameters, @NotNull ICDLanguage language,
+                         @Nullable String release) {
 
-    @SuppressWarnings("FieldCanBeLocal")
-    private final String API_URL_STRING = "https://id.who.int/icd/";
-    private final URI API_URI;
+        /**
+         * Returns copy of the state with the parameter set.
+         *
+         * @param key key of the parameter.
+         * @param value new value of the parameter.
+         * @return new state.
+         */
+        private @NotNull State withParameter(@NotNull String key, String value) {
+            Map<String, String> updated = new HashMap<>(parameters);
+            updated.put(key, value);
+            return new State(Collections.unmodifiableMap(updated), language, release);
+        }
 
-    private final String LATEST_RELEASE_NAME_KEY = "LATEST_RELEASE_NAME";
+        /**
+         * Returns copy of the state with another default language.
+         *
+         * @param language new default language.
+         * @return new state.
+         */
+        private @NotNull State withLanguage(@NotNull ICDLanguage language) {
+            return new State(parameters, language, release);
+        }
 
-    private enum EntityType {
-        DIAGNOSIS,
-        SYMPTOM,
-        CATEGORY
+        /**
+         * Returns copy of the state with another release.
+         *
+         * @param release name of the new release.
+         * @return new state.
+         */
+        private @NotNull State withRelease(@NotNull String release) {
+            return new State(parameters, language, release);
+        }
     }
 
+    /**
+     * Cached API response.
+     *
+     * @param body body of the response or null if API returned "not found".
+     */
+    private record CachedResponse(ICD11Response body) {}
+
+    /**
+     * Executor that reads bodies of asynchronous responses, so threads of the HTTP client
+     * are not blocked while the body is being received.
+     */
+    private static final Executor RESPONSE_READER = task -> Thread.ofVirtual().name("icd11-response-reader").start(task);
+
     private final static DiagnosesSystem instance = new ICD11DiagnosesSystem();
 
     /**
@@ -101,88 +253,215 @@ public final class ICD11DiagnosesSystem implements DiagnosesSystem {
      */
     @SuppressWarnings("DeprecatedIsStillUsed")
     @Deprecated(since = "0.1-dev.2", forRemoval = true)
-    public ICD11DiagnosesSystem() {
-        data = new HashMap<>();
-        API_URI = formURI(API_URL_STRING);
-    }
+    public ICD11DiagnosesSystem() {}
 
     /**
      * Initializes class before usage.
      * <br>
      *
      * ICD 11 API's client id and secret must be given using {@link #setParameter(String, String)}
-     * before calling this method.
+     * before calling this method, unless authentication is disabled. Access token received here
+     * is refreshed automatically before it expires. While the token is being requested, connection
+     * to the API is opened, so the first lookup doesn't wait for it. Can be called again (also
+     * concurrently with lookups) to switch to a newer release of ICD 11.
      *
      * @see #CLIENT_ID_KEY
      * @see #CLIENT_SECRET_KEY
+     * @see #AUTHENTICATION_KEY
      */
     @Override
     public void init() {
-        try (var client = HttpClient.newHttpClient()) {
-            initToken(client);
-            initRelease(language);
-        } catch (IOException | InterruptedException e) {
-            throw new DiagnosesSystemException(e);
+        if (isAuthenticationEnabled())
+            Futures.await(CompletableFuture.allOf(tokens.refresh(), warmUp()));
+        initRelease(state.get().language());
+    }
+
+    /**
+     * Sends HEAD request to the API root, so a connection to the API is pooled by the time
+     * the first lookup is sent. Response is ignored.
+     *
+     * @return future completed when the response is received or the request failed, never exceptionally.
+     */
+    private @NotNull CompletableFuture<Void> warmUp() {
+        try {
+            URI apiURI = getAPIURI();
+            return sendAsync(transport -> transport.newRequest(apiURI)
+                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                    .build(), HttpResponse.BodyHandlers.discarding())
+                    .handle((_, _) -> null);
+        } catch (RuntimeException e) {
+            // Invalid URL is reported by the lookups themselves
+            return CompletableFuture.completedFuture(null);
         }
     }
 
     /**
-     * Gets token from ICD 11 API server and saves is under {@link #CLIENT_TOKEN_KEY}
-     * in data.
+     * Sets executor used by the HTTP client for asynchronous tasks. Pooled connections
+     * are closed and opened again with the new executor.
      *
-     * @param client initialized {@link HttpClient}.
-     * @throws IOException if there's a problem with internet connection.
-     * @throws InterruptedException if connection was interrupted.
+     * @param executor executor to be used or null to use the default one.
+     * @since 0.1-dev.2
      */
-    private void initToken(@NotNull HttpClient client) throws IOException, InterruptedException {
-        if (!data.containsKey(CLIENT_ID_KEY) && !data.containsKey(CLIENT_SECRET_KEY))
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+        resetTransport();
+    }
+
+    /**
+     * Closes pooled connections to ICD 11 API, waiting for requests in progress to finish.
+     * The system stays usable: a new connection pool is created on the next request.
+     *
+     * @since 0.1-dev.2
+     * @see DiagnosesSystem#close()
+     */
+    @Override
+    public void close() {
+        ICD11Transport old = detachTransport();
+        if (old != null)
+            old.close();
+    }
+
+    /**
+     * Returns statistics of the API response cache.
+     *
+     * @return cache statistics since the cache was last configured.
+     * @since 0.1-dev.2
+     * @see #CACHE_MAX_SIZE_KEY
+     */
+    public @NotNull BoundedCache.Stats getCacheStats() {
+        return responseCache().stats();
+    }
+
+    /**
+     * Returns number of API requests that were not sent because an identical request
+     * (same URI and language) was already in flight and its response was shared.
+     *
+     * @return number of coalesced requests since creation.
+     * @since 0.1-dev.2
+     */
+    public long getCoalescedRequestCount() {
+        return inFlight.getCoalescedCount();
+    }
+
+    /**
+     * Sets registry API request metrics are recorded in.
+     * <br>
+     *
+     * For every endpoint type ({@code codeinfo}, {@code entity}, {@code search}, {@code release}
+     * and {@code token}) there are {@code icd11.api.<endpoint>.requests}, {@code .errors} and
+     * {@code .not_found} counters and {@code .latency.nanos} and {@code .response.bytes} histograms.
+     * Besides, there are {@code icd11.api.in_flight} gauge and {@code icd11.api.coalesced},
+     * {@code icd11.cache.hits} and {@code icd11.cache.misses} counters.
+     *
+     * @param registry registry to record metrics in, {@link MetricsRegistry#getDefault()} by default.
+     * @since 0.1-dev.2
+     */
+    public void setMetricsRegistry(@NotNull MetricsRegistry registry) {
+        metrics = new ICD11Metrics(registry);
+    }
+
+    /**
+     * Returns registry API request metrics are recorded in.
+     *
+     * @return metrics registry.
+     * @since 0.1-dev.2
+     * @see #setMetricsRegistry(MetricsRegistry)
+     */
+    public @NotNull MetricsRegistry getMetricsRegistry() {
+        return metrics.registry();
+    }
+
+    /**
+     * Removes all API responses from cache.
+     *
+     * @since 0.1-dev.2
+     */
+    public void clearCache() {
+        responseCache().invalidateAll();
+    }
+
+    /**
+     * Sends token request to ICD 11 access management server.
+     *
+     * @return future of the token with its lifetime.
+     * @throws DiagnosesSystemException if client id and secret were not given.
+     */
+    private @NotNull CompletableFuture<ICD11TokenManager.AccessToken> requestToken() {
+        Map<String, String> parameters = state.get().parameters();
+        if (!parameters.containsKey(CLIENT_ID_KEY) && !parameters.containsKey(CLIENT_SECRET_KEY))
             throw new DiagnosesSystemException("Information for WHO authentication was not given. Set " +
                     "ICD11DiagnosesSystem.CLIENT_ID_KEY and .CLIENT_ID_KEY using setParameter() method!");
-        String clientID = data.get(CLIENT_ID_KEY);
-        String clientSecret = data.get(CLIENT_SECRET_KEY);
+        String clientID = parameters.get(CLIENT_ID_KEY);
+        String clientSecret = parameters.get(CLIENT_SECRET_KEY);
 
-        HttpRequest.Builder builder = HttpRequest.newBuilder();
-        final String TOKEN_ENPOINT = "https://icdaccessmanagement.who.int/connect/token";
         final String SCOPE = "icdapi_access";
         final String GRANT_TYPE = "client_credentials";
-        builder.uri(URI.create(TOKEN_ENPOINT));
+        URI tokenURI = formURI(getURL(TOKEN_URL_KEY, DEFAULT_TOKEN_URL));
         String urlParameters =
                 "client_id=" + URLEncoder.encode(clientID, StandardCharsets.UTF_8) +
                         "&client_secret=" + URLEncoder.encode(clientSecret, StandardCharsets.UTF_8) +
                         "&scope=" + URLEncoder.encode(SCOPE, StandardCharsets.UTF_8) +
                         "&grant_type=" + URLEncoder.encode(GRANT_TYPE, StandardCharsets.UTF_8);
-        builder.POST(HttpRequest.BodyPublishers.ofString(urlParameters, StandardCharsets.UTF_8));
-        builder.setHeader("Content-Type", "application/x-www-form-urlencoded");
+        Function<ICD11Transport, HttpRequest> tokenRequest = transport -> transport.newRequest(tokenURI)
+                .POST(HttpRequest.BodyPublishers.ofString(urlParameters, StandardCharsets.UTF_8))
+                .setHeader("Content-Type", "application/x-www-form-urlencoded")
+                .build();
 
-        builder.timeout(Duration.ofSeconds(REQUEST_TIMEOUT));
+        ICD11Metrics.Request request = metrics.start(ICD11Metrics.Endpoint.TOKEN, null);
+        CompletableFuture<ICD11TokenManager.AccessToken> token = Futures.start(() -> Futures.map(
+                sendAsync(tokenRequest, HttpResponse.BodyHandlers.ofByteArray()), response -> {
+                    request.status(response.statusCode());
+                    request.responseBytes(response.body().length);
+                    return toAccessToken(response);
+                }));
+        token.whenComplete((_, failure) -> request.finish(false, failure));
+        return token;
+    }
 
-        HttpResponse<String> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+    /**
+     * Reads access token and its lifetime from the token response.
+     *
+     * @param response response from the token endpoint.
+     * @return access token.
+     * @throws DiagnosesSystemException if server returned an error or no token.
+     */
+    private @NotNull ICD11TokenManager.AccessToken toAccessToken(@NotNull HttpResponse<byte[]> response) {
+        String body = new String(response.body(), StandardCharsets.UTF_8);
         if (response.statusCode() != HttpURLConnection.HTTP_OK)
-            throw new DiagnosesSystemException("Error response from ICD API: " + response.body());
+            throw new DiagnosesSystemException("Error response from ICD API: " + body);
 
-        var responseObj = new JSONObject(response.body());
+        var responseObj = new JSONObject(body);
         if (!responseObj.has("access_token"))
-            throw new DiagnosesSystemException("Response doesn't contain access token: " + response.body());
-        setParameter(CLIENT_TOKEN_KEY, responseObj.getString("access_token"));
+            throw new DiagnosesSystemException("Response doesn't contain access token: " + body);
+        long expiresIn = responseObj.optLong("expires_in", 0);
+        return new ICD11TokenManager.AccessToken(responseObj.getString("access_token"),
+                expiresIn > 0 ? Duration.ofSeconds(expiresIn) : null);
     }
 
     /**
-     * Gets actual release of ICD 11 from API and saves it in data
-     * under {@link #LATEST_RELEASE_NAME_KEY}.
+     * Gets actual release of ICD 11 from API and publishes it in the state. Code index
+     * is cleared if the release has changed.
      *
      * @param language language to set during request. Shouldn't change anything.
      */
     private void initRelease(@NotNull ICDLanguage language) {
-        JSONObject releaseResponse = getAPIResponse(formURI("release/11/mms"), language);
-        if (!releaseResponse.has("latestRelease"))
+        ICD11Response releaseResponse = getAPIResponse(formURI("release/11/mms"), language, new HashMap<>());
+        if (releaseResponse.latestRelease() == null)
             throw new DiagnosesSystemException("Response doesn't contain latest release: " + releaseResponse);
-        String releaseName = releaseResponse.getString("latestRelease").replace("http://id.who.int/icd/release/11/", "").replace("/mms", "");
-        setParameter(LATEST_RELEASE_NAME_KEY, releaseName);
+        String releaseName = releaseResponse.latestRelease().replace("http://id.who.int/icd/release/11/", "").replace("/mms", "");
+        String previousRelease = state.getAndUpdate(current -> current.withRelease(releaseName)).release();
+        if (previousRelease != null && !previousRelease.equals(releaseName))
+            codeIndex.clear();
     }
 
     /**
      * Returns {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} object
      * for a given ICD 11 code.
+     * <br>
+     *
+     * If the code was already seen by the system (in any listing, search or lookup) or
+     * preloaded with {@link #preloadCodeIndex(Map)}, its entity is requested directly, without
+     * asking API for the entity ID first.
      *
      * @param icd11Code ICD 11 code
      * @param language language to be used as default in returned object.
@@ -192,11 +471,123 @@ public final class ICD11DiagnosesSystem implements DiagnosesSystem {
      */
     @Override
     public @NotNull Object getByICD11Code(@NotNull String icd11Code, @NotNull ICDLanguage language) {
-        JSONObject response = getAPIResponse(formURI(formQuery("") + "/codeinfo/" + icd11Code), language);
-        String entityID = response.getString("stemId");
-        entityID = entityID.substring(entityID.indexOf("mms") + 4);
-        JSONObject codeResponse = getAPIResponse(formURI(formQuery(entityID)), language);
-        return createPairByResponse(codeResponse, entityID, language).getKey();
+        String entityID = codeIndex.get(icd11Code);
+        if (entityID == null)
+            entityID = indexCodeInfo(icd11Code, getAPIResponse(codeInfoURI(icd11Code), language));
+        return getByEntityID(entityID, language);
+    }
+
+    /**
+     * Asynchronously returns {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} object
+     * for a given ICD 11 code.
+     *
+     * @param icd11Code ICD 11 code
+     * @param language language to be used as default in returned object.
+     * @return future of {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} object for a given ICD 11 code.
+     * @since 0.1-dev.2
+     * @see #getByICD11Code(String, ICDLanguage)
+     */
+    @Override
+    public @NotNull CompletableFuture<Object> getByICD11CodeAsync(@NotNull String icd11Code, @NotNull ICDLanguage language) {
+        return Futures.start(() -> {
+            String entityID = codeIndex.get(icd11Code);
+            if (entityID != null)
+                return getByEntityIDAsync(entityID, language);
+            return Futures.compose(getAPIResponseAsync(codeInfoURI(icd11Code), language),
+                    response -> getByEntityIDAsync(indexCodeInfo(icd11Code, response), language));
+        });
+    }
+
+    /**
+     * Returns {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} objects
+     * for many ICD 11 codes at once.
+     * <br>
+     *
+     * Distinct codes are resolved in a single wave with no more than {@link #MAX_CONCURRENT_REQUESTS_KEY}
+     * requests in flight. Codes and entities already known to the system are taken from the code
+     * index and response cache.
+     *
+     * @param icd11Codes ICD 11 codes.
+     * @param language language to be used as default in returned objects.
+     * @return {@link BatchResult} with objects by their codes.
+     * @since 0.1-dev.2
+     * @see DiagnosesSystem#getByICD11Codes(Collection, ICDLanguage)
+     */
+    @Override
+    public @NotNull BatchResult<Object> getByICD11Codes(@NotNull Collection<String> icd11Codes, @NotNull ICDLanguage language) {
+        return resolveBatch(icd11Codes, code -> getByICD11CodeAsync(code, language));
+    }
+
+    /**
+     * Returns untranslatable {@link Titled} objects with titles of many ICD 11 entities at once.
+     * <br>
+     *
+     * Distinct IDs are resolved in a single wave with no more than {@link #MAX_CONCURRENT_REQUESTS_KEY}
+     * requests in flight.
+     *
+     * @param entities IDs of the entities.
+     * @param language the only language results will be available in.
+     * @return {@link BatchResult} with {@link Titled} objects by entity IDs.
+     * @since 0.1-dev.2
+     * @see DiagnosesSystem#getTitlesByEntityIDs(Collection, ICDLanguage)
+     */
+    @Override
+    public @NotNull BatchResult<Titled> getTitlesByEntityIDs(@NotNull Collection<String> entities, @NotNull ICDLanguage language) {
+        return resolveBatch(entities, entity -> getTitleByEntityIDAsync(entity, language));
+    }
+
+    /**
+     * Resolves distinct keys concurrently, collecting failures instead of failing the batch.
+     *
+     * @param keys keys to resolve, may contain duplicates.
+     * @param lookup function that starts asynchronous lookup of a single key.
+     * @return result with values and failures of all the distinct keys.
+     */
+    private <V> @NotNull BatchResult<V> resolveBatch(@NotNull Collection<String> keys,
+                                                     @NotNull Function<String, CompletableFuture<V>> lookup) {
+        List<String> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        List<Futures.Outcome<V>> outcomes = Futures.await(Futures.mapAll(distinctKeys,
+                key -> Futures.settle(Futures.start(() -> lookup.apply(key))), getMaxConcurrentRequests()));
+
+        Map<String, V> results = new LinkedHashMap<>();
+        Map<String, RuntimeException> failures = new LinkedHashMap<>();
+        for (int i = 0; i < distinctKeys.size(); i++) {
+            Futures.Outcome<V> outcome = outcomes.get(i);
+            if (outcome.failure() == null)
+                results.put(distinctKeys.get(i), outcome.value());
+            else
+                failures.put(distinctKeys.get(i), outcome.failure());
+        }
+        return new BatchResult<>(results, failures);
+    }
+
+    /**
+     * Adds known ICD 11 codes with IDs of their entities to the index used by
+     * {@link #getByICD11Code(String, ICDLanguage)}.
+     * <br>
+     *
+     * Index belongs to the current release of ICD 11 and is cleared if {@link #init()}
+     * finds a newer one.
+     *
+     * @param entityIDsByCode map of ICD 11 codes to entity IDs, e.g. from
+     *                        {@link ICD11SnapshotDiagnosesSystem#getCodeIndex()}.
+     * @since 0.1-dev.2
+     */
+    public void preloadCodeIndex(@NotNull Map<String, String> entityIDsByCode) {
+        codeIndex.putAll(entityIDsByCode);
+    }
+
+    /**
+     * Sets local index used to search instead of the API search endpoint. Queries in
+     * languages the index doesn't support are still sent to API. Found entities are
+     * created from the index, so search costs no requests at all.
+     *
+     * @param index index of titles, e.g. from {@link ICD11SnapshotDiagnosesSystem#getSearchIndex()},
+     *              or null to always use API.
+     * @since 0.1-dev.2
+     */
+    public void setSearchIndex(@Nullable TitleSearchIndex index) {
+        searchIndex = index;
     }
 
     /**
@@ -214,6 +605,11 @@ public final class ICD11DiagnosesSystem implements DiagnosesSystem {
 
     /**
      * Returns elements of the category in ICD 11.
+     * <br>
+     *
+     * Children are requested concurrently on virtual threads (see {@link #MAX_CONCURRENT_REQUESTS_KEY}),
+     * but are returned in the same order as in ICD 11. If any of the children can't be
+     * resolved, the rest are cancelled and the exception is thrown.
      *
      * @param category ID of category to check.
      * @param language default language of the results.
@@ -223,20 +619,39 @@ public final class ICD11DiagnosesSystem implements DiagnosesSystem {
      */
     @Override
     public @NotNull List<Map.Entry<Object, String>> getCategoryListing(@NotNull String category, @NotNull ICDLanguage language) {
-        JSONObject apiResponse = getAPIResponse(URI.create(formQuery(category)), language);
-        if (!apiResponse.has("child"))
-            throw new DiagnosesSystemException("Given entity is not a category: " + category);
-        JSONArray children = apiResponse.getJSONArray("child");
+        ICD11Response apiResponse = getAPIResponse(URI.create(formQuery(category)), language);
+        return FanOut.map(getChildURIs(apiResponse, category), childURI -> processChild(childURI, language),
+                getMaxConcurrentRequests());
+    }
 
-        List<Map.Entry<Object, String>> subcategories = new ArrayList<>();
-        for (Object childURI : children) {
-            subcategories.add(processChild((String) childURI, language));
-        }
-        return subcategories;
+    /**
+     * Asynchronously returns elements of the category in ICD 11.
+     * <br>
+     *
+     * Children are requested with no more than {@link #MAX_CONCURRENT_REQUESTS_KEY} requests
+     * in flight, but are returned in the same order as in ICD 11. If any of the children can't be
+     * resolved, the rest are cancelled and the future fails.
+     *
+     * @param category ID of category to check, empty for main categories.
+     * @param language default language of the results.
+     * @return future of list of {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} objects form the category.
+     * @since 0.1-dev.2
+     * @see #getCategoryListing(String, ICDLanguage)
+     */
+    @Override
+    public @NotNull CompletableFuture<List<Map.Entry<Object, String>>> getCategoryListingAsync(@NotNull String category,
+                                                                                              @NotNull ICDLanguage language) {
+        return Futures.start(() -> Futures.compose(getAPIResponseAsync(URI.create(formQuery(category)), language),
+                response -> Futures.mapAll(getChildURIs(response, category),
+                        childURI -> processChildAsync(childURI, language), getMaxConcurrentRequests())));
     }
 
     /**
      * Returns search results for the given input query.
+     * <br>
+     *
+     * Full entities for all the hits are requested concurrently (see {@link #MAX_CONCURRENT_REQUESTS_KEY}).
+     * Use {@link #getSearchHits(String, ICDLanguage, int, int)} if not all of them are needed.
      *
      * @param query query to search.
      * @param language default language of the results.
@@ -246,19 +661,131 @@ public final class ICD11DiagnosesSystem implements DiagnosesSystem {
      */
     @Override
     public @NotNull List<Map.Entry<Object, String>> getSearchResult(@NotNull String query, @NotNull ICDLanguage language) {
-        String queryForURI = formQuery("search?q=" + URLEncoder.encode(query, StandardCharsets.UTF_8));
-        JSONObject response = getAPIResponse(formURI(queryForURI), language);
-        JSONArray responsesArray = response.getJSONArray("destinationEntities");
-
-        List<Map.Entry<Object, String>> subcategories = new ArrayList<>();
-        for (Object obj : responsesArray) {
-            JSONObject destinationEntity = (JSONObject) obj;
-            String entityID = destinationEntity.getString("stemId");
-            entityID = entityID.substring(entityID.indexOf("mms") + 4);
-            JSONObject destinationEntityResponse = getAPIResponse(formURI(formQuery(entityID)), language);
-            subcategories.add(createPairByResponse(destinationEntityResponse, entityID, language));
+        List<SearchHit> hits = searchHits(query, language, 0, Integer.MAX_VALUE);
+        if (localSearchIndex(language) != null)
+            return hits.stream()
+                    .map(hit -> (Map.Entry<Object, String>) new AbstractMap.SimpleEntry<>(hit.getEntity(), hit.getEntityID()))
+                    .toList();
+        return FanOut.map(hits, hit -> new AbstractMap.SimpleEntry<>(hit.getEntity(), hit.getEntityID()),
+                getMaxConcurrentRequests());
+    }
+
+    /**
+     * Asynchronously returns search results for the given input query.
+     * <br>
+     *
+     * Full entities for all the hits are requested with no more than
+     * {@link #MAX_CONCURRENT_REQUESTS_KEY} requests in flight.
+     *
+     * @param query query to search.
+     * @param language default language of the results.
+     * @return future of list of {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} objects for the given query.
+     * @since 0.1-dev.2
+     * @see #getSearchResult(String, ICDLanguage)
+     */
+    @Override
+    public @NotNull CompletableFuture<List<Map.Entry<Object, String>>> getSearchResultAsync(@NotNull String query,
+                                                                                           @NotNull ICDLanguage language) {
+        if (localSearchIndex(language) != null)
+            return Futures.start(() -> CompletableFuture.completedFuture(getSearchResult(query, language)));
+        return Futures.start(() -> Futures.compose(getAPIResponseAsync(searchURI(query), language),
+                response -> Futures.mapAll(toSearchHits(response, language, 0, Integer.MAX_VALUE),
+                        hit -> Futures.map(getByEntityIDAsync(hit.getEntityID(), language),
+                                entity -> (Map.Entry<Object, String>) new AbstractMap.SimpleEntry<>(entity, hit.getEntityID())),
+                        getMaxConcurrentRequests())));
+    }
+
+    /**
+     * Returns one page of search results built only from the search response. Full entity
+     * is requested only when {@link SearchHit#getEntity()} is called or title is asked in
+     * another language, so the page costs a single request.
+     *
+     * @param query query to search.
+     * @param language language of the titles of results.
+     * @param page number of the page, starting from 0.
+     * @param limit maximum number of hits on the page.
+     * @return list of {@link SearchHit} objects on the given page, best first.
+     * @throws IllegalArgumentException if page is negative or limit isn't positive.
+     * @since 0.1-dev.2
+     * @see DiagnosesSystem#getSearchHits(String, ICDLanguage, int, int)
+     */
+    @Override
+    public @NotNull List<SearchHit> getSearchHits(@NotNull String query, @NotNull ICDLanguage language, int page, int limit) {
+        if (page < 0 || limit <= 0)
+            throw new IllegalArgumentException("Invalid page " + page + " with limit " + limit);
+        return searchHits(query, language, page, limit);
+    }
+
+    /**
+     * Returns one page of search results in set language.
+     *
+     * @param query query to search.
+     * @param page number of the page, starting from 0.
+     * @param limit maximum number of hits on the page.
+     * @return list of {@link SearchHit} objects on the given page, best first.
+     * @throws IllegalArgumentException if page is negative or limit isn't positive.
+     * @since 0.1-dev.2
+     * @see #getSearchHits(String, ICDLanguage, int, int)
+     */
+    public @NotNull List<SearchHit> getSearchHits(@NotNull String query, int page, int limit) {
+        return getSearchHits(query, state.get().language(), page, limit);
+    }
+
+    /**
+     * Searches the local index if it is set and supports the language, otherwise sends
+     * search request and builds hits of the given page from its response.
+     *
+     * @param query query to search.
+     * @param language language of the titles of results.
+     * @param page number of the page, starting from 0.
+     * @param limit maximum number of hits on the page.
+     * @return list of {@link SearchHit} objects on the given page.
+     */
+    private @NotNull List<SearchHit> searchHits(@NotNull String query, @NotNull ICDLanguage language, int page, int limit) {
+        TitleSearchIndex index = localSearchIndex(language);
+        if (index != null)
+            return index.search(query, language, page, limit, this);
+        return toSearchHits(getAPIResponse(searchURI(query), language), language, page, limit);
+    }
+
+    /**
+     * Returns local search index if it can answer queries in the given language.
+     *
+     * @param language language of the query.
+     * @return index or null if search should be sent to API.
+     */
+    private @Nullable TitleSearchIndex localSearchIndex(@NotNull ICDLanguage language) {
+        TitleSearchIndex index = searchIndex;
+        return index != null && index.supports(language) ? index : null;
+    }
+
+    /**
+     * Builds hits of the given page from the search response.
+     *
+     * @param response search response from API.
+     * @param language language of the titles of results.
+     * @param page number of the page, starting from 0.
+     * @param limit maximum number of hits on the page.
+     * @return list of {@link SearchHit} objects on the given page.
+     */
+    private @NotNull List<SearchHit> toSearchHits(@NotNull ICD11Response response, @NotNull ICDLanguage language,
+                                                  int page, int limit) {
+        List<ICD11Response.SearchEntity> destinationEntities = response.destinationEntities();
+        if (destinationEntities == null)
+            throw new DiagnosesSystemException("Response doesn't contain search results");
+
+        List<SearchHit> hits = new ArrayList<>();
+        long from = (long) page * limit;
+        for (long i = from; i < Math.min(destinationEntities.size(), from + limit); i++) {
+            ICD11Response.SearchEntity destinationEntity = destinationEntities.get((int) i);
+            String entityID = getStemID(destinationEntity.stemId());
+            String code = destinationEntity.code();
+            if (code != null)
+                codeIndex.put(code, entityID);
+            hits.add(new SearchHit(entityID, code, destinationEntity.title(), destinationEntity.score(), language,
+                    () -> getByEntityID(entityID, language)));
         }
-        return subcategories;
+        return hits;
     }
 
     /**
@@ -273,9 +800,24 @@ public final class ICD11DiagnosesSystem implements DiagnosesSystem {
      */
     @Override
     public @NotNull Titled getTitleByEntityID(@NotNull String entity, @NotNull ICDLanguage language) {
-        JSONObject response = getAPIResponse(formURI(formQuery(entity)), language);
-        String title = response.getJSONObject("title").getString("@value");
-        return new TitledImplementation(title, language, (var _) -> { throw new UnsupportedOperationException("getTitleByEntityID result may asked only in original language");});
+        ICD11Response response = getAPIResponse(formURI(formQuery(entity)), language);
+        return createUntranslatableTitle(response, language);
+    }
+
+    /**
+     * Asynchronously returns untranslatable {@link Titled} object with title of
+     * the ICD 11 entity by its ID.
+     *
+     * @param entity ID of the entity to search.
+     * @param language the only language results will be available in.
+     * @return future of {@link Titled} object with title of entity with given ID.
+     * @since 0.1-dev.2
+     * @see #getTitleByEntityID(String, ICDLanguage)
+     */
+    @Override
+    public @NotNull CompletableFuture<Titled> getTitleByEntityIDAsync(@NotNull String entity, @NotNull ICDLanguage language) {
+        return Futures.start(() -> Futures.map(getAPIResponseAsync(formURI(formQuery(entity)), language),
+                response -> createUntranslatableTitle(response, language)));
     }
 
     /**
@@ -288,7 +830,7 @@ public final class ICD11DiagnosesSystem implements DiagnosesSystem {
      */
     @Override
     public @NotNull Object getByICD11Code(@NotNull String icd11Code) {
-        return getByICD11Code(icd11Code, language);
+        return getByICD11Code(icd11Code, state.get().language());
     }
 
     /**
@@ -299,7 +841,7 @@ public final class ICD11DiagnosesSystem implements DiagnosesSystem {
      */
     @Override
     public @NotNull List<Map.Entry<Object, String>> getParentCategoryListing() {
-        return getParentCategoryListing(language);
+        return getParentCategoryListing(state.get().language());
     }
 
     /**
@@ -311,7 +853,7 @@ public final class ICD11DiagnosesSystem implements DiagnosesSystem {
      */
     @Override
     public @NotNull List<Map.Entry<Object, String>> getCategoryListing(@NotNull String category) {
-        return getCategoryListing(category, language);
+        return getCategoryListing(category, state.get().language());
     }
 
     /**
@@ -323,7 +865,7 @@ public final class ICD11DiagnosesSystem implements DiagnosesSystem {
      */
     @Override
     public @NotNull List<Map.Entry<Object, String>> getSearchResult(@NotNull String query) {
-        return getSearchResult(query, language);
+        return getSearchResult(query, state.get().language());
     }
 
     /**
@@ -337,7 +879,7 @@ public final class ICD11DiagnosesSystem implements DiagnosesSystem {
      */
     @Override
     public @NotNull Titled getTitleByEntityID(@NotNull String entity) {
-        return getTitleByEntityID(entity, language);
+        return getTitleByEntityID(entity, state.get().language());
     }
 
     /**
@@ -349,7 +891,70 @@ public final class ICD11DiagnosesSystem implements DiagnosesSystem {
      */
     @Override
     public void setLanguage(@NotNull ICDLanguage language) {
-        this.language = language;
+        state.updateAndGet(current -> current.withLanguage(language));
+    }
+
+    /**
+     * Requests entity by its ID.
+     *
+     * @param entityID ID of the entity.
+     * @param language language that will be used as default.
+     * @return {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} object for the entity.
+     */
+    private @NotNull Object getByEntityID(@NotNull String entityID, @NotNull ICDLanguage language) {
+        ICD11Response response = getAPIResponse(formURI(formQuery(entityID)), language);
+        return createPairByResponse(response, entityID, language).getKey();
+    }
+
+    /**
+     * Asynchronously requests entity by its ID.
+     *
+     * @param entityID ID of the entity.
+     * @param language language that will be used as default.
+     * @return future of {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} object for the entity.
+     */
+    private @NotNull CompletableFuture<Object> getByEntityIDAsync(@NotNull String entityID, @NotNull ICDLanguage language) {
+        return Futures.map(getAPIResponseAsync(formURI(formQuery(entityID)), language),
+                response -> createPairByResponse(response, entityID, language).getKey());
+    }
+
+    /**
+     * Saves entity ID from codeinfo response in the code index.
+     *
+     * @param icd11Code ICD 11 code that was requested.
+     * @param codeInfo codeinfo response from API.
+     * @return ID of the entity with the code.
+     */
+    private @NotNull String indexCodeInfo(@NotNull String icd11Code, @NotNull ICD11Response codeInfo) {
+        if (codeInfo.stemId() == null)
+            throw new DiagnosesSystemException("Response doesn't contain entity of the code: " + icd11Code);
+        String entityID = getStemID(codeInfo.stemId());
+        codeIndex.put(icd11Code, entityID);
+        return entityID;
+    }
+
+    /**
+     * Returns entity ID from stemId of the API response.
+     *
+     * @param stemID stemId of codeinfo response or search result.
+     * @return entity ID without release and linearization prefix.
+     */
+    private @NotNull String getStemID(@NotNull String stemID) {
+        return stemID.substring(stemID.indexOf("mms") + 4);
+    }
+
+    /**
+     * Returns URIs of the children of the category.
+     *
+     * @param categoryResponse response from API for the category.
+     * @param category ID of the category.
+     * @return list of API URIs of the children.
+     * @throws DiagnosesSystemException if the entity is not a category.
+     */
+    private @NotNull List<String> getChildURIs(@NotNull ICD11Response categoryResponse, @NotNull String category) {
+        if (categoryResponse.children() == null)
+            throw new DiagnosesSystemException("Given entity is not a category: " + category);
+        return categoryResponse.children();
     }
 
     /**
@@ -361,11 +966,24 @@ public final class ICD11DiagnosesSystem implements DiagnosesSystem {
      */
     private @NotNull Map.Entry<Object, String> processChild(@NotNull String childURI, @NotNull ICDLanguage language) {
         String childEntity = childURI.substring(childURI.indexOf("mms/") + 4);
-        String childQuery = "release/11/" + data.get(LATEST_RELEASE_NAME_KEY) + "/mms/" + childEntity;
-        JSONObject childResponse = getAPIResponse(URI.create(childQuery), language);
+        ICD11Response childResponse = getAPIResponse(URI.create(formQuery(childEntity)), language);
         return createPairByResponse(childResponse, childEntity, language);
     }
 
+    /**
+     * Asynchronously processes child subcategory during parsing a parent category.
+     *
+     * @param childURI API URI of the child.
+     * @param language language that will be used as default.
+     * @return future of Map.Entry pair with a corresponding object for a child and a String with its ID.
+     */
+    private @NotNull CompletableFuture<Map.Entry<Object, String>> processChildAsync(@NotNull String childURI,
+                                                                                    @NotNull ICDLanguage language) {
+        String childEntity = childURI.substring(childURI.indexOf("mms/") + 4);
+        return Futures.map(getAPIResponseAsync(URI.create(formQuery(childEntity)), language),
+                response -> createPairByResponse(response, childEntity, language));
+    }
+
     /**
      * Creates a pair for category child response.
      *
@@ -373,17 +991,24 @@ public final class ICD11DiagnosesSystem implements DiagnosesSystem {
      * @param childEntity ID of the child.
      * @param language language to be used.
      * @return Map.Entry pair with a corresponding object for a child and a String with its ID.
-     * @throws UnsupportedOperationException if type of the child isn't supported by the method.
      */
-    private @NotNull Map.Entry<Object, String> createPairByResponse(@NotNull JSONObject childResponse,
+    private @NotNull Map.Entry<Object, String> createPairByResponse(@NotNull ICD11Response childResponse,
                 @NotNull String childEntity, @NotNull ICDLanguage language) {
-        Object object = switch (getObjectType(childResponse)) {
-            case CATEGORY -> new DiagnosisCategory(getTitle(childResponse), childEntity, language, this);
-            case DIAGNOSIS -> new Diagnosis(this, language, childResponse.getString("code"), getTitle(childResponse));
-            case SYMPTOM -> new Symptom(this, language, childResponse.getString("code"), getTitle(childResponse));
-            //noinspection UnnecessaryDefault
-            default -> throw new UnsupportedOperationException("Unsupported category: " + childEntity);
-        };
+        EntityCreationEvent event = new EntityCreationEvent();
+        event.begin();
+        String code = childResponse.code();
+        if (code != null && !code.isEmpty())
+            codeIndex.put(code, childEntity);
+        EntityType type = getObjectType(childResponse);
+        Object object = type.create(this, childEntity, code, getTitle(childResponse), language);
+        event.end();
+        if (event.shouldCommit()) {
+            event.entityID = childEntity;
+            event.code = code;
+            event.type = type.name().toLowerCase(Locale.ROOT);
+            event.language = language.getCode();
+            event.commit();
+        }
         return new AbstractMap.SimpleEntry<>(object, childEntity);
     }
 
@@ -392,9 +1017,44 @@ public final class ICD11DiagnosesSystem implements DiagnosesSystem {
      *
      * @param response response from the API.
      * @return title.@value from response's JSON.
+     * @throws DiagnosesSystemException if response has no title.
      */
-    private @NotNull String getTitle(@NotNull JSONObject response) {
-        return response.getJSONObject("title").getString("@value");
+    private @NotNull String getTitle(@NotNull ICD11Response response) {
+        if (response.title() == null)
+            throw new DiagnosesSystemException("Response doesn't contain title: " + response);
+        return response.title();
+    }
+
+    /**
+     * Creates {@link Titled} object that can't be translated.
+     *
+     * @param response response from the API.
+     * @param language language of the response.
+     * @return {@link Titled} object with title of the response.
+     */
+    private @NotNull Titled createUntranslatableTitle(@NotNull ICD11Response response, @NotNull ICDLanguage language) {
+        return new TitledImplementation(getTitle(response), language, (var _) -> { throw new UnsupportedOperationException("getTitleByEntityID result may asked only in original language");});
+    }
+
+    /**
+     * Forms API URI for codeinfo of the given code.
+     *
+     * @param icd11Code ICD 11 code.
+     * @return URI of codeinfo request.
+     */
+    private @NotNull URI codeInfoURI(@NotNull String icd11Code) {
+        return formURI(formQuery("") + "/codeinfo/" + icd11Code);
+    }
+
+    /**
+     * Forms API URI for search by the given query.
+     *
+     * @param query query to search.
+     * @return URI of search request with flat results without highlighting.
+     */
+    private @NotNull URI searchURI(@NotNull String query) {
+        return formURI(formQuery("search?q=" + URLEncoder.encode(query, StandardCharsets.UTF_8) +
+                "&flatResults=true&highlightingEnabled=false"));
     }
 
     /**
@@ -404,7 +1064,7 @@ public final class ICD11DiagnosesSystem implements DiagnosesSystem {
      * @return API query for a given category ID.
      */
     private @NotNull String formQuery(@NotNull String category) {
-        return "release/11/" + data.get(LATEST_RELEASE_NAME_KEY) + "/mms" + (category.isEmpty() ? "" : "/" + category);
+        return "release/11/" + state.get().release() + "/mms" + (category.isEmpty() ? "" : "/" + category);
     }
 
     /**
@@ -416,7 +1076,214 @@ public final class ICD11DiagnosesSystem implements DiagnosesSystem {
      */
     @Override
     public void setParameter(@NotNull String key, String value) {
-        data.put(key, value);
+        state.updateAndGet(current -> current.withParameter(key, value));
+        if (key.equals(CLIENT_ID_KEY) || key.equals(CLIENT_SECRET_KEY) || key.equals(TOKEN_URL_KEY)
+                || key.equals(AUTHENTICATION_KEY))
+            tokens.reset();
+        if (key.equals(API_URL_KEY)) {
+            // Responses and codes of another server are not valid anymore, neither is its token
+            tokens.reset();
+            codeIndex.clear();
+            clearCache();
+        }
+        if (key.equals(CONNECT_TIMEOUT_KEY) || key.equals(REQUEST_TIMEOUT_KEY))
+            resetTransport();
+        if (key.equals(CACHE_MAX_SIZE_KEY) || key.equals(CACHE_TTL_KEY) || key.equals(CACHE_NOT_FOUND_TTL_KEY)) {
+            // Under the lock, so cache being created with the old parameters is dropped too
+            synchronized (this) {
+                responseCache = null;
+            }
+        }
+    }
+
+    /**
+     * Returns parameter from the current state.
+     *
+     * @param key key of the parameter.
+     * @return value given to {@link #setParameter(String, String)} or null if it wasn't set.
+     */
+    @Nullable String getParameter(@NotNull String key) {
+        return state.get().parameters().get(key);
+    }
+
+    /**
+     * Returns default language from the current state.
+     *
+     * @return language given to {@link #setLanguage(ICDLanguage)}, English by default.
+     */
+    @NotNull ICDLanguage getLanguage() {
+        return state.get().language();
+    }
+
+    /**
+     * Returns cache of API responses, creating it on first use. Lock is taken only
+     * while the cache is being created.
+     *
+     * @return cache configured with {@link #CACHE_MAX_SIZE_KEY} and {@link #CACHE_TTL_KEY}.
+     */
+    private @NotNull BoundedCache<ResponseKey, CachedResponse> responseCache() {
+        BoundedCache<ResponseKey, CachedResponse> current = responseCache;
+        if (current == null) {
+            synchronized (this) {
+                current = responseCache;
+                if (current == null) {
+                    current = new BoundedCache<>(getNumber(CACHE_MAX_SIZE_KEY, DEFAULT_CACHE_MAX_SIZE, 0),
+                            Duration.ofSeconds(getPositiveNumber(CACHE_TTL_KEY, DEFAULT_CACHE_TTL_SECONDS)));
+                    responseCache = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns transport used to send requests, creating it on first use.
+     *
+     * @return shared {@link ICD11Transport}.
+     */
+    private @NotNull ICD11Transport transport() {
+        ICD11Transport current = transport;
+        if (current == null) {
+            synchronized (this) {
+                current = transport;
+                if (current == null) {
+                    current = new ICD11Transport(getTimeout(CONNECT_TIMEOUT_KEY), getTimeout(REQUEST_TIMEOUT_KEY), executor);
+                    transport = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Replaces current transport, so the next request creates a new one with
+     * actual configuration. Requests in progress finish on the old transport, which is
+     * shut down without waiting for them.
+     */
+    private void resetTransport() {
+        ICD11Transport old = detachTransport();
+        if (old != null)
+            old.shutdown();
+    }
+
+    /**
+     * Sends request with the current transport. If the transport was shut down by
+     * a concurrent reconfiguration before it accepted the request, the request is sent
+     * again with the new transport.
+     *
+     * @param request function that creates the request for the transport.
+     * @param bodyHandler handler of the response body.
+     * @return future of the response.
+     */
+    private <T> @NotNull CompletableFuture<HttpResponse<T>> sendAsync(@NotNull Function<ICD11Transport, HttpRequest> request,
+                                                                      @NotNull HttpResponse.BodyHandler<T> bodyHandler) {
+        while (true) {
+            ICD11Transport transport = transport();
+            CompletableFuture<HttpResponse<T>> sent = transport.sendAsync(request.apply(transport), bodyHandler);
+            // Shut down transport rejects new requests right away
+            if (!sent.isCompletedExceptionally() || !transport.isShutdown())
+                return sent;
+        }
+    }
+
+    /**
+     * Forgets current transport, so the next request creates a new one.
+     *
+     * @return transport that was current or null if there was none.
+     */
+    private synchronized @Nullable ICD11Transport detachTransport() {
+        ICD11Transport old = transport;
+        transport = null;
+        return old;
+    }
+
+    /**
+     * Returns whether requests are sent with access token.
+     *
+     * @return false only if {@link #AUTHENTICATION_KEY} is set to "false".
+     */
+    private boolean isAuthenticationEnabled() {
+        String value = getParameter(AUTHENTICATION_KEY);
+        return value == null || !value.strip().equalsIgnoreCase("false");
+    }
+
+    /**
+     * Returns root URI of ICD 11 API requests are resolved against.
+     *
+     * @return URI stored under {@link #API_URL_KEY} (with trailing slash) or default one if it wasn't set.
+     * @throws DiagnosesSystemException if stored value isn't a valid URI.
+     */
+    private @NotNull URI getAPIURI() {
+        String url = getURL(API_URL_KEY, DEFAULT_API_URL);
+        return formURI(url.endsWith("/") ? url : url + "/");
+    }
+
+    /**
+     * Reads URL stored under the given key.
+     *
+     * @param key {@link #API_URL_KEY} or {@link #TOKEN_URL_KEY}.
+     * @param defaultValue URL to return if parameter wasn't set.
+     * @return URL from data or default one if it wasn't set.
+     */
+    private @NotNull String getURL(@NotNull String key, @NotNull String defaultValue) {
+        String url = state.get().parameters().get(key);
+        return url == null || url.isBlank() ? defaultValue : url.strip();
+    }
+
+    /**
+     * Reads timeout in seconds stored under the given key.
+     *
+     * @param key {@link #CONNECT_TIMEOUT_KEY} or {@link #REQUEST_TIMEOUT_KEY}.
+     * @return timeout from data or default one if it wasn't set.
+     * @throws DiagnosesSystemException if stored value isn't a positive number.
+     */
+    private @NotNull Duration getTimeout(@NotNull String key) {
+        return Duration.ofSeconds(getPositiveNumber(key, DEFAULT_TIMEOUT_SECONDS));
+    }
+
+    /**
+     * Returns maximum number of concurrent requests for a single listing.
+     *
+     * @return value stored under {@link #MAX_CONCURRENT_REQUESTS_KEY} or default one if it wasn't set.
+     * @throws DiagnosesSystemException if stored value isn't a positive number.
+     */
+    private int getMaxConcurrentRequests() {
+        return (int) Math.min(Integer.MAX_VALUE, getPositiveNumber(MAX_CONCURRENT_REQUESTS_KEY, DEFAULT_MAX_CONCURRENT_REQUESTS));
+    }
+
+    /**
+     * Reads positive number stored under the given key.
+     *
+     * @param key key of the parameter.
+     * @param defaultValue value to return if parameter wasn't set.
+     * @return number from data or default value if it wasn't set.
+     * @throws DiagnosesSystemException if stored value isn't a positive number.
+     */
+    private long getPositiveNumber(@NotNull String key, long defaultValue) {
+        return getNumber(key, defaultValue, 1);
+    }
+
+    /**
+     * Reads number stored under the given key.
+     *
+     * @param key key of the parameter.
+     * @param defaultValue value to return if parameter wasn't set.
+     * @param minimum minimal allowed value.
+     * @return number from data or default value if it wasn't set.
+     * @throws DiagnosesSystemException if stored value isn't a number or is less than minimum.
+     */
+    private long getNumber(@NotNull String key, long defaultValue, long minimum) {
+        String value = getParameter(key);
+        if (value == null)
+            return defaultValue;
+        try {
+            long number = Long.parseLong(value.trim());
+            if (number < minimum)
+                throw new DiagnosesSystemException("Parameter must be at least " + minimum + ": " + key + "=" + value);
+            return number;
+        } catch (NumberFormatException e) {
+            throw new DiagnosesSystemException(e);
+        }
     }
 
     /**
@@ -436,69 +1303,322 @@ public final class ICD11DiagnosesSystem implements DiagnosesSystem {
 
     /**
      * Returns object type from response for it.
-     * <br>
-     *
-     * Category has "child" field. Diagnosis has an ICD 11 code. Symptom has an ICD 11 code starting
-     * with 'M'.
      *
      * @param object response from API.
      * @return {@link EntityType} with a type that corresponds to a given response from API.
+     * @see EntityType#of(boolean, String)
      */
-    private @NotNull EntityType getObjectType(@NotNull JSONObject object) {
-        if (object.has("child"))
-            return EntityType.CATEGORY;
+    private @NotNull EntityType getObjectType(@NotNull ICD11Response object) {
+        return EntityType.of(object.children() != null, object.code());
+    }
 
-        String code = object.getString("code");
-        if (code.startsWith("M"))
-            return EntityType.SYMPTOM;
+    /**
+     * Returns API response from cache or sends API request with no additional headers.
+     * <br>
+     *
+     * Responses are cached by release, request path and language. "Not found" responses
+     * are cached too (see {@link #CACHE_NOT_FOUND_TTL_KEY}). Concurrent callers missing
+     * the cache for the same key share a single request, started by the first caller. Every caller
+     * waits for its own future, so interrupting one of them doesn't fail the others.
+     *
+     * @param apiURI URI to send a request to.
+     * @param language language to be set in headers.
+     * @return {@link ICD11Response} with fields of the response from the API.
+     */
+    private @NotNull ICD11Response getAPIResponse(@NotNull URI apiURI, @NotNull ICDLanguage language) {
+        BoundedCache<ResponseKey, CachedResponse> cache = responseCache();
+        ResponseKey key = responseKey(apiURI, language);
+        CachedResponse response = cache.get(key);
+        metrics.cacheLookup(response != null);
+        if (response == null)
+            response = Futures.await(fetchShared(cache, key, apiURI, language));
+        return getBody(response, apiURI);
+    }
 
-        return EntityType.DIAGNOSIS;
+    /**
+     * Asynchronously returns API response from cache or sends API request with no additional headers.
+     * Concurrent callers share a single request; cancelling one caller's future doesn't affect
+     * the others.
+     *
+     * @param apiURI URI to send a request to.
+     * @param language language to be set in headers.
+     * @return future of {@link ICD11Response} with fields of the response from the API, already completed if it was cached.
+     * @see #getAPIResponse(URI, ICDLanguage)
+     */
+    private @NotNull CompletableFuture<ICD11Response> getAPIResponseAsync(@NotNull URI apiURI, @NotNull ICDLanguage language) {
+        BoundedCache<ResponseKey, CachedResponse> cache = responseCache();
+        ResponseKey key = responseKey(apiURI, language);
+        CachedResponse cached = cache.get(key);
+        metrics.cacheLookup(cached != null);
+        if (cached != null)
+            return Futures.start(() -> CompletableFuture.completedFuture(getBody(cached, apiURI)));
+        return Futures.map(fetchShared(cache, key, apiURI, language), fetched -> getBody(fetched, apiURI));
     }
 
     /**
-     * Sends API request with no additional headers.
+     * Joins the request in flight with the same key or sends a new one, caching its response.
      *
+     * @param cache cache to put response in.
+     * @param key key of the response.
      * @param apiURI URI to send a request to.
      * @param language language to be set in headers.
-     * @return {@link JSONObject} with response from the API.
+     * @return future of the response for this caller, cancelling it doesn't affect other callers.
      */
-    private @NotNull JSONObject getAPIResponse(@NotNull URI apiURI, @NotNull ICDLanguage language) {
-        return getAPIResponse(apiURI, language, new HashMap<>());
+    private @NotNull CompletableFuture<CachedResponse> fetchShared(@NotNull BoundedCache<ResponseKey, CachedResponse> cache,
+                                                                  @NotNull ResponseKey key, @NotNull URI apiURI,
+                                                                  @NotNull ICDLanguage language) {
+        return inFlight.execute(key, () -> Futures.map(fetchAPIResponseAsync(apiURI, language, Map.of()), fetched -> {
+            cacheResponse(cache, key, fetched);
+            return fetched;
+        }));
     }
 
     /**
-     * Sends API request with additional headers.
+     * Sends API request with additional headers, bypassing cache.
      *
      * @param apiURI URI to send a request to.
      * @param language language to be set in headers.
      * @param headers additional headers for the request.
-     * @return {@link JSONObject} with response from the API.
+     * @return {@link ICD11Response} with fields of the response from the API.
      */
-    private @NotNull JSONObject getAPIResponse(@NotNull URI apiURI, @NotNull ICDLanguage language, @NotNull Map<String, String> headers) {
-        assert !apiURI.toString().startsWith("/");
-        try (var client = HttpClient.newHttpClient()) {
-            HttpRequest.Builder builder = HttpRequest.newBuilder();
-            builder.uri(API_URI.resolve(apiURI));
-            builder.GET();
-            builder.setHeader("Authorization", "Bearer " + data.get(CLIENT_TOKEN_KEY));
-            builder.setHeader("Accept", "application/json");
-            builder.setHeader("Accept-Language", language.getCode());
-            builder.setHeader("API-Version", "v2");
-            for (Map.Entry<String, String> header : headers.entrySet()) {
-                builder.setHeader(header.getKey(), header.getValue());
-            }
+    private @NotNull ICD11Response getAPIResponse(@NotNull URI apiURI, @NotNull ICDLanguage language, @NotNull Map<String, String> headers) {
+        return getBody(fetchAPIResponse(apiURI, language, headers), apiURI);
+    }
 
-            builder.timeout(Duration.ofSeconds(REQUEST_TIMEOUT));
+    /**
+     * Returns key of the API response in cache.
+     *
+     * @param apiURI URI of the request.
+     * @param language language of the request.
+     * @return key for the current release.
+     */
+    private @NotNull ResponseKey responseKey(@NotNull URI apiURI, @NotNull ICDLanguage language) {
+        return new ResponseKey(Objects.toString(state.get().release(), ""), apiURI.toString(), language);
+    }
 
-            HttpResponse<String> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() == HttpsURLConnection.HTTP_NOT_FOUND)
-                throw new DiagnosesSystemException("ICD API Not found: " + apiURI);
-            if (response.statusCode() != HttpURLConnection.HTTP_OK)
-                throw new DiagnosesSystemException("Error response from ICD API: " + response.body());
+    /**
+     * Puts API response in cache, using shorter time to live for "not found" responses.
+     *
+     * @param cache cache to put response in.
+     * @param key key of the response.
+     * @param response response from the API.
+     */
+    private void cacheResponse(@NotNull BoundedCache<ResponseKey, CachedResponse> cache, @NotNull ResponseKey key,
+                               @NotNull CachedResponse response) {
+        if (response.body() == null)
+            cache.put(key, response, Duration.ofSeconds(getPositiveNumber(CACHE_NOT_FOUND_TTL_KEY, DEFAULT_CACHE_NOT_FOUND_TTL_SECONDS)));
+        else
+            cache.put(key, response);
+    }
+
+    /**
+     * Returns body of the API response.
+     *
+     * @param response response from the API.
+     * @param apiURI URI of the request.
+     * @return {@link ICD11Response} with fields of the response.
+     * @throws DiagnosesSystemException if API returned "not found".
+     */
+    private @NotNull ICD11Response getBody(@NotNull CachedResponse response, @NotNull URI apiURI) {
+        if (response.body() == null)
+            throw new DiagnosesSystemException("ICD API Not found: " + apiURI);
+        return response.body();
+    }
+
+    /**
+     * Sends API request with additional headers and waits for the response.
+     *
+     * @param apiURI URI to send a request to.
+     * @param language language to be set in headers.
+     * @param headers additional headers for the request.
+     * @return {@link CachedResponse} with response from the API, empty if API returned "not found".
+     * @see #fetchAPIResponseAsync(URI, ICDLanguage, Map)
+     */
+    private @NotNull CachedResponse fetchAPIResponse(@NotNull URI apiURI, @NotNull ICDLanguage language, @NotNull Map<String, String> headers) {
+        return Futures.await(fetchAPIResponseAsync(apiURI, language, headers));
+    }
+
+    /**
+     * Asynchronously sends API request with additional headers. Cancelling the returned
+     * future aborts the HTTP exchange.
+     * <br>
+     *
+     * Failed requests are retried (see {@link #MAX_RETRIES_KEY}). If hedging is enabled
+     * (see {@link #HEDGE_PERCENTILE_KEY}), every attempt is hedged after the given percentile
+     * of latency of its endpoint, once enough requests have been recorded.
+     *
+     * @param apiURI URI to send a request to.
+     * @param language language to be set in headers.
+     * @param headers additional headers for the request.
+     * @return future of {@link CachedResponse} with response from the API, empty if API returned "not found".
+     */
+    private @NotNull CompletableFuture<CachedResponse> fetchAPIResponseAsync(@NotNull URI apiURI, @NotNull ICDLanguage language,
+                                                                            @NotNull Map<String, String> headers) {
+        ICD11Metrics current = metrics;
+        Duration hedgeDelay = getHedgeDelay(current, ICD11Metrics.Endpoint.of(apiURI));
+        RetryPolicy retryPolicy = new RetryPolicy((int) getNumber(MAX_RETRIES_KEY, DEFAULT_MAX_RETRIES, 0),
+                Duration.ofMillis(getNumber(RETRY_BACKOFF_KEY, DEFAULT_RETRY_BACKOFF_MILLIS, 0)));
+        if (hedgeDelay == null)
+            return retryPolicy.execute(() -> exchangeAsync(apiURI, language, headers), current::retried);
+        return retryPolicy.execute(() -> Futures.hedge(() -> exchangeAsync(apiURI, language, headers), hedgeDelay,
+                current::hedged), current::retried);
+    }
 
-            return new JSONObject(response.body());
-        } catch (Exception e) {
+    /**
+     * Returns delay after which a request to the endpoint is hedged.
+     *
+     * @param metrics metrics with latency of the endpoint.
+     * @param endpoint type of the request.
+     * @return delay or null if hedging is disabled or there are too few requests to estimate it.
+     * @throws DiagnosesSystemException if {@link #HEDGE_PERCENTILE_KEY} is not a valid percentile.
+     */
+    private @Nullable Duration getHedgeDelay(@NotNull ICD11Metrics metrics, @NotNull ICD11Metrics.Endpoint endpoint) {
+        String value = getParameter(HEDGE_PERCENTILE_KEY);
+        if (value == null)
+            return null;
+        double percentile;
+        try {
+            percentile = Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
             throw new DiagnosesSystemException(e);
         }
+        if (!(percentile > 0 && percentile < 100))
+            throw new DiagnosesSystemException("Parameter must be between 0 and 100: " + HEDGE_PERCENTILE_KEY + "=" + value);
+        Histogram.Snapshot latency = metrics.latency(endpoint);
+        if (latency.count() < MIN_HEDGE_SAMPLES)
+            return null;
+        return Duration.ofNanos(latency.percentile(percentile));
+    }
+
+    /**
+     * Asynchronously sends API request once, with no retries. Cancelling the returned
+     * future aborts the HTTP exchange.
+     * <br>
+     *
+     * If the server rejects the access token, the request is sent once more with a new one.
+     * Body is read on a virtual thread as it's being received.
+     *
+     * @param apiURI URI to send a request to.
+     * @param language language to be set in headers.
+     * @param headers additional headers for the request.
+     * @return future of {@link CachedResponse} with response from the API, empty if API returned "not found".
+     */
+    private @NotNull CompletableFuture<CachedResponse> exchangeAsync(@NotNull URI apiURI, @NotNull ICDLanguage language,
+                                                                    @NotNull Map<String, String> headers) {
+        ICD11Metrics.Request request = metrics.start(ICD11Metrics.Endpoint.of(apiURI), language);
+        CompletableFuture<CachedResponse> fetched = Futures.start(() -> Futures.compose(Futures.compose(tokenAsync(), token -> {
+            return Futures.compose(sendAsync(transport -> newAPIRequest(transport, apiURI, language, headers, token),
+                    HttpResponse.BodyHandlers.ofInputStream()), response -> {
+                if (response.statusCode() != HttpURLConnection.HTTP_UNAUTHORIZED || token == null)
+                    return CompletableFuture.completedFuture(response);
+                closeQuietly(response.body());
+                return Futures.compose(tokens.refreshRejected(token),
+                        newToken -> sendAsync(transport -> newAPIRequest(transport, apiURI, language, headers, newToken),
+                                HttpResponse.BodyHandlers.ofInputStream()));
+            });
+        }), response -> readResponseAsync(response, request)));
+        fetched.whenComplete((response, failure) -> request.finish(response != null && response.body() == null, failure));
+        return fetched;
+    }
+
+    /**
+     * Returns access token for the next request.
+     *
+     * @return future of the token or of null if authentication is disabled.
+     */
+    private @NotNull CompletableFuture<@Nullable String> tokenAsync() {
+        return isAuthenticationEnabled() ? tokens.getAsync() : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Reads body of the HTTP response on a separate virtual thread. Cancelling
+     * the returned future closes the body.
+     *
+     * @param response HTTP response with body not read yet.
+     * @param request metrics of the request.
+     * @return future of {@link CachedResponse} with fields of the body.
+     */
+    private @NotNull CompletableFuture<CachedResponse> readResponseAsync(@NotNull HttpResponse<InputStream> response,
+                                                                        @NotNull ICD11Metrics.Request request) {
+        CompletableFuture<CachedResponse> read = CompletableFuture.supplyAsync(() -> toCachedResponse(response, request),
+                RESPONSE_READER);
+        read.whenComplete((_, _) -> {
+            if (read.isCancelled())
+                closeQuietly(response.body());
+        });
+        return read;
+    }
+
+    /**
+     * Creates API request with authorization, language, accepted encodings and additional headers.
+     *
+     * @param transport transport the request will be sent with.
+     * @param apiURI URI to send a request to, relative to API root.
+     * @param language language to be set in headers.
+     * @param headers additional headers for the request.
+     * @param token access token or null if authentication is disabled.
+     * @return request ready to be sent.
+     */
+    private @NotNull HttpRequest newAPIRequest(@NotNull ICD11Transport transport, @NotNull URI apiURI,
+                                               @NotNull ICDLanguage language, @NotNull Map<String, String> headers,
+                                               @Nullable String token) {
+        assert !apiURI.toString().startsWith("/");
+        HttpRequest.Builder builder = transport.newRequest(getAPIURI().resolve(apiURI));
+        builder.GET();
+        if (token != null)
+            builder.setHeader("Authorization", "Bearer " + token);
+        builder.setHeader("Accept", "application/json");
+        builder.setHeader("Accept-Encoding", ContentDecoder.ACCEPT_ENCODING);
+        builder.setHeader("Accept-Language", language.getCode());
+        builder.setHeader("API-Version", "v2");
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            builder.setHeader(header.getKey(), header.getValue());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Converts HTTP response from the API into a {@link CachedResponse}, reading only
+     * the needed fields while the body is being received and decompressed. The body is closed.
+     *
+     * @param response HTTP response with body not read yet.
+     * @param request metrics of the request, the size of the body is recorded in.
+     * @return {@link CachedResponse} with fields of the body, empty if API returned "not found".
+     * @throws DiagnosesSystemException if API returned an error or body can't be read.
+     */
+    private @NotNull CachedResponse toCachedResponse(@NotNull HttpResponse<InputStream> response,
+                                                     @NotNull ICD11Metrics.Request request) {
+        request.status(response.statusCode());
+        // Size of the body is counted as received, before decompression
+        try (InputStream received = request.countBytes(response.body())) {
+            if (response.statusCode() == HttpsURLConnection.HTTP_NOT_FOUND)
+                return new CachedResponse(null);
+            try (InputStream body = ContentDecoder.decode(received,
+                    response.headers().firstValue("Content-Encoding").orElse(""))) {
+                if (response.statusCode() != HttpURLConnection.HTTP_OK)
+                    throw new ICD11StatusException(response.statusCode(),
+                            response.headers().firstValue("Retry-After").map(RetryPolicy::parseRetryAfter).orElse(null),
+                            new String(body.readAllBytes(), StandardCharsets.UTF_8));
+                ICD11Response read = ICD11ResponseReader.read(body);
+                // Rest of the body is drained, so the connection can be reused
+                body.transferTo(OutputStream.nullOutputStream());
+                return new CachedResponse(read);
+            }
+        } catch (IOException e) {
+            throw new DiagnosesSystemException(e);
+        }
+    }
+
+    /**
+     * Closes the stream, ignoring exceptions.
+     *
+     * @param stream stream to close.
+     */
+    private static void closeQuietly(@NotNull InputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException _) {
+            // Nothing to do: the body isn't needed anymore
+        }
     }
 }
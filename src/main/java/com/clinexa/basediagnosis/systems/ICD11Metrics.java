@@ -0,0 +1,302 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.events.ApiRequestEvent;
+import com.clinexa.basediagnosis.metrics.Histogram;
+import com.clinexa.basediagnosis.metrics.MetricsRegistry;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Metrics of ICD API requests recorded in a {@link MetricsRegistry}. Every request
+ * is also recorded as {@link ApiRequestEvent} if JFR is recording.
+ * <br>
+ *
+ * For every {@link Endpoint} there are {@code icd11.api.<endpoint>.requests},
+ * {@code .errors} and {@code .not_found} counters and {@code .latency.nanos} and
+ * {@code .response.bytes} histograms. Besides, there are {@link #IN_FLIGHT} gauge
+ * and {@link #CACHE_HITS}, {@link #CACHE_MISSES}, {@link #COALESCED}, {@link #RETRIES}
+ * and {@link #HEDGES} counters.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+final class ICD11Metrics {
+
+    /**
+     * Gauge of requests sent but not yet answered.
+     */
+    static final String IN_FLIGHT = "icd11.api.in_flight";
+
+    /**
+     * Counter of API responses found in cache.
+     */
+    static final String CACHE_HITS = "icd11.cache.hits";
+
+    /**
+     * Counter of API responses not found in cache.
+     */
+    static final String CACHE_MISSES = "icd11.cache.misses";
+
+    /**
+     * Counter of requests that joined an identical one in flight instead of being sent.
+     */
+    static final String COALESCED = "icd11.api.coalesced";
+
+    /**
+     * Counter of requests sent again after a retryable failure.
+     */
+    static final String RETRIES = "icd11.api.retries";
+
+    /**
+     * Counter of duplicate requests sent because the first one was slower than usual.
+     */
+    static final String HEDGES = "icd11.api.hedges";
+
+    private final MetricsRegistry registry;
+
+    /**
+     * Type of ICD API request.
+     */
+    enum Endpoint {
+        CODEINFO, ENTITY, SEARCH, RELEASE, TOKEN;
+
+        /**
+         * Detects type of API request by its URI.
+         *
+         * @param apiURI URI relative to API root.
+         * @return type of the request, never {@link #TOKEN}.
+         */
+        static @NotNull Endpoint of(@NotNull URI apiURI) {
+            String path = apiURI.getPath();
+            if (path == null || path.equals("release/11/mms"))
+                return RELEASE;
+            if (path.contains("/codeinfo/"))
+                return CODEINFO;
+            if (path.endsWith("/search"))
+                return SEARCH;
+            return ENTITY;
+        }
+
+        /**
+         * Returns full name of a metric of the endpoint.
+         *
+         * @param metric name of the metric, e.g. "requests".
+         * @return name in the registry.
+         */
+        @NotNull String metric(@NotNull String metric) {
+            return "icd11.api." + name().toLowerCase(Locale.ROOT) + "." + metric;
+        }
+    }
+
+    /**
+     * Creates metrics recorded in the registry.
+     *
+     * @param registry registry to record metrics in.
+     */
+    ICD11Metrics(@NotNull MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Returns registry the metrics are recorded in.
+     *
+     * @return registry.
+     */
+    @NotNull MetricsRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * Records lookup of API response in cache.
+     *
+     * @param hit true if response was found.
+     */
+    void cacheLookup(boolean hit) {
+        registry.counter(hit ? CACHE_HITS : CACHE_MISSES).increment();
+    }
+
+    /**
+     * Records request that joined an identical one in flight.
+     */
+    void coalesced() {
+        registry.counter(COALESCED).increment();
+    }
+
+    /**
+     * Records retry of a failed request.
+     */
+    void retried() {
+        registry.counter(RETRIES).increment();
+    }
+
+    /**
+     * Records hedge of a slow request.
+     */
+    void hedged() {
+        registry.counter(HEDGES).increment();
+    }
+
+    /**
+     * Returns latency of requests to the endpoint recorded so far.
+     *
+     * @param endpoint type of the requests.
+     * @return snapshot of the latency histogram in nanoseconds.
+     */
+    @NotNull Histogram.Snapshot latency(@NotNull Endpoint endpoint) {
+        return registry.histogram(endpoint.metric("latency.nanos")).snapshot();
+    }
+
+    /**
+     * Records start of a request.
+     *
+     * @param endpoint type of the request.
+     * @param language language of the request or null if it has none.
+     * @return request to record its end with.
+     */
+    @NotNull Request start(@NotNull Endpoint endpoint, @Nullable ICDLanguage language) {
+        registry.counter(endpoint.metric("requests")).increment();
+        registry.gauge(IN_FLIGHT).increment();
+        ApiRequestEvent event = new ApiRequestEvent();
+        if (event.isEnabled()) {
+            event.endpoint = endpoint.name().toLowerCase(Locale.ROOT);
+            event.language = language == null ? "" : language.getCode();
+            event.callerThread = Thread.currentThread();
+            event.begin();
+        }
+        return new Request(endpoint, System.nanoTime(), event);
+    }
+
+    /**
+     * Request in progress.
+     */
+    final class Request {
+        private final Endpoint endpoint;
+        private final long startNanos;
+        private final ApiRequestEvent event;
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        /**
+         * Creates request started at the given time.
+         */
+        private Request(@NotNull Endpoint endpoint, long startNanos, @NotNull ApiRequestEvent event) {
+            this.endpoint = endpoint;
+            this.startNanos = startNanos;
+            this.event = event;
+        }
+
+        /**
+         * Records HTTP status of the response.
+         *
+         * @param status status code.
+         */
+        void status(int status) {
+            event.status = status;
+        }
+
+        /**
+         * Records size of the response body.
+         *
+         * @param bytes number of bytes received.
+         */
+        void responseBytes(long bytes) {
+            registry.histogram(endpoint.metric("response.bytes")).record(bytes);
+            event.responseBytes = bytes;
+        }
+
+        /**
+         * Wraps response body, so its size is recorded when it is closed.
+         *
+         * @param body body of the response.
+         * @return stream reading the same body.
+         */
+        @NotNull InputStream countBytes(@NotNull InputStream body) {
+            return new FilterInputStream(body) {
+                private long count;
+                private boolean closed;
+
+                @Override
+                public int read() throws IOException {
+                    int read = super.read();
+                    if (read >= 0)
+                        count++;
+                    return read;
+                }
+
+                @Override
+                public int read(byte @NotNull [] buffer, int offset, int length) throws IOException {
+                    int read = super.read(buffer, offset, length);
+                    if (read > 0)
+                        count += read;
+                    return read;
+                }
+
+                @Override
+                public long skip(long n) throws IOException {
+                    long skipped = super.skip(n);
+                    count += skipped;
+                    return skipped;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    if (!closed) {
+                        closed = true;
+                        responseBytes(count);
+                    }
+                    super.close();
+                }
+            };
+        }
+
+        /**
+         * Records end of the request. Only the first call has effect.
+         *
+         * @param notFound true if API returned "not found".
+         * @param failure exception the request failed with or null if it succeeded.
+         *                Cancelled requests are not counted as errors.
+         */
+        void finish(boolean notFound, @Nullable Throwable failure) {
+            if (!finished.compareAndSet(false, true))
+                return;
+            registry.gauge(IN_FLIGHT).decrement();
+            registry.histogram(endpoint.metric("latency.nanos")).record(System.nanoTime() - startNanos);
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+            if (cause != null && !(cause instanceof CancellationException))
+                registry.counter(endpoint.metric("errors")).increment();
+            else if (cause == null && notFound)
+                registry.counter(endpoint.metric("not_found")).increment();
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.error = cause == null ? null : cause.getClass().getName();
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.systems;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Fields of ICD 11 API response used by {@link ICD11DiagnosesSystem}. Everything
+ * else in the response is skipped while reading (see {@link ICD11ResponseReader}).
+ *
+ * @param title title.@value of an entity (or title of the release).
+ * @param code ICD 11 code of an entity, null if it has none.
+ * @param children URIs of the children of a category, null if response has no child field.
+ * @param stemId URI of the entity in codeinfo response.
+ * @param latestRelease URI of the latest release in release response.
+ * @param destinationEntities results of search response, null if it's not a search response.
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+record ICD11Response(@Nullable String title, @Nullable String code, @Nullable List<String> children,
+                     @Nullable String stemId, @Nullable String latestRelease,
+                     @Nullable List<SearchEntity> destinationEntities) {
+
+    /**
+     * Single result of search response.
+     *
+     * @param stemId URI of the found entity.
+     * @param code ICD 11 code of the entity (theCode field), null if it has none.
+     * @param title title of the entity.
+     * @param score relevance of the result.
+     */
+    record SearchEntity(@NotNull String stemId, @Nullable String code, @NotNull String title, double score) {}
+}
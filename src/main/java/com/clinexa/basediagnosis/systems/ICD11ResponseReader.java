@@ -0,0 +1,505 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.systems;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming reader of ICD 11 API responses.
+ * <br>
+ *
+ * Reads JSON right from the bytes of the response body and decodes only the fields
+ * collected in {@link ICD11Response}. Field names are compared as bytes, and values of all
+ * other fields are skipped without being decoded, so neither the body as a String nor
+ * a tree of the whole document is created.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+final class ICD11ResponseReader {
+
+    private static final int MAX_DEPTH = 256;
+
+    private static final byte[][] RESPONSE_FIELDS = names("title", "code", "child", "stemId", "latestRelease",
+            "destinationEntities");
+    private static final int TITLE = 0;
+    private static final int CODE = 1;
+    private static final int CHILD = 2;
+    private static final int STEM_ID = 3;
+    private static final int LATEST_RELEASE = 4;
+    private static final int DESTINATION_ENTITIES = 5;
+
+    private static final byte[][] SEARCH_FIELDS = names("stemId", "theCode", "title", "score");
+    private static final int SEARCH_STEM_ID = 0;
+    private static final int SEARCH_CODE = 1;
+    private static final int SEARCH_TITLE = 2;
+    private static final int SEARCH_SCORE = 3;
+
+    private static final byte[][] TITLE_FIELDS = names("@value");
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[8192];
+    private int position;
+    private int limit;
+    private byte[] scratch = new byte[256];
+    private int scratchLength;
+
+    private ICD11ResponseReader(@NotNull InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads response from the stream. Only the top-level object is read, the stream is not closed.
+     *
+     * @param in stream with the response body in UTF-8.
+     * @return fields of the response.
+     * @throws IOException if stream can't be read or doesn't contain a JSON object.
+     */
+    static @NotNull ICD11Response read(@NotNull InputStream in) throws IOException {
+        return new ICD11ResponseReader(in).readResponse();
+    }
+
+    /**
+     * Reads top-level object of the response.
+     */
+    private ICD11Response readResponse() throws IOException {
+        String title = null;
+        String code = null;
+        List<String> children = null;
+        String stemId = null;
+        String latestRelease = null;
+        List<ICD11Response.SearchEntity> destinationEntities = null;
+
+        expect('{');
+        if (!consume('}')) {
+            do {
+                switch (readName(RESPONSE_FIELDS)) {
+                    case TITLE -> title = readTitle();
+                    case CODE -> code = readNullableString();
+                    case CHILD -> children = readStringArray();
+                    case STEM_ID -> stemId = readNullableString();
+                    case LATEST_RELEASE -> latestRelease = readNullableString();
+                    case DESTINATION_ENTITIES -> destinationEntities = readSearchEntities();
+                    default -> skipValue(1);
+                }
+            } while (consume(','));
+            expect('}');
+        }
+        return new ICD11Response(title, code, children, stemId, latestRelease, destinationEntities);
+    }
+
+    /**
+     * Reads title that is either a string or an object with @value field.
+     */
+    private @Nullable String readTitle() throws IOException {
+        if (peek() != '{')
+            return readNullableString();
+        String title = null;
+        expect('{');
+        if (!consume('}')) {
+            do {
+                if (readName(TITLE_FIELDS) == 0)
+                    title = readNullableString();
+                else
+                    skipValue(2);
+            } while (consume(','));
+            expect('}');
+        }
+        return title;
+    }
+
+    /**
+     * Reads array of search results.
+     */
+    private @Nullable List<ICD11Response.SearchEntity> readSearchEntities() throws IOException {
+        if (consumeNull())
+            return null;
+        List<ICD11Response.SearchEntity> entities = new ArrayList<>();
+        expect('[');
+        if (consume(']'))
+            return entities;
+        do {
+            String stemId = null;
+            String code = null;
+            String title = null;
+            double score = 0;
+            expect('{');
+            if (!consume('}')) {
+                do {
+                    switch (readName(SEARCH_FIELDS)) {
+                        case SEARCH_STEM_ID -> stemId = readNullableString();
+                        case SEARCH_CODE -> code = readNullableString();
+                        case SEARCH_TITLE -> title = readTitle();
+                        case SEARCH_SCORE -> score = readNumber();
+                        default -> skipValue(3);
+                    }
+                } while (consume(','));
+                expect('}');
+            }
+            if (stemId == null || title == null)
+                throw new IOException("Search result without stemId or title");
+            entities.add(new ICD11Response.SearchEntity(stemId, code == null || code.isEmpty() ? null : code, title, score));
+        } while (consume(','));
+        expect(']');
+        return entities;
+    }
+
+    /**
+     * Reads array of strings.
+     */
+    private @Nullable List<String> readStringArray() throws IOException {
+        if (consumeNull())
+            return null;
+        List<String> strings = new ArrayList<>();
+        expect('[');
+        if (consume(']'))
+            return strings;
+        do {
+            strings.add(readString());
+        } while (consume(','));
+        expect(']');
+        return strings;
+    }
+
+    /**
+     * Reads field name and the colon after it.
+     *
+     * @param known names to look for.
+     * @return index of the name in known ones or -1 if it's another name.
+     */
+    private int readName(byte[][] known) throws IOException {
+        readStringBytes();
+        expect(':');
+        for (int i = 0; i < known.length; i++) {
+            if (Arrays.equals(scratch, 0, scratchLength, known[i], 0, known[i].length))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Reads string or null literal.
+     */
+    private @Nullable String readNullableString() throws IOException {
+        if (consumeNull())
+            return null;
+        return readString();
+    }
+
+    /**
+     * Reads and decodes string.
+     */
+    private @NotNull String readString() throws IOException {
+        readStringBytes();
+        return new String(scratch, 0, scratchLength, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads string into scratch buffer as UTF-8 bytes, resolving escape sequences.
+     */
+    private void readStringBytes() throws IOException {
+        expect('"');
+        scratchLength = 0;
+        while (true) {
+            int b = next();
+            if (b == '"')
+                return;
+            if (b != '\\') {
+                append(b);
+                continue;
+            }
+            int escaped = next();
+            switch (escaped) {
+                case '"', '\\', '/' -> append(escaped);
+                case 'b' -> append('\b');
+                case 'f' -> append('\f');
+                case 'n' -> append('\n');
+                case 'r' -> append('\r');
+                case 't' -> append('\t');
+                case 'u' -> appendCodePoint(readEscapedCodePoint());
+                default -> throw new IOException("Invalid escape sequence in JSON: \\" + (char) escaped);
+            }
+        }
+    }
+
+    /**
+     * Reads code point of \\u escape sequence, combining surrogate pairs. The following escape sequence
+     * is consumed only if it is the low surrogate of the pair; lone surrogates are returned as is.
+     */
+    private int readEscapedCodePoint() throws IOException {
+        char high = readHexChar();
+        if (!Character.isHighSurrogate(high) || !lookAhead(6)
+                || buffer[position] != '\\' || buffer[position + 1] != 'u')
+            return high;
+        int low = 0;
+        for (int i = 2; i < 6; i++) {
+            int digit = Character.digit(buffer[position + i], 16);
+            if (digit < 0)
+                return high;
+            low = low << 4 | digit;
+        }
+        if (!Character.isLowSurrogate((char) low))
+            return high;
+        position += 6;
+        return Character.toCodePoint(high, (char) low);
+    }
+
+    /**
+     * Reads four hex digits.
+     */
+    private char readHexChar() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(next(), 16);
+            if (digit < 0)
+                throw new IOException("Invalid \\u escape sequence in JSON");
+            value = value << 4 | digit;
+        }
+        return (char) value;
+    }
+
+    /**
+     * Reads number.
+     */
+    private double readNumber() throws IOException {
+        if (consumeNull())
+            return 0;
+        peek();
+        scratchLength = 0;
+        while (position < limit || fill()) {
+            int b = buffer[position];
+            if (b != '-' && b != '+' && b != '.' && b != 'e' && b != 'E' && (b < '0' || b > '9'))
+                break;
+            append(b);
+            position++;
+        }
+        try {
+            return Double.parseDouble(new String(scratch, 0, scratchLength, StandardCharsets.ISO_8859_1));
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid number in JSON", e);
+        }
+    }
+
+    /**
+     * Skips value of any type without decoding it.
+     *
+     * @param depth nesting depth of the value.
+     */
+    private void skipValue(int depth) throws IOException {
+        if (depth > MAX_DEPTH)
+            throw new IOException("JSON is nested too deep");
+        switch (peek()) {
+            case '{' -> {
+                expect('{');
+                if (consume('}'))
+                    return;
+                do {
+                    skipString();
+                    expect(':');
+                    skipValue(depth + 1);
+                } while (consume(','));
+                expect('}');
+            }
+            case '[' -> {
+                expect('[');
+                if (consume(']'))
+                    return;
+                do {
+                    skipValue(depth + 1);
+                } while (consume(','));
+                expect(']');
+            }
+            case '"' -> skipString();
+            default -> {
+                while (position < limit || fill()) {
+                    int b = buffer[position];
+                    if (b == ',' || b == '}' || b == ']' || isWhitespace(b))
+                        break;
+                    position++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Skips string without decoding it.
+     */
+    private void skipString() throws IOException {
+        expect('"');
+        while (true) {
+            int b = next();
+            if (b == '"')
+                return;
+            if (b == '\\')
+                next();
+        }
+    }
+
+    /**
+     * Consumes null literal if it's next.
+     */
+    private boolean consumeNull() throws IOException {
+        if (peek() != 'n')
+            return false;
+        for (char c : "null".toCharArray()) {
+            if (next() != c)
+                throw new IOException("Invalid literal in JSON");
+        }
+        return true;
+    }
+
+    /**
+     * Skips whitespace and consumes the character if it's next.
+     */
+    private boolean consume(char expected) throws IOException {
+        if (peek() != expected)
+            return false;
+        position++;
+        return true;
+    }
+
+    /**
+     * Skips whitespace and consumes the character, failing if another one is next.
+     */
+    private void expect(char expected) throws IOException {
+        int actual = peek();
+        if (actual != expected)
+            throw new IOException("Expected '" + expected + "' in JSON but found '" + (char) actual + "'");
+        position++;
+    }
+
+    /**
+     * Skips whitespace and returns the next byte without consuming it.
+     */
+    private int peek() throws IOException {
+        while (true) {
+            int b = peekRaw();
+            if (!isWhitespace(b))
+                return b;
+            position++;
+        }
+    }
+
+    /**
+     * Returns the next byte without consuming it or skipping whitespace.
+     */
+    private int peekRaw() throws IOException {
+        if (position == limit && !fill())
+            throw new EOFException("Unexpected end of JSON");
+        return buffer[position] & 0xFF;
+    }
+
+    /**
+     * Consumes the next byte.
+     */
+    private int next() throws IOException {
+        int b = peekRaw();
+        position++;
+        return b;
+    }
+
+    /**
+     * Makes the given number of bytes available in the buffer without consuming them.
+     *
+     * @return false if the stream ends earlier.
+     */
+    private boolean lookAhead(int count) throws IOException {
+        if (limit - position >= count)
+            return true;
+        System.arraycopy(buffer, position, buffer, 0, limit - position);
+        limit -= position;
+        position = 0;
+        while (limit < count) {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read <= 0)
+                return false;
+            limit += read;
+        }
+        return true;
+    }
+
+    /**
+     * Reads more bytes from the stream.
+     *
+     * @return false if the stream has ended.
+     */
+    private boolean fill() throws IOException {
+        int read = in.read(buffer);
+        if (read <= 0)
+            return false;
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    /**
+     * Appends byte to scratch buffer.
+     */
+    private void append(int b) {
+        if (scratchLength == scratch.length)
+            scratch = Arrays.copyOf(scratch, scratch.length * 2);
+        scratch[scratchLength++] = (byte) b;
+    }
+
+    /**
+     * Appends code point to scratch buffer as UTF-8.
+     */
+    private void appendCodePoint(int codePoint) {
+        if (codePoint < 0x80) {
+            append(codePoint);
+        } else if (codePoint < 0x800) {
+            append(0xC0 | codePoint >> 6);
+            append(0x80 | codePoint & 0x3F);
+        } else if (codePoint < 0x10000) {
+            if (Character.isSurrogate((char) codePoint))
+                codePoint = '�';
+            append(0xE0 | codePoint >> 12);
+            append(0x80 | codePoint >> 6 & 0x3F);
+            append(0x80 | codePoint & 0x3F);
+        } else {
+            append(0xF0 | codePoint >> 18);
+            append(0x80 | codePoint >> 12 & 0x3F);
+            append(0x80 | codePoint >> 6 & 0x3F);
+            append(0x80 | codePoint & 0x3F);
+        }
+    }
+
+    /**
+     * Checks whether byte is JSON whitespace.
+     */
+    private static boolean isWhitespace(int b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    /**
+     * Encodes field names to UTF-8.
+     */
+    private static byte[][] names(String... names) {
+        byte[][] encoded = new byte[names.length][];
+        for (int i = 0; i < names.length; i++)
+            encoded[i] = names[i].getBytes(StandardCharsets.UTF_8);
+        return encoded;
+    }
+}
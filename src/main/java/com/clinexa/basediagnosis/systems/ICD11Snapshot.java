@@ -0,0 +1,355 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.exceptions.DiagnosesSystemException;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static com.clinexa.basediagnosis.systems.ICD11SnapshotWriter.*;
+
+/**
+ * Read-only view of a memory-mapped snapshot file written by {@link ICD11SnapshotWriter}.
+ * <br>
+ *
+ * Nothing but the header is read on opening. Lookups binary search the mapped file,
+ * only absolute reads are used, so the snapshot can be shared between threads.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+final class ICD11Snapshot {
+
+    private final ByteBuffer buffer;
+    private final int[] titleSlots = new int[ICDLanguage.values().length];
+    private final int recordSize;
+    private final int entityCount;
+    private final int codeCount;
+    private final int releaseRef;
+    private final int entitiesOffset;
+    private final int linksOffset;
+    private final int codesOffset;
+    private final int stringsOffset;
+
+    /**
+     * Creates view of the already mapped snapshot, checking its header.
+     *
+     * @param buffer buffer with the whole snapshot.
+     * @throws DiagnosesSystemException if buffer doesn't contain a supported snapshot.
+     */
+    private ICD11Snapshot(@NotNull ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+            throw new DiagnosesSystemException("File is not an ICD 11 snapshot");
+        if (buffer.getInt(4) != VERSION)
+            throw new DiagnosesSystemException("Unsupported ICD 11 snapshot version: " + buffer.getInt(4));
+        if (buffer.getLong(HEADER_FILE_SIZE) != buffer.capacity())
+            throw new DiagnosesSystemException("ICD 11 snapshot is truncated");
+
+        int languageCount = buffer.getInt(HEADER_LANGUAGE_COUNT);
+        entityCount = buffer.getInt(HEADER_ENTITY_COUNT);
+        codeCount = buffer.getInt(HEADER_CODE_COUNT);
+        releaseRef = buffer.getInt(HEADER_RELEASE);
+        entitiesOffset = (int) buffer.getLong(HEADER_ENTITIES_OFFSET);
+        linksOffset = (int) buffer.getLong(HEADER_LINKS_OFFSET);
+        codesOffset = (int) buffer.getLong(HEADER_CODES_OFFSET);
+        stringsOffset = (int) buffer.getLong(HEADER_STRINGS_OFFSET);
+        if (languageCount < 0 || HEADER_SIZE + 4L * languageCount != entitiesOffset)
+            throw new DiagnosesSystemException(new StreamCorruptedException("Invalid languages in ICD 11 snapshot"));
+
+        // Slots of languages unknown to this version are skipped
+        Arrays.fill(titleSlots, -1);
+        for (int slot = 0; slot < languageCount; slot++) {
+            ICDLanguage language = language(string(buffer.getInt(HEADER_SIZE + 4 * slot)));
+            if (language != null && titleSlots[language.ordinal()] < 0)
+                titleSlots[language.ordinal()] = slot;
+        }
+        recordSize = RECORD_FIXED_SIZE + 4 * languageCount;
+    }
+
+    /**
+     * Maps snapshot file into memory.
+     *
+     * @param path path of the snapshot.
+     * @return view of the snapshot.
+     * @throws DiagnosesSystemException if file can't be read or isn't a supported snapshot.
+     */
+    static @NotNull ICD11Snapshot open(@NotNull Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new DiagnosesSystemException("ICD 11 snapshot is too large: " + path);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ICD11Snapshot(buffer);
+        } catch (IOException e) {
+            throw new DiagnosesSystemException(e);
+        }
+    }
+
+    /**
+     * Returns number of entities, including the root.
+     *
+     * @return number of entities.
+     */
+    int size() {
+        return entityCount;
+    }
+
+    /**
+     * Returns name of the release stored in the snapshot.
+     *
+     * @return release name or null if it is unknown.
+     */
+    @Nullable String release() {
+        return releaseRef == NO_STRING ? null : string(releaseRef);
+    }
+
+    /**
+     * Checks whether snapshot contains titles in the given language.
+     *
+     * @param language language to check.
+     * @return true if titles are stored in this language.
+     */
+    boolean hasLanguage(@NotNull ICDLanguage language) {
+        return titleSlots[language.ordinal()] >= 0;
+    }
+
+    /**
+     * Returns languages of the stored titles.
+     *
+     * @return set of languages.
+     */
+    @NotNull EnumSet<ICDLanguage> languages() {
+        EnumSet<ICDLanguage> languages = EnumSet.noneOf(ICDLanguage.class);
+        for (ICDLanguage language : ICDLanguage.values()) {
+            if (hasLanguage(language))
+                languages.add(language);
+        }
+        return languages;
+    }
+
+    /**
+     * Searches entity by its ID.
+     *
+     * @param entityID ID of the entity, empty for the root.
+     * @return index of the entity or -1 if it isn't in the snapshot.
+     */
+    int findEntity(@NotNull String entityID) {
+        byte[] key = entityID.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = entityCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareString(field(middle, RECORD_ID), key);
+            if (comparison < 0)
+                low = middle + 1;
+            else if (comparison > 0)
+                high = middle - 1;
+            else
+                return middle;
+        }
+        return -1;
+    }
+
+    /**
+     * Searches entity by its ICD 11 code.
+     *
+     * @param code ICD 11 code.
+     * @return index of the entity or -1 if no entity has this code.
+     */
+    int findCode(@NotNull String code) {
+        byte[] key = code.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = codeCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int entity = buffer.getInt(codesOffset + 4 * middle);
+            int comparison = compareString(field(entity, RECORD_CODE), key);
+            if (comparison < 0)
+                low = middle + 1;
+            else if (comparison > 0)
+                high = middle - 1;
+            else
+                return entity;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns ID of the entity.
+     *
+     * @param entity index of the entity.
+     * @return entity ID.
+     */
+    @NotNull String entityID(int entity) {
+        return string(field(entity, RECORD_ID));
+    }
+
+    /**
+     * Returns ICD 11 code of the entity.
+     *
+     * @param entity index of the entity.
+     * @return code or null if entity has no code.
+     */
+    @Nullable String code(int entity) {
+        int ref = field(entity, RECORD_CODE);
+        return ref == NO_STRING ? null : string(ref);
+    }
+
+    /**
+     * Returns type of the entity.
+     *
+     * @param entity index of the entity.
+     * @return type of the entity.
+     */
+    @NotNull EntityType type(int entity) {
+        int id = field(entity, RECORD_TYPE);
+        EntityType type = EntityType.byID(id);
+        if (type == null)
+            throw new DiagnosesSystemException(new StreamCorruptedException("Unknown entity type in ICD 11 snapshot: " + id));
+        return type;
+    }
+
+    /**
+     * Returns title of the entity.
+     *
+     * @param entity index of the entity.
+     * @param language language of the title.
+     * @return title or null if there's no title in this language.
+     */
+    @Nullable String title(int entity, @NotNull ICDLanguage language) {
+        int slot = titleSlots[language.ordinal()];
+        if (slot < 0)
+            return null;
+        int ref = field(entity, RECORD_FIXED_SIZE + 4 * slot);
+        return ref == NO_STRING ? null : string(ref);
+    }
+
+    /**
+     * Returns indices of the children of the entity.
+     *
+     * @param entity index of the entity.
+     * @return indices of the children in ICD 11 order.
+     */
+    int @NotNull [] children(int entity) {
+        return links(field(entity, RECORD_CHILDREN_START), field(entity, RECORD_CHILDREN_COUNT));
+    }
+
+    /**
+     * Returns indices of the parents of the entity.
+     *
+     * @param entity index of the entity.
+     * @return indices of the parents.
+     */
+    int @NotNull [] parents(int entity) {
+        return links(field(entity, RECORD_PARENTS_START), field(entity, RECORD_PARENTS_COUNT));
+    }
+
+    /**
+     * Reads the entity as a snapshot entry.
+     *
+     * @param entity index of the entity.
+     * @return entry with all the stored data of the entity.
+     */
+    @NotNull ICD11SnapshotEntry entry(int entity) {
+        Map<ICDLanguage, String> titles = new EnumMap<>(ICDLanguage.class);
+        for (ICDLanguage language : ICDLanguage.values()) {
+            String title = title(entity, language);
+            if (title != null)
+                titles.put(language, title);
+        }
+        return new ICD11SnapshotEntry(entityID(entity), code(entity), ids(parents(entity)), ids(children(entity)), titles);
+    }
+
+    /**
+     * Returns language by its code.
+     *
+     * @return language or null if it is unknown.
+     */
+    private static @Nullable ICDLanguage language(String code) {
+        for (ICDLanguage language : ICDLanguage.values()) {
+            if (language.getCode().equals(code))
+                return language;
+        }
+        return null;
+    }
+
+    /**
+     * Converts indices to entity IDs.
+     */
+    private List<String> ids(int[] entities) {
+        List<String> ids = new ArrayList<>(entities.length);
+        for (int entity : entities)
+            ids.add(entityID(entity));
+        return ids;
+    }
+
+    /**
+     * Reads a range of the links array.
+     */
+    private int[] links(int start, int count) {
+        int[] links = new int[count];
+        for (int i = 0; i < count; i++)
+            links[i] = buffer.getInt(linksOffset + 4 * (start + i));
+        return links;
+    }
+
+    /**
+     * Reads int field of the entity record.
+     */
+    private int field(int entity, int offset) {
+        if (entity < 0 || entity >= entityCount)
+            throw new IndexOutOfBoundsException("No entity " + entity + " in snapshot");
+        return buffer.getInt(entitiesOffset + entity * recordSize + offset);
+    }
+
+    /**
+     * Decodes string from the pool.
+     */
+    private String string(int ref) {
+        int offset = stringsOffset + ref;
+        byte[] bytes = new byte[buffer.getInt(offset)];
+        buffer.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares string from the pool with the given UTF-8 bytes without decoding it.
+     */
+    private int compareString(int ref, byte[] key) {
+        if (ref == NO_STRING)
+            return -1;
+        int offset = stringsOffset + ref;
+        int length = buffer.getInt(offset);
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int comparison = Integer.compare(buffer.get(offset + 4 + i) & 0xFF, key[i] & 0xFF);
+            if (comparison != 0)
+                return comparison;
+        }
+        return Integer.compare(length, key.length);
+    }
+}
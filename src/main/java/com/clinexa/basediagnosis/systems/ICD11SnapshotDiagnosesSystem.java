@@ -0,0 +1,428 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.*;
+import com.clinexa.basediagnosis.exceptions.DiagnosesSystemException;
+import com.clinexa.basediagnosis.implementations.TitledImplementation;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ICD 11 diagnoses system that works offline with a local snapshot of the MMS linearization.
+ * <br>
+ *
+ * Snapshot (see {@link ICD11SnapshotWriter}) is memory-mapped on {@link #init()}, so opening
+ * it doesn't depend on its size and it takes almost no heap. Lookups by code and entity ID
+ * are binary searches right in the mapped file.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ * @see DiagnosesSystem
+ * @see ICD11DiagnosesSystem
+ */
+public final class ICD11SnapshotDiagnosesSystem implements DiagnosesSystem {
+
+    /**
+     * Key that should be passed to {@link #setParameter(String, String)} to set path of the snapshot file.
+     */
+    public static final String SNAPSHOT_FILE_KEY = "SNAPSHOT_FILE";
+
+    private volatile ICDLanguage language = ICDLanguage.ENGLISH;
+    private volatile ICD11Snapshot snapshot;
+    private volatile TitleSearchIndex searchIndex;
+    private volatile AutocompleteIndex autocompleteIndex;
+
+    private final Map<String, String> data = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an empty instance of the system. Path of the snapshot should be set
+     * with {@link #SNAPSHOT_FILE_KEY} and {@link #init()} should be called before usage.
+     */
+    public ICD11SnapshotDiagnosesSystem() {}
+
+    /**
+     * Creates instance of the system and opens the given snapshot.
+     *
+     * @param snapshotFile path of the snapshot file.
+     * @throws DiagnosesSystemException if file can't be read or isn't a supported snapshot.
+     */
+    public ICD11SnapshotDiagnosesSystem(@NotNull Path snapshotFile) {
+        setParameter(SNAPSHOT_FILE_KEY, snapshotFile.toString());
+        init();
+    }
+
+    /**
+     * Opens the snapshot file.
+     *
+     * @throws DiagnosesSystemException if path wasn't set, file can't be read or isn't a supported snapshot.
+     * @see #SNAPSHOT_FILE_KEY
+     */
+    @Override
+    public void init() {
+        String path = data.get(SNAPSHOT_FILE_KEY);
+        if (path == null)
+            throw new DiagnosesSystemException("Snapshot file was not given. Set " +
+                    "ICD11SnapshotDiagnosesSystem.SNAPSHOT_FILE_KEY using setParameter() method!");
+        synchronized (this) {
+            snapshot = ICD11Snapshot.open(Path.of(path));
+            searchIndex = null;
+            autocompleteIndex = null;
+        }
+    }
+
+    /**
+     * Returns name of ICD 11 release stored in the snapshot.
+     *
+     * @return release name or null if it is unknown.
+     */
+    public @Nullable String getRelease() {
+        return snapshot().release();
+    }
+
+    /**
+     * Returns languages of titles stored in the snapshot.
+     *
+     * @return set of languages.
+     */
+    public @NotNull EnumSet<ICDLanguage> getLanguages() {
+        return snapshot().languages();
+    }
+
+    /**
+     * Returns full-text index of titles of the snapshot. It is built on the first call,
+     * which reads every entity, and kept until {@link #init()} is called again.
+     *
+     * @return index of titles in all the languages of the snapshot.
+     * @see ICD11DiagnosesSystem#setSearchIndex(TitleSearchIndex)
+     */
+    public @NotNull TitleSearchIndex getSearchIndex() {
+        TitleSearchIndex index = searchIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = searchIndex;
+                if (index == null) {
+                    index = TitleSearchIndex.of(entries());
+                    searchIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns type-ahead index of titles and codes of the snapshot. It is built on
+     * the first call, which reads every entity, and kept until {@link #init()} is called again.
+     *
+     * @return index of titles in all the languages of the snapshot.
+     * @see AutocompleteIndex#newSession(ICDLanguage, DiagnosesSystem)
+     */
+    public @NotNull AutocompleteIndex getAutocompleteIndex() {
+        AutocompleteIndex index = autocompleteIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = autocompleteIndex;
+                if (index == null) {
+                    index = AutocompleteIndex.of(entries());
+                    autocompleteIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns IDs of all the entities with codes in the snapshot.
+     *
+     * @return map of ICD 11 codes to entity IDs.
+     * @see ICD11DiagnosesSystem#preloadCodeIndex(Map)
+     */
+    public @NotNull Map<String, String> getCodeIndex() {
+        ICD11Snapshot snapshot = snapshot();
+        Map<String, String> index = new HashMap<>();
+        for (int entity = 0; entity < snapshot.size(); entity++) {
+            String code = snapshot.code(entity);
+            if (code != null)
+                index.putIfAbsent(code, snapshot.entityID(entity));
+        }
+        return index;
+    }
+
+    /**
+     * Returns {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} object
+     * for a given ICD 11 code.
+     *
+     * @param icd11Code ICD 11 code
+     * @param language language to be used as default in returned object.
+     * @return {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} object for a given ICD 11 code.
+     * @throws DiagnosesSystemException if there's no such code in the snapshot.
+     * @throws UnsupportedOperationException if the snapshot has no titles in the given language.
+     * @see DiagnosesSystem#getByICD11Code(String, ICDLanguage)
+     */
+    @Override
+    public @NotNull Object getByICD11Code(@NotNull String icd11Code, @NotNull ICDLanguage language) {
+        ICD11Snapshot snapshot = snapshot();
+        int entity = snapshot.findCode(icd11Code);
+        if (entity < 0)
+            throw new DiagnosesSystemException("ICD 11 code not found in snapshot: " + icd11Code);
+        return create(snapshot, entity, language);
+    }
+
+    /**
+     * Returns main categories of ICD 11.
+     *
+     * @param language default language of the results.
+     * @return list of {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} objects of main subcategories.
+     * @see DiagnosesSystem#getParentCategoryListing(ICDLanguage)
+     */
+    @Override
+    public @NotNull List<Map.Entry<Object, String>> getParentCategoryListing(@NotNull ICDLanguage language) {
+        return getCategoryListing("", language);
+    }
+
+    /**
+     * Returns elements of the category in ICD 11.
+     *
+     * @param category ID of category to check.
+     * @param language default language of the results.
+     * @return list of {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} objects form the category.
+     * @throws DiagnosesSystemException if there's no such entity in the snapshot or it isn't a category.
+     * @see DiagnosesSystem#getCategoryListing(String, ICDLanguage)
+     */
+    @Override
+    public @NotNull List<Map.Entry<Object, String>> getCategoryListing(@NotNull String category, @NotNull ICDLanguage language) {
+        ICD11Snapshot snapshot = snapshot();
+        int[] children = snapshot.children(findEntity(snapshot, category));
+        if (children.length == 0)
+            throw new DiagnosesSystemException("Given entity is not a category: " + category);
+
+        List<Map.Entry<Object, String>> subcategories = new ArrayList<>(children.length);
+        for (int child : children)
+            subcategories.add(new AbstractMap.SimpleEntry<>(create(snapshot, child, language), snapshot.entityID(child)));
+        return subcategories;
+    }
+
+    /**
+     * Returns entities whose titles in the given language contain words of the query,
+     * most relevant first (see {@link TitleSearchIndex}).
+     *
+     * @param query query to search.
+     * @param language default language of the results.
+     * @return list of {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} objects for the given query.
+     * @throws UnsupportedOperationException if the snapshot has no titles in the given language.
+     * @see DiagnosesSystem#getSearchResult(String, ICDLanguage)
+     */
+    @Override
+    public @NotNull List<Map.Entry<Object, String>> getSearchResult(@NotNull String query, @NotNull ICDLanguage language) {
+        List<SearchHit> hits = getSearchHits(query, language, 0, Integer.MAX_VALUE);
+        List<Map.Entry<Object, String>> results = new ArrayList<>(hits.size());
+        for (SearchHit hit : hits)
+            results.add(new AbstractMap.SimpleEntry<>(hit.getEntity(), hit.getEntityID()));
+        return results;
+    }
+
+    /**
+     * Returns one page of search results ranked by {@link TitleSearchIndex}.
+     *
+     * @param query query to search.
+     * @param language language of the titles of results.
+     * @param page number of the page, starting from 0.
+     * @param limit maximum number of hits on the page.
+     * @return list of {@link SearchHit} objects on the given page, best first.
+     * @throws IllegalArgumentException if page is negative or limit isn't positive.
+     * @throws UnsupportedOperationException if the snapshot has no titles in the given language.
+     * @see DiagnosesSystem#getSearchHits(String, ICDLanguage, int, int)
+     */
+    @Override
+    public @NotNull List<SearchHit> getSearchHits(@NotNull String query, @NotNull ICDLanguage language, int page, int limit) {
+        TitleSearchIndex index = getSearchIndex();
+        if (!index.supports(language))
+            throw new UnsupportedOperationException("Snapshot has no titles in " + language);
+        return index.search(query, language, page, limit, this);
+    }
+
+    /**
+     * Returns untranslatable {@link Titled} object with title of
+     * the ICD 11 entity by its ID.
+     *
+     * @param entity ID of the entity to search.
+     * @param language the only language results will be available in.
+     * @return {@link Titled} object with title of entity with given ID.
+     * @throws DiagnosesSystemException if there's no such entity in the snapshot.
+     * @throws UnsupportedOperationException if the snapshot has no title in the given language.
+     * @see DiagnosesSystem#getTitleByEntityID(String, ICDLanguage)
+     */
+    @Override
+    public @NotNull Titled getTitleByEntityID(@NotNull String entity, @NotNull ICDLanguage language) {
+        ICD11Snapshot snapshot = snapshot();
+        String title = title(snapshot, findEntity(snapshot, entity), language);
+        return new TitledImplementation(title, language, (var _) -> { throw new UnsupportedOperationException("getTitleByEntityID result may asked only in original language");});
+    }
+
+    /**
+     * Returns {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} object
+     * for a given ICD 11 code in set language.
+     *
+     * @param icd11Code ICD 11 code
+     * @return {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} object for a given ICD 11 code.
+     * @see DiagnosesSystem#getByICD11Code(String)
+     */
+    @Override
+    public @NotNull Object getByICD11Code(@NotNull String icd11Code) {
+        return getByICD11Code(icd11Code, language);
+    }
+
+    /**
+     * Returns main categories of ICD 11 in set language.
+     *
+     * @return list of {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} objects of main subcategories.
+     * @see DiagnosesSystem#getParentCategoryListing()
+     */
+    @Override
+    public @NotNull List<Map.Entry<Object, String>> getParentCategoryListing() {
+        return getParentCategoryListing(language);
+    }
+
+    /**
+     * Returns elements of the category in ICD 11 for the set language.
+     *
+     * @param category ID of category to check.
+     * @return list of {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} objects form the category.
+     * @see DiagnosesSystem#getCategoryListing(String)
+     */
+    @Override
+    public @NotNull List<Map.Entry<Object, String>> getCategoryListing(@NotNull String category) {
+        return getCategoryListing(category, language);
+    }
+
+    /**
+     * Returns search results for the given input query for set language.
+     *
+     * @param query query to search.
+     * @return list of {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} objects for the given query.
+     * @see DiagnosesSystem#getSearchResult(String)
+     */
+    @Override
+    public @NotNull List<Map.Entry<Object, String>> getSearchResult(@NotNull String query) {
+        return getSearchResult(query, language);
+    }
+
+    /**
+     * Returns untranslatable {@link Titled} object with title of
+     * the ICD 11 entity by its ID for set language.
+     *
+     * @param entity ID of the entity to search.
+     * @return {@link Titled} object with title of entity with given ID.
+     * @see DiagnosesSystem#getTitleByEntityID(String)
+     */
+    @Override
+    public @NotNull Titled getTitleByEntityID(@NotNull String entity) {
+        return getTitleByEntityID(entity, language);
+    }
+
+    /**
+     * Sets default language.
+     *
+     * @param language language to be set as a one used by default.
+     * @see DiagnosesSystem#setLanguage(ICDLanguage)
+     */
+    @Override
+    public void setLanguage(@NotNull ICDLanguage language) {
+        this.language = language;
+    }
+
+    /**
+     * Sets parameter for system.
+     *
+     * @param key key (usually are available as public static final String constants ending in _KEY).
+     * @param value value to be stored.
+     * @see DiagnosesSystem#setParameter(String, String)
+     */
+    @Override
+    public void setParameter(@NotNull String key, String value) {
+        if (value == null)
+            data.remove(key);
+        else
+            data.put(key, value);
+    }
+
+    /**
+     * Returns opened snapshot.
+     *
+     * @return snapshot.
+     * @throws DiagnosesSystemException if {@link #init()} wasn't called.
+     */
+    private @NotNull ICD11Snapshot snapshot() {
+        ICD11Snapshot current = snapshot;
+        if (current == null)
+            throw new DiagnosesSystemException("Snapshot is not opened. Call init() before usage!");
+        return current;
+    }
+
+    /**
+     * Reads all the entries of the snapshot.
+     *
+     * @return entries in the order of the snapshot.
+     */
+    private @NotNull List<ICD11SnapshotEntry> entries() {
+        ICD11Snapshot snapshot = snapshot();
+        List<ICD11SnapshotEntry> entries = new ArrayList<>(snapshot.size());
+        for (int entity = 0; entity < snapshot.size(); entity++)
+            entries.add(snapshot.entry(entity));
+        return entries;
+    }
+
+    /**
+     * Searches entity by ID.
+     *
+     * @return index of the entity.
+     * @throws DiagnosesSystemException if there's no such entity in the snapshot.
+     */
+    private int findEntity(@NotNull ICD11Snapshot snapshot, @NotNull String entityID) {
+        int entity = snapshot.findEntity(entityID);
+        if (entity < 0)
+            throw new DiagnosesSystemException("Entity not found in snapshot: " + entityID);
+        return entity;
+    }
+
+    /**
+     * Returns title of the entity.
+     *
+     * @throws UnsupportedOperationException if the snapshot has no title in the given language.
+     */
+    private @NotNull String title(@NotNull ICD11Snapshot snapshot, int entity, @NotNull ICDLanguage language) {
+        String title = snapshot.title(entity, language);
+        if (title == null)
+            throw new UnsupportedOperationException("Snapshot has no title of " + snapshot.entityID(entity) +
+                    " in " + language);
+        return title;
+    }
+
+    /**
+     * Creates object that represents the entity.
+     *
+     * @return {@link Diagnosis}, {@link Symptom}, or {@link DiagnosisCategory} object.
+     */
+    private @NotNull Object create(@NotNull ICD11Snapshot snapshot, int entity, @NotNull ICDLanguage language) {
+        return snapshot.type(entity).create(this, snapshot.entityID(entity), snapshot.code(entity),
+                title(snapshot, entity, language), language);
+    }
+}
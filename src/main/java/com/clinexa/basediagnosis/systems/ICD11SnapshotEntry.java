@@ -0,0 +1,76 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Single entity of ICD 11 MMS linearization as it is stored in a local snapshot.
+ * <br>
+ *
+ * Root of the linearization has an empty ID, its children are chapters of ICD 11.
+ *
+ * @param entityID ID of the entity (as used by {@link ICD11DiagnosesSystem#getCategoryListing(String)}).
+ * @param code ICD 11 code of the entity or null if it has no code.
+ * @param parentIDs IDs of the parents of the entity.
+ * @param childIDs IDs of the children of the entity, in ICD 11 order.
+ * @param titles titles of the entity by language.
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ * @see ICD11SnapshotWriter
+ * @see ICD11SnapshotDiagnosesSystem
+ */
+public record ICD11SnapshotEntry(@NotNull String entityID, @Nullable String code, @NotNull List<String> parentIDs,
+                                 @NotNull List<String> childIDs, @NotNull Map<ICDLanguage, String> titles) {
+
+    /**
+     * Creates new entry, copying given collections.
+     */
+    public ICD11SnapshotEntry {
+        Objects.requireNonNull(entityID);
+        parentIDs = List.copyOf(parentIDs);
+        childIDs = List.copyOf(childIDs);
+        titles = titles.isEmpty() ? Map.of() : Collections.unmodifiableMap(new EnumMap<>(titles));
+        if (code != null && code.isEmpty())
+            code = null;
+    }
+
+    /**
+     * Returns whether entity is a category, i.e. if it has children or no code.
+     *
+     * @return true if entity is represented by {@link com.clinexa.basediagnosis.DiagnosisCategory}, false otherwise.
+     */
+    public boolean isCategory() {
+        return type() == EntityType.CATEGORY;
+    }
+
+    /**
+     * Returns type of the entity.
+     *
+     * @return type of the entity.
+     */
+    @NotNull EntityType type() {
+        return EntityType.of(!childIDs.isEmpty(), code);
+    }
+}
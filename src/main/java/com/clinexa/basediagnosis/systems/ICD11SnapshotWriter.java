@@ -0,0 +1,242 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Writes ICD 11 snapshot file that can be opened by {@link ICD11SnapshotDiagnosesSystem}.
+ * <br>
+ *
+ * Snapshot is a single binary file (big-endian) made of a header, a table of title languages,
+ * a table of fixed-size entity records sorted by entity ID, an array of parent/child links, an index of entities sorted
+ * by code and a pool of UTF-8 strings. Fixed layout lets the reader binary search the file
+ * right in a memory-mapped buffer without parsing it on startup. Languages are stored by their
+ * codes and entity types by their stable IDs, so adding either doesn't change meaning of existing files.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+public final class ICD11SnapshotWriter {
+
+    static final int MAGIC = 0x49434453;  // "ICDS"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_FIXED_SIZE = 28;
+
+    static final int HEADER_LANGUAGE_COUNT = 8;
+    static final int HEADER_ENTITY_COUNT = 12;
+    static final int HEADER_CODE_COUNT = 16;
+    static final int HEADER_RELEASE = 20;
+    static final int HEADER_ENTITIES_OFFSET = 24;
+    static final int HEADER_LINKS_OFFSET = 32;
+    static final int HEADER_CODES_OFFSET = 40;
+    static final int HEADER_STRINGS_OFFSET = 48;
+    static final int HEADER_FILE_SIZE = 56;
+
+    static final int RECORD_ID = 0;
+    static final int RECORD_CODE = 4;
+    static final int RECORD_TYPE = 8;
+    static final int RECORD_PARENTS_START = 12;
+    static final int RECORD_PARENTS_COUNT = 16;
+    static final int RECORD_CHILDREN_START = 20;
+    static final int RECORD_CHILDREN_COUNT = 24;
+
+    static final int NO_STRING = -1;
+
+    /**
+     * Comparator of strings by their UTF-8 bytes, which is the order of IDs and codes in the snapshot.
+     */
+    static final Comparator<byte[]> BYTES_ORDER = Arrays::compareUnsigned;
+
+    private ICD11SnapshotWriter() {}
+
+    /**
+     * Writes snapshot with the given entities.
+     * <br>
+     *
+     * If there's no root entry (with an empty ID), entries without parents become
+     * children of the root. Links to entities missing from the collection are dropped.
+     * The file is written next to the target and then moved in place, so readers never
+     * see a partially written snapshot.
+     *
+     * @param path path of the snapshot file.
+     * @param entries entities to store.
+     * @param release name of ICD 11 release the entities belong to or null if unknown.
+     * @throws IOException if file can't be written.
+     * @throws IllegalArgumentException if there are several entries with the same ID or snapshot is too large.
+     */
+    public static void write(@NotNull Path path, @NotNull Collection<ICD11SnapshotEntry> entries,
+                             @Nullable String release) throws IOException {
+        List<ICD11SnapshotEntry> sorted = new ArrayList<>(entries);
+        if (sorted.stream().noneMatch(entry -> entry.entityID().isEmpty())) {
+            List<String> chapters = sorted.stream()
+                    .filter(entry -> entry.parentIDs().isEmpty())
+                    .map(ICD11SnapshotEntry::entityID)
+                    .toList();
+            sorted.add(new ICD11SnapshotEntry("", null, List.of(), chapters, Map.of()));
+        }
+
+        Map<ICD11SnapshotEntry, byte[]> idBytes = new IdentityHashMap<>();
+        for (ICD11SnapshotEntry entry : sorted)
+            idBytes.put(entry, entry.entityID().getBytes(StandardCharsets.UTF_8));
+        sorted.sort((a, b) -> BYTES_ORDER.compare(idBytes.get(a), idBytes.get(b)));
+
+        Map<String, Integer> indices = new HashMap<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            if (indices.put(sorted.get(i).entityID(), i) != null)
+                throw new IllegalArgumentException("Duplicate entity in snapshot: " + sorted.get(i).entityID());
+        }
+
+        EnumSet<ICDLanguage> languageSet = EnumSet.noneOf(ICDLanguage.class);
+        for (ICD11SnapshotEntry entry : sorted)
+            languageSet.addAll(entry.titles().keySet());
+        List<ICDLanguage> languages = List.copyOf(languageSet);
+
+        var strings = new StringPool();
+        ByteBuffer languageBuffer = ByteBuffer.allocate(4 * languages.size());
+        for (ICDLanguage language : languages)
+            languageBuffer.putInt(strings.add(language.getCode()));
+        languageBuffer.flip();
+
+        int recordSize = RECORD_FIXED_SIZE + 4 * languages.size();
+        ByteBuffer records = ByteBuffer.allocate(Math.multiplyExact(sorted.size(), recordSize));
+        List<Integer> links = new ArrayList<>();
+        for (ICD11SnapshotEntry entry : sorted) {
+            records.putInt(strings.add(entry.entityID()));
+            records.putInt(entry.code() == null ? NO_STRING : strings.add(entry.code()));
+            records.putInt(entry.type().id());
+            records.putInt(links.size());
+            records.putInt(addLinks(links, entry.parentIDs(), indices));
+            records.putInt(links.size());
+            records.putInt(addLinks(links, entry.childIDs(), indices));
+            for (ICDLanguage language : languages) {
+                String title = entry.titles().get(language);
+                records.putInt(title == null ? NO_STRING : strings.add(title));
+            }
+        }
+        records.flip();
+
+        ByteBuffer linkBuffer = ByteBuffer.allocate(Math.multiplyExact(links.size(), 4));
+        links.forEach(linkBuffer::putInt);
+        linkBuffer.flip();
+
+        List<Integer> coded = new ArrayList<>();
+        Set<String> seenCodes = new HashSet<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            if (sorted.get(i).code() != null && seenCodes.add(sorted.get(i).code()))
+                coded.add(i);
+        }
+        coded.sort((a, b) -> BYTES_ORDER.compare(sorted.get(a).code().getBytes(StandardCharsets.UTF_8),
+                sorted.get(b).code().getBytes(StandardCharsets.UTF_8)));
+        ByteBuffer codeBuffer = ByteBuffer.allocate(Math.multiplyExact(coded.size(), 4));
+        coded.forEach(codeBuffer::putInt);
+        codeBuffer.flip();
+
+        int releaseRef = release == null ? NO_STRING : strings.add(release);
+        ByteBuffer stringBuffer = strings.toBuffer();
+
+        long entitiesOffset = HEADER_SIZE + languageBuffer.remaining();
+        long linksOffset = entitiesOffset + records.remaining();
+        long codesOffset = linksOffset + linkBuffer.remaining();
+        long stringsOffset = codesOffset + codeBuffer.remaining();
+        long fileSize = stringsOffset + stringBuffer.remaining();
+        if (fileSize > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Snapshot is too large: " + fileSize + " bytes");
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(languages.size()).putInt(sorted.size()).putInt(coded.size())
+                .putInt(releaseRef).putLong(entitiesOffset).putLong(linksOffset).putLong(codesOffset)
+                .putLong(stringsOffset).putLong(fileSize);
+        header.flip();
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] buffers = {header, languageBuffer, records, linkBuffer, codeBuffer, stringBuffer};
+            long written = 0;
+            while (written < fileSize)
+                written += channel.write(buffers);
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Adds indices of known entities to links.
+     *
+     * @return number of added links.
+     */
+    private static int addLinks(List<Integer> links, List<String> ids, Map<String, Integer> indices) {
+        int count = 0;
+        for (String id : ids) {
+            Integer index = indices.get(id);
+            if (index != null) {
+                links.add(index);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Pool of strings stored once each as a length followed by UTF-8 bytes.
+     */
+    private static final class StringPool {
+
+        private final Map<String, Integer> offsets = new HashMap<>();
+        private ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+        /**
+         * Adds string to the pool if it isn't there yet.
+         *
+         * @return offset of the string in the pool.
+         */
+        int add(String string) {
+            Integer offset = offsets.get(string);
+            if (offset != null)
+                return offset;
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            if (buffer.remaining() < bytes.length + 4) {
+                int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes.length + 4);
+                buffer = ByteBuffer.allocate(capacity).put(buffer.flip());
+            }
+            offset = buffer.position();
+            buffer.putInt(bytes.length).put(bytes);
+            offsets.put(string, offset);
+            return offset;
+        }
+
+        /**
+         * Returns buffer with all the strings ready to be written.
+         */
+        ByteBuffer toBuffer() {
+            return buffer.duplicate().flip();
+        }
+    }
+}
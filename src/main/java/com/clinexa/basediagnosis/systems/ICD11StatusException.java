@@ -0,0 +1,70 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.exceptions.DiagnosesSystemException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serial;
+import java.time.Duration;
+
+/**
+ * Error response from ICD API, with its status, so {@link RetryPolicy} can tell
+ * whether the request is worth retrying.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+final class ICD11StatusException extends DiagnosesSystemException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+    private final transient Duration retryAfter;
+
+    /**
+     * Creates exception for an error response.
+     *
+     * @param status HTTP status of the response.
+     * @param retryAfter delay requested by {@code Retry-After} header or null if there was none.
+     * @param body body of the response.
+     */
+    ICD11StatusException(int status, @Nullable Duration retryAfter, @NotNull String body) {
+        super("Error response from ICD API: " + body);
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Returns HTTP status of the response.
+     *
+     * @return status code.
+     */
+    int getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns delay the server asked to wait before the next request.
+     *
+     * @return delay from {@code Retry-After} header or null if there was none.
+     */
+    @Nullable Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
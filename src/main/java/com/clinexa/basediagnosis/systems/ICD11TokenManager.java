@@ -0,0 +1,206 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.events.TokenRefreshEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Keeps OAuth access token of ICD 11 API fresh.
+ * <br>
+ *
+ * Token is refreshed in background shortly before it expires, so requests don't wait
+ * for it. Concurrent refreshes (on startup, after expiry or after the server rejected
+ * the token) are collapsed into a single token request. A refresh started before
+ * {@link #reset()} never publishes its token: callers waiting for it get a token from a new refresh.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+final class ICD11TokenManager {
+
+    private static final Duration REFRESH_MARGIN = Duration.ofMinutes(5);
+    private static final Duration EXPIRY_SKEW = Duration.ofSeconds(10);
+
+    private final Supplier<CompletableFuture<AccessToken>> requester;
+    private final AtomicReference<CompletableFuture<State>> refreshing = new AtomicReference<>();
+    private volatile State state;
+    private volatile long generation;
+
+    /**
+     * Access token received from the server.
+     *
+     * @param value token to be sent in Authorization header.
+     * @param lifetime time the token is valid for or null if server didn't tell.
+     */
+    record AccessToken(@NotNull String value, @Nullable Duration lifetime) {}
+
+    /**
+     * Current token with its deadlines.
+     *
+     * @param value token to be sent in Authorization header.
+     * @param refreshAt {@link System#nanoTime()} after which token is refreshed in background.
+     * @param expiresAt {@link System#nanoTime()} after which token can't be used anymore.
+     * @param expires whether the deadlines are known.
+     */
+    private record State(String value, long refreshAt, long expiresAt, boolean expires) {}
+
+    /**
+     * Creates token manager without a token.
+     *
+     * @param requester function that sends token request.
+     */
+    ICD11TokenManager(@NotNull Supplier<CompletableFuture<AccessToken>> requester) {
+        this.requester = requester;
+    }
+
+    /**
+     * Returns valid token. If current token is close to expiry, background refresh
+     * is started and the current one is returned.
+     *
+     * @return future of token to be sent in Authorization header, already completed if there's a valid token.
+     */
+    @NotNull CompletableFuture<String> getAsync() {
+        State current = state;
+        long now = System.nanoTime();
+        if (current == null || current.expires() && now - current.expiresAt() >= 0)
+            return refresh().thenApply(State::value);
+        if (current.expires() && now - current.refreshAt() >= 0)
+            refresh();
+        return CompletableFuture.completedFuture(current.value());
+    }
+
+    /**
+     * Returns token to replace one the server has rejected. Only the first call with
+     * the rejected token sends token request, the rest get the same new token.
+     *
+     * @param rejected token the server has rejected.
+     * @return future of the new token.
+     */
+    @NotNull CompletableFuture<String> refreshRejected(@NotNull String rejected) {
+        State current = state;
+        if (current != null && !current.value().equals(rejected))
+            return CompletableFuture.completedFuture(current.value());
+        return refresh().thenApply(State::value);
+    }
+
+    /**
+     * Requests new token, or joins the request already in progress.
+     *
+     * @return future of new token state. It is shared, so it must not be cancelled.
+     */
+    @NotNull CompletableFuture<State> refresh() {
+        while (true) {
+            CompletableFuture<State> running = refreshing.get();
+            if (running != null)
+                return running;
+            CompletableFuture<State> created = new CompletableFuture<>();
+            long started = generation;
+            if (refreshing.compareAndSet(null, created)) {
+                TokenRefreshEvent event = new TokenRefreshEvent();
+                event.replacesToken = state != null;
+                event.callerThread = Thread.currentThread();
+                event.begin();
+                long requestedAt = System.nanoTime();
+                Futures.start(requester).whenComplete((token, error) -> {
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.success = error == null;
+                        event.lifetime = error == null && token.lifetime() != null ? token.lifetime().toSeconds() : 0;
+                        event.commit();
+                    }
+                    State refreshed = error == null ? toState(token, requestedAt) : null;
+                    if (generation != started || refreshed != null && !install(refreshed, started)) {
+                        // Requested with old settings, so it's repeated with the current ones
+                        refreshing.compareAndSet(created, null);
+                        refresh().whenComplete((current, failure) -> {
+                            if (failure == null)
+                                created.complete(current);
+                            else
+                                created.completeExceptionally(failure);
+                        });
+                        return;
+                    }
+                    refreshing.compareAndSet(created, null);
+                    if (refreshed != null) {
+                        scheduleRefresh(refreshed);
+                        created.complete(refreshed);
+                    } else {
+                        created.completeExceptionally(Futures.unwrap(error));
+                    }
+                });
+                return created;
+            }
+        }
+    }
+
+    /**
+     * Forgets current token, e.g. when credentials have changed. Refresh scheduled
+     * for it is skipped, and refresh in progress is repeated with the current settings.
+     */
+    synchronized void reset() {
+        generation++;
+        state = null;
+        refreshing.set(null);
+    }
+
+    /**
+     * Makes the token current unless the manager was reset since its refresh started.
+     *
+     * @param refreshed new token.
+     * @param started generation the refresh was started in.
+     * @return false if the token is outdated.
+     */
+    private synchronized boolean install(@NotNull State refreshed, long started) {
+        if (generation != started)
+            return false;
+        state = refreshed;
+        return true;
+    }
+
+    /**
+     * Calculates deadlines of the token. Lifetime is counted from the moment token
+     * was requested, and the token is treated as expired a bit earlier than the server says.
+     */
+    private static State toState(AccessToken token, long requestedAt) {
+        if (token.lifetime() == null)
+            return new State(token.value(), 0, 0, false);
+        long lifetime = token.lifetime().toNanos();
+        long skew = Math.min(EXPIRY_SKEW.toNanos(), lifetime / 20);
+        long margin = Math.min(REFRESH_MARGIN.toNanos(), lifetime / 5);
+        return new State(token.value(), requestedAt + lifetime - margin, requestedAt + lifetime - skew, true);
+    }
+
+    /**
+     * Schedules background refresh of the token, skipped if the token was replaced meanwhile.
+     */
+    private void scheduleRefresh(State scheduled) {
+        if (!scheduled.expires())
+            return;
+        long delay = Math.max(0, scheduled.refreshAt() - System.nanoTime());
+        CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(() -> {
+            if (state == scheduled)
+                refresh();
+        });
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.systems;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Long-lived HTTP transport used by {@link ICD11DiagnosesSystem}.
+ * <br>
+ *
+ * Wraps a single {@link HttpClient}, so connections (and their TLS sessions) are pooled,
+ * kept alive and, when the server supports it, multiplexed over HTTP/2 instead of being
+ * opened for every request.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+final class ICD11Transport implements AutoCloseable {
+
+    private final HttpClient client;
+    private volatile boolean shutdown;
+    private final Duration requestTimeout;
+
+    /**
+     * Creates new transport with its own pooled {@link HttpClient}.
+     *
+     * @param connectTimeout maximum time to establish a new connection.
+     * @param requestTimeout maximum time to wait for a response to a single request.
+     * @param executor executor for asynchronous tasks of the client or null to use the default one.
+     */
+    ICD11Transport(@NotNull Duration connectTimeout, @NotNull Duration requestTimeout, @Nullable Executor executor) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(connectTimeout);
+        if (executor != null)
+            builder.executor(executor);
+        this.client = builder.build();
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * Creates request builder for the given URI with request timeout already set.
+     *
+     * @param uri absolute URI of the request.
+     * @return new request builder.
+     */
+    @NotNull HttpRequest.Builder newRequest(@NotNull URI uri) {
+        return HttpRequest.newBuilder(uri).timeout(requestTimeout);
+    }
+
+    /**
+     * Sends request using pooled connections.
+     *
+     * @param request request to send.
+     * @param bodyHandler handler of the response body, e.g. {@link HttpResponse.BodyHandlers#ofInputStream()}
+     *                    to read it while it's being received.
+     * @return response from the server.
+     * @throws IOException if there's a problem with internet connection.
+     * @throws InterruptedException if connection was interrupted.
+     */
+    <T> @NotNull HttpResponse<T> send(@NotNull HttpRequest request, @NotNull HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        return client.send(request, bodyHandler);
+    }
+
+    /**
+     * Sends request asynchronously using pooled connections.
+     * <br>
+     *
+     * Cancelling the returned future with interruption aborts the HTTP exchange.
+     *
+     * @param request request to send.
+     * @param bodyHandler handler of the response body.
+     * @return future of the response from the server.
+     */
+    <T> @NotNull CompletableFuture<HttpResponse<T>> sendAsync(@NotNull HttpRequest request,
+                                                              @NotNull HttpResponse.BodyHandler<T> bodyHandler) {
+        return client.sendAsync(request, bodyHandler);
+    }
+
+    /**
+     * Stops accepting new requests without waiting for the ones in progress. Pooled
+     * connections are closed as those requests finish.
+     */
+    void shutdown() {
+        shutdown = true;
+        client.shutdown();
+    }
+
+    /**
+     * Returns whether {@link #shutdown()} was called, so new requests are rejected.
+     *
+     * @return true if the transport is shut down.
+     */
+    boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * Closes all pooled connections, waiting for requests in progress to finish.
+     */
+    @Override
+    public void close() {
+        client.close();
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.systems;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Retries of idempotent API requests.
+ * <br>
+ *
+ * Requests failed with an I/O error, 429 or a 5xx gateway status are sent again after
+ * exponential backoff with full jitter: before retry n the delay is random between 0 and
+ * {@code min(maxBackoff, backoff * 2^n)}, so clients failed at once don't retry at once.
+ * If the server sent {@code Retry-After}, its delay is used instead; a delay longer than
+ * {@link #MAX_RETRY_AFTER} is not waited for and the request fails.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+final class RetryPolicy {
+
+    /**
+     * The longest backoff between retries.
+     */
+    static final Duration MAX_BACKOFF = Duration.ofSeconds(10);
+
+    /**
+     * The longest {@code Retry-After} delay that is waited for.
+     */
+    static final Duration MAX_RETRY_AFTER = Duration.ofSeconds(30);
+
+    private static final Set<Integer> RETRYABLE_STATUSES = Set.of(429, 500, 502, 503, 504);
+
+    private final int maxRetries;
+    private final Duration backoff;
+
+    /**
+     * Creates retry policy.
+     *
+     * @param maxRetries maximum number of retries of a request, 0 disables retries.
+     * @param backoff base delay before the first retry.
+     */
+    RetryPolicy(int maxRetries, @NotNull Duration backoff) {
+        this.maxRetries = maxRetries;
+        this.backoff = backoff;
+    }
+
+    /**
+     * Runs the request, retrying it while it fails with a retryable error.
+     * <br>
+     *
+     * Cancelling the returned future cancels the running attempt or the pending retry.
+     *
+     * @param attempt function that sends the request once.
+     * @param onRetry called before every retry is scheduled.
+     * @return future of the first successful attempt, or failed with the last failure.
+     */
+    <T> @NotNull CompletableFuture<T> execute(@NotNull Supplier<CompletableFuture<T>> attempt, @NotNull Runnable onRetry) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<?>> current = new AtomicReference<>(CompletableFuture.completedFuture(null));
+        run(attempt, onRetry, 0, result, current);
+        result.whenComplete((_, _) -> {
+            if (result.isCancelled())
+                current.get().cancel(true);
+        });
+        return result;
+    }
+
+    /**
+     * Runs a single attempt and schedules the next one if it fails.
+     *
+     * @param attempt function that sends the request once.
+     * @param onRetry called before every retry is scheduled.
+     * @param retry number of retries made before this attempt.
+     * @param result future of the whole request.
+     * @param current attempt or pending retry running at the moment.
+     */
+    private <T> void run(@NotNull Supplier<CompletableFuture<T>> attempt, @NotNull Runnable onRetry, int retry,
+                         @NotNull CompletableFuture<T> result, @NotNull AtomicReference<CompletableFuture<?>> current) {
+        if (result.isDone())
+            return;
+        CompletableFuture<T> future = Futures.start(attempt);
+        current.set(future);
+        if (result.isCancelled())
+            future.cancel(true);
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+            Duration delay = result.isDone() ? null : retryDelay(retry, error);
+            if (delay == null) {
+                result.completeExceptionally(Futures.unwrap(error));
+                return;
+            }
+            onRetry.run();
+            // Published before it's scheduled, so it never replaces the attempt it starts
+            CompletableFuture<Void> pending = new CompletableFuture<>();
+            current.set(pending);
+            CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+                if (pending.complete(null))
+                    run(attempt, onRetry, retry + 1, result, current);
+            });
+            if (result.isCancelled())
+                pending.cancel(true);
+        });
+    }
+
+    /**
+     * Returns delay before the next retry.
+     *
+     * @param retry number of retries already made.
+     * @param failure failure of the last attempt.
+     * @return delay or null if the request shouldn't be retried.
+     */
+    @Nullable Duration retryDelay(int retry, @NotNull Throwable failure) {
+        if (retry >= maxRetries || !isRetryable(failure))
+            return null;
+        Duration retryAfter = Futures.unwrap(failure) instanceof ICD11StatusException status ? status.getRetryAfter() : null;
+        if (retryAfter != null)
+            return retryAfter.compareTo(MAX_RETRY_AFTER) <= 0 ? retryAfter : null;
+        long cap = Math.min(MAX_BACKOFF.toNanos(), backoff.toNanos() << Math.min(retry, 30));
+        return Duration.ofNanos(cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1));
+    }
+
+    /**
+     * Returns whether a request failed this way may succeed if sent again.
+     *
+     * @param failure failure of the request.
+     * @return true for I/O errors (including timeouts) and 429 or 5xx gateway responses.
+     */
+    static boolean isRetryable(@NotNull Throwable failure) {
+        Throwable cause = Futures.unwrap(failure);
+        if (cause instanceof ICD11StatusException status)
+            return RETRYABLE_STATUSES.contains(status.getStatus());
+        for (; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Parses {@code Retry-After} header.
+     *
+     * @param value value of the header: delay in seconds or HTTP date.
+     * @return delay, zero if the date has passed, or null if value can't be parsed.
+     */
+    static @Nullable Duration parseRetryAfter(@NotNull String value) {
+        String trimmed = value.strip();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(trimmed)));
+        } catch (NumberFormatException _) {
+            // Not a number of seconds, maybe a date
+        }
+        try {
+            Duration delay = Duration.between(ZonedDateTime.now(), ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME));
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException _) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.systems;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent calls with the same key: while a call is in flight, callers
+ * with its key get its result or error instead of starting another one.
+ * <br>
+ *
+ * Every caller gets its own future. Cancelling it detaches only this caller; the shared
+ * call is cancelled when all of its callers have cancelled. A call is forgotten as soon as
+ * it completes, so results are not remembered (that's what the response cache is for).
+ *
+ * @param <K> type of the keys.
+ * @param <V> type of the results.
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Call<V>> calls = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+    private final Runnable onCoalesced;
+
+    /**
+     * Creates deduplicator with no listener.
+     */
+    SingleFlight() {
+        this(() -> {});
+    }
+
+    /**
+     * Creates deduplicator that reports every joined call.
+     *
+     * @param onCoalesced listener called on the joining thread when a call is joined instead of being started.
+     */
+    SingleFlight(@NotNull Runnable onCoalesced) {
+        this.onCoalesced = onCoalesced;
+    }
+
+    /**
+     * Call in flight with the number of callers still waiting for it.
+     */
+    private static final class Call<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger(1);
+
+        /**
+         * Adds a caller unless all previous ones have cancelled.
+         *
+         * @return false if the call is being cancelled and can't be joined.
+         */
+        private boolean join() {
+            int current;
+            do {
+                current = waiters.get();
+                if (current == 0)
+                    return false;
+            } while (!waiters.compareAndSet(current, current + 1));
+            return true;
+        }
+    }
+
+    /**
+     * Joins the call in flight with the same key or starts a new one.
+     *
+     * @param key key of the call.
+     * @param call function that starts the call. Called on the current thread, only if
+     *             there's no call with this key in flight.
+     * @return future of the result for this caller.
+     */
+    @NotNull CompletableFuture<V> execute(@NotNull K key, @NotNull Supplier<CompletableFuture<V>> call) {
+        while (true) {
+            Call<V> current = calls.get(key);
+            if (current != null) {
+                // Callers of a completed call may be woken up before it's removed
+                if (!current.result.isDone() && current.join()) {
+                    coalesced.increment();
+                    onCoalesced.run();
+                    return subscribe(current);
+                }
+                // Call is completed or being cancelled by its callers, it'll be removed shortly
+                calls.remove(key, current);
+                continue;
+            }
+
+            Call<V> started = new Call<>();
+            if (calls.putIfAbsent(key, started) != null)
+                continue;
+            started.result.whenComplete((_, _) -> calls.remove(key, started));
+            CompletableFuture<V> source = Futures.start(call);
+            started.result.whenComplete((_, _) -> {
+                if (started.result.isCancelled())
+                    source.cancel(true);
+            });
+            source.whenComplete((value, failure) -> {
+                if (failure != null)
+                    started.result.completeExceptionally(failure);
+                else
+                    started.result.complete(value);
+            });
+            return subscribe(started);
+        }
+    }
+
+    /**
+     * Returns number of calls that were joined instead of being started again.
+     *
+     * @return number of coalesced calls since creation.
+     */
+    long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Creates future of the call for a single caller.
+     *
+     * @param call call the caller has joined.
+     * @return future that is cancelled independently of other callers.
+     */
+    private @NotNull CompletableFuture<V> subscribe(@NotNull Call<V> call) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        call.result.whenComplete((value, failure) -> {
+            if (failure != null)
+                own.completeExceptionally(failure);
+            else
+                own.complete(value);
+        });
+        own.whenComplete((_, _) -> {
+            if (own.isCancelled() && call.waiters.decrementAndGet() == 0)
+                call.result.cancel(true);
+        });
+        return own;
+    }
+}
@@ -0,0 +1,412 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.*;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.jetbrains.annotations.NotNull;
+
+import java.text.BreakIterator;
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * In-process full-text index over titles of ICD 11 entities.
+ * <br>
+ *
+ * Titles in every language are split into words with a locale-aware {@link BreakIterator},
+ * lowercased and stripped of diacritics. Chinese, Japanese and Korean text is indexed as
+ * overlapping character pairs, as it has no spaces between words. ICD 11 codes are indexed
+ * as words too. Results are ranked with BM25 and only the best ones are collected.
+ * <br>
+ *
+ * Index is immutable and can be shared between threads. It can be used instead of
+ * the remote search endpoint (see {@link ICD11DiagnosesSystem#setSearchIndex(TitleSearchIndex)}).
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ * @see ICD11SnapshotDiagnosesSystem#getSearchIndex()
+ */
+public final class TitleSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final String[] entityIDs;
+    private final String[] codes;
+    private final EntityType[] types;
+    private final Map<ICDLanguage, LanguageIndex> languages = new EnumMap<>(ICDLanguage.class);
+
+    /**
+     * Index of titles in a single language.
+     *
+     * @param locale locale used for tokenization.
+     * @param titles titles by document, null if document has no title in this language.
+     * @param lengths number of terms by document.
+     * @param averageLength average number of terms of documents with titles.
+     * @param documentCount number of documents with titles.
+     * @param postings postings by term.
+     */
+    private record LanguageIndex(@NotNull Locale locale, @NotNull String[] titles, int @NotNull [] lengths,
+                                 double averageLength, int documentCount, @NotNull Map<String, Postings> postings) {}
+
+    /**
+     * Documents containing a term, in increasing order, with the term frequencies.
+     */
+    private static final class Postings {
+        private int[] documents = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        /**
+         * Adds document to the postings.
+         */
+        private void add(int document, int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            documents[size] = document;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        /**
+         * Releases unused capacity once the index is built.
+         */
+        private void trim() {
+            documents = Arrays.copyOf(documents, size);
+            frequencies = Arrays.copyOf(frequencies, size);
+        }
+    }
+
+    /**
+     * Builds index from the given entries.
+     */
+    private TitleSearchIndex(@NotNull List<ICD11SnapshotEntry> entries) {
+        int size = entries.size();
+        entityIDs = new String[size];
+        codes = new String[size];
+        types = new EntityType[size];
+        EnumSet<ICDLanguage> present = EnumSet.noneOf(ICDLanguage.class);
+        for (int i = 0; i < size; i++) {
+            ICD11SnapshotEntry entry = entries.get(i);
+            entityIDs[i] = entry.entityID();
+            codes[i] = entry.code();
+            types[i] = entry.type();
+            present.addAll(entry.titles().keySet());
+        }
+        for (ICDLanguage language : present)
+            languages.put(language, buildLanguage(entries, language));
+    }
+
+    /**
+     * Builds index of the titles of the given entries in all their languages.
+     *
+     * @param entries entries to index, e.g. from {@link ICD11Crawler#readDump(java.nio.file.Path)}.
+     *                Root entry and entries without titles are never found.
+     * @return new index.
+     */
+    public static @NotNull TitleSearchIndex of(@NotNull Collection<ICD11SnapshotEntry> entries) {
+        return new TitleSearchIndex(List.copyOf(entries));
+    }
+
+    /**
+     * Returns languages titles are indexed in.
+     *
+     * @return set of languages.
+     */
+    public @NotNull EnumSet<ICDLanguage> getLanguages() {
+        return languages.isEmpty() ? EnumSet.noneOf(ICDLanguage.class) : EnumSet.copyOf(languages.keySet());
+    }
+
+    /**
+     * Checks whether titles in the given language are indexed.
+     *
+     * @param language language to check.
+     * @return true if search in this language is supported.
+     */
+    public boolean supports(@NotNull ICDLanguage language) {
+        return languages.containsKey(language);
+    }
+
+    /**
+     * Returns one page of hits for the query in the given language.
+     * <br>
+     *
+     * Entities of the hits are created right away from the index, without requests;
+     * the system is used only to translate them later.
+     *
+     * @param query query to search.
+     * @param language language of the query and titles.
+     * @param page number of the page, starting from 0.
+     * @param limit maximum number of hits on the page.
+     * @param system system the found entities will belong to.
+     * @return hits with at least one of the query words on the given page, best first.
+     * @throws UnsupportedOperationException if titles in the language are not indexed.
+     * @throws IllegalArgumentException if page is negative or limit isn't positive.
+     */
+    public @NotNull List<SearchHit> search(@NotNull String query, @NotNull ICDLanguage language, int page, int limit,
+                                           @NotNull DiagnosesSystem system) {
+        if (page < 0 || limit <= 0)
+            throw new IllegalArgumentException("Invalid page " + page + " with limit " + limit);
+        LanguageIndex index = languages.get(language);
+        if (index == null)
+            throw new UnsupportedOperationException("Titles in " + language + " are not indexed");
+
+        List<Postings> matched = new ArrayList<>();
+        int postingCount = 0;
+        for (String term : new LinkedHashSet<>(tokenize(query, index.locale()))) {
+            Postings postings = index.postings().get(term);
+            if (postings != null) {
+                matched.add(postings);
+                postingCount += postings.size;
+            }
+        }
+
+        // Sized by the matched postings rather than the whole index, so a query allocates little
+        Scores scores = new Scores(postingCount);
+        for (Postings postings : matched) {
+            double idf = Math.log(1 + (index.documentCount() - postings.size + 0.5) / (postings.size + 0.5));
+            for (int i = 0; i < postings.size; i++) {
+                int document = postings.documents[i];
+                int frequency = postings.frequencies[i];
+                double norm = K1 * (1 - B + B * index.lengths()[document] / index.averageLength());
+                scores.add(document, idf * frequency * (K1 + 1) / (frequency + norm));
+            }
+        }
+
+        long from = (long) page * limit;
+        int[] best = topDocuments(scores, (int) Math.min(from + limit, scores.count));
+        List<SearchHit> hits = new ArrayList<>();
+        for (long i = from; i < best.length; i++) {
+            int slot = best[(int) i];
+            int document = scores.documents[slot];
+            String title = index.titles()[document];
+            hits.add(new SearchHit(entityIDs[document], codes[document], title, scores.scores[slot], language,
+                    () -> types[document].create(system, entityIDs[document], codes[document], title, language)));
+        }
+        return hits;
+    }
+
+    /**
+     * Splits text into normalized terms.
+     * <br>
+     *
+     * Words are lowercased in the given locale and stripped of diacritics. Runs of Chinese,
+     * Japanese and Korean characters are split into overlapping pairs of characters.
+     *
+     * @param text text to split.
+     * @param locale locale of the text.
+     * @return terms in order of their appearance.
+     */
+    static @NotNull List<String> tokenize(@NotNull String text, @NotNull Locale locale) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(locale);
+        List<String> terms = new ArrayList<>();
+        StringBuilder ideographs = new StringBuilder();
+        BreakIterator words = BreakIterator.getWordInstance(locale);
+        words.setText(normalized);
+        for (int start = words.first(), end = words.next(); end != BreakIterator.DONE; start = end, end = words.next()) {
+            String word = normalized.substring(start, end);
+            if (word.codePoints().allMatch(TitleSearchIndex::isIdeographic)) {
+                ideographs.append(word);
+                continue;
+            }
+            addIdeographs(terms, ideographs);
+            if (word.codePoints().anyMatch(Character::isLetterOrDigit))
+                terms.add(word);
+        }
+        addIdeographs(terms, ideographs);
+        return terms;
+    }
+
+    /**
+     * Adds overlapping pairs of characters of the run as terms and clears it.
+     */
+    private static void addIdeographs(List<String> terms, StringBuilder run) {
+        int[] codePoints = run.codePoints().toArray();
+        if (codePoints.length == 1)
+            terms.add(run.toString());
+        for (int i = 0; i + 1 < codePoints.length; i++)
+            terms.add(new String(codePoints, i, 2));
+        run.setLength(0);
+    }
+
+    /**
+     * Checks whether character belongs to a script written without spaces between words.
+     */
+    private static boolean isIdeographic(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL;
+    }
+
+    /**
+     * Builds index of titles in a single language.
+     */
+    private static @NotNull LanguageIndex buildLanguage(@NotNull List<ICD11SnapshotEntry> entries,
+                                                        @NotNull ICDLanguage language) {
+        Locale locale = Locale.forLanguageTag(language.getCode());
+        String[] titles = new String[entries.size()];
+        int[] lengths = new int[entries.size()];
+        Map<String, Postings> postings = new HashMap<>();
+        long totalLength = 0;
+        int documentCount = 0;
+        for (int document = 0; document < entries.size(); document++) {
+            ICD11SnapshotEntry entry = entries.get(document);
+            String title = entry.titles().get(language);
+            if (title == null)
+                continue;
+            titles[document] = title;
+            List<String> terms = tokenize(title, locale);
+            if (entry.code() != null)
+                terms.add(entry.code().toLowerCase(Locale.ROOT));
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String term : terms)
+                frequencies.merge(term, 1, Integer::sum);
+            for (Map.Entry<String, Integer> term : frequencies.entrySet())
+                postings.computeIfAbsent(term.getKey(), _ -> new Postings()).add(document, term.getValue());
+            lengths[document] = terms.size();
+            totalLength += terms.size();
+            documentCount++;
+        }
+        postings.values().forEach(Postings::trim);
+        double averageLength = documentCount == 0 ? 1 : Math.max(1, (double) totalLength / documentCount);
+        return new LanguageIndex(locale, titles, lengths, averageLength, documentCount, postings);
+    }
+
+    /**
+     * Scores of the documents touched by a query, kept in an open-addressing table.
+     */
+    private static final class Scores {
+        private final int[] table;
+        private final int[] documents;
+        private final double[] scores;
+        private int count;
+
+        /**
+         * Creates empty scores for at most the given number of documents.
+         */
+        private Scores(int capacity) {
+            table = new int[Math.max(4, Integer.highestOneBit(Math.max(1, capacity)) << 2)];
+            documents = new int[capacity];
+            scores = new double[capacity];
+        }
+
+        /**
+         * Adds to the score of the document.
+         */
+        private void add(int document, double score) {
+            int mask = table.length - 1;
+            int hash = document * 0x9E3779B9;
+            int position = (hash ^ hash >>> 16) & mask;
+            while (true) {
+                int slot = table[position] - 1;
+                if (slot < 0) {
+                    table[position] = count + 1;
+                    documents[count] = document;
+                    scores[count++] = score;
+                    return;
+                }
+                if (documents[slot] == document) {
+                    scores[slot] += score;
+                    return;
+                }
+                position = (position + 1) & mask;
+            }
+        }
+    }
+
+    /**
+     * Selects documents with the highest scores using a bounded min-heap.
+     *
+     * @param scores scores of the touched documents.
+     * @param limit maximum number of documents to select.
+     * @return slots of the selected documents in the scores, best first. Ties are broken by document order.
+     */
+    private static int @NotNull [] topDocuments(Scores scores, int limit) {
+        int[] heap = new int[Math.min(limit, scores.count)];
+        int size = 0;
+        for (int slot = 0; slot < scores.count; slot++) {
+            if (size < heap.length) {
+                heap[size] = slot;
+                siftUp(heap, size++, scores);
+            } else if (better(slot, heap[0], scores)) {
+                heap[0] = slot;
+                siftDown(heap, size, scores);
+            }
+        }
+        int[] sorted = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            sorted[i] = heap[0];
+            heap[0] = heap[i];
+            siftDown(heap, i, scores);
+        }
+        return sorted;
+    }
+
+    /**
+     * Checks whether the document in the first slot ranks higher than the one in the second slot.
+     */
+    private static boolean better(int first, int second, Scores scores) {
+        return scores.scores[first] > scores.scores[second]
+                || (scores.scores[first] == scores.scores[second] && scores.documents[first] < scores.documents[second]);
+    }
+
+    /**
+     * Moves element up the min-heap (the worst document is at the top).
+     */
+    private static void siftUp(int[] heap, int index, Scores scores) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!better(heap[parent], heap[index], scores))
+                break;
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    /**
+     * Moves the top element down the min-heap.
+     */
+    private static void siftDown(int[] heap, int size, Scores scores) {
+        int index = 0;
+        while (true) {
+            int worst = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && better(heap[worst], heap[left], scores))
+                worst = left;
+            if (right < size && better(heap[worst], heap[right], scores))
+                worst = right;
+            if (worst == index)
+                return;
+            swap(heap, index, worst);
+            index = worst;
+        }
+    }
+
+    /**
+     * Swaps two elements of the array.
+     */
+    private static void swap(int[] array, int first, int second) {
+        int temporary = array[first];
+        array[first] = array[second];
+        array[second] = temporary;
+    }
+}
@@ -0,0 +1,370 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Thread-safe in-memory cache limited by total weight of its entries, whose entries expire
+ * after a given time.
+ * <br>
+ *
+ * Reads don't take locks. Eviction is frequency-aware: new entries are put to a small
+ * probation queue and only those that were read while in it are moved to the main queue,
+ * so a flood of one-time entries doesn't push out frequently used ones. Entries of the main
+ * queue are evicted in CLOCK order with access counters, i.e. each read gives an entry
+ * another pass through the queue.
+ *
+ * @param <K> type of keys.
+ * @param <V> type of values.
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+public final class BoundedCache<K, V> {
+
+    private static final int MAX_FREQUENCY = 3;
+    private static final int QUEUE_SLACK = 64;
+    private static final int PROBATION_RATIO = 10;
+
+    private final ConcurrentHashMap<K, Node<K, V>> map = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Node<K, V>> probation = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Node<K, V>> main = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong weight = new AtomicLong();
+    private final AtomicLong probationWeight = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final long maximumWeight;
+    private final long timeToLiveNanos;
+    private final ToLongFunction<? super V> weigher;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates new cache limited by number of entries.
+     *
+     * @param maximumSize maximum number of entries.
+     * @param timeToLive time after which entry expires.
+     */
+    public BoundedCache(long maximumSize, @NotNull Duration timeToLive) {
+        this(maximumSize, timeToLive, (var _) -> 1);
+    }
+
+    /**
+     * Creates new cache limited by total weight of entries.
+     *
+     * @param maximumWeight maximum total weight of entries.
+     * @param timeToLive time after which entry expires.
+     * @param weigher function that returns non-negative weight of a value.
+     * @throws IllegalArgumentException if maximum weight is negative or time to live isn't positive.
+     */
+    public BoundedCache(long maximumWeight, @NotNull Duration timeToLive, @NotNull ToLongFunction<? super V> weigher) {
+        if (maximumWeight < 0 || timeToLive.isNegative() || timeToLive.isZero())
+            throw new IllegalArgumentException("Invalid cache bounds: " + maximumWeight + ", " + timeToLive);
+        this.maximumWeight = maximumWeight;
+        this.timeToLiveNanos = saturatedNanos(timeToLive);
+        this.weigher = weigher;
+    }
+
+    /**
+     * Returns value stored for the key.
+     *
+     * @param key key to search for.
+     * @return value or null if there's no value or it has expired.
+     */
+    public @Nullable V get(@NotNull K key) {
+        Node<K, V> node = map.get(key);
+        if (node == null || node.isExpired(System.nanoTime())) {
+            if (node != null)
+                removeNode(node);
+            misses.increment();
+            return null;
+        }
+        node.touch();
+        hits.increment();
+        return node.value;
+    }
+
+    /**
+     * Returns value stored for the key, or loads, stores and returns a new one.
+     * <br>
+     *
+     * Loader isn't synchronized: several threads missing the same key at once may
+     * all call it, and the last result is kept.
+     *
+     * @param key key to search for.
+     * @param loader function to get value if it is not in the cache.
+     * @return cached or loaded value.
+     */
+    public @NotNull V get(@NotNull K key, @NotNull Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value == null) {
+            value = Objects.requireNonNull(loader.apply(key));
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Stores value with default time to live.
+     *
+     * @param key key of the value.
+     * @param value value to store.
+     */
+    public void put(@NotNull K key, @NotNull V value) {
+        put(key, value, timeToLiveNanos);
+    }
+
+    /**
+     * Stores value with the given time to live, e.g. a shorter one for negative results.
+     *
+     * @param key key of the value.
+     * @param value value to store.
+     * @param timeToLive time after which entry expires.
+     */
+    public void put(@NotNull K key, @NotNull V value, @NotNull Duration timeToLive) {
+        put(key, value, saturatedNanos(timeToLive));
+    }
+
+    /**
+     * Removes value for the key.
+     *
+     * @param key key to remove.
+     */
+    public void invalidate(@NotNull K key) {
+        Node<K, V> node = map.get(key);
+        if (node != null)
+            removeNode(node);
+    }
+
+    /**
+     * Removes all values. Statistics are kept.
+     */
+    public void invalidateAll() {
+        for (Node<K, V> node : map.values())
+            removeNode(node);
+    }
+
+    /**
+     * Returns number of stored entries, including expired ones that weren't removed yet.
+     *
+     * @return number of entries.
+     */
+    public long size() {
+        return map.size();
+    }
+
+    /**
+     * Returns snapshot of cache statistics.
+     *
+     * @return statistics collected since the cache was created.
+     */
+    public @NotNull Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), map.size(), weight.get());
+    }
+
+    /**
+     * Stores a new node and evicts entries if the cache is too large.
+     */
+    private void put(K key, V value, long timeToLive) {
+        long nodeWeight = weigher.applyAsLong(value);
+        if (nodeWeight > maximumWeight) {
+            invalidate(key);
+            return;
+        }
+        var node = new Node<>(key, value, nodeWeight, saturatedAdd(System.nanoTime(), timeToLive));
+        weight.addAndGet(nodeWeight);
+        Node<K, V> old = map.put(key, node);
+        if (old != null && !old.removed) {
+            old.removed = true;
+            weight.addAndGet(-old.weight);
+        }
+        probationWeight.addAndGet(nodeWeight);
+        probation.offer(node);
+        queued.incrementAndGet();
+        maintain();
+    }
+
+    /**
+     * Removes node from the map if it is still the current one for its key.
+     *
+     * @return true if node was removed by this call.
+     */
+    private boolean removeNode(Node<K, V> node) {
+        if (map.remove(node.key, node)) {
+            node.removed = true;
+            weight.addAndGet(-node.weight);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Evicts entries while the cache is over its weight and drops removed entries from
+     * the queues when they start to dominate them. Only one thread does it at a time;
+     * others don't wait for it.
+     */
+    private void maintain() {
+        boolean compact = queued.get() > 2L * map.size() + QUEUE_SLACK;
+        if (weight.get() <= maximumWeight && !compact)
+            return;
+        if (!evictionLock.tryLock())
+            return;
+        try {
+            long now = System.nanoTime();
+            if (compact) {
+                compact(probation, now, true);
+                compact(main, now, false);
+            }
+            while (weight.get() > maximumWeight) {
+                boolean fromProbation = probationWeight.get() > maximumWeight / PROBATION_RATIO || main.isEmpty();
+                Node<K, V> node = fromProbation ? pollProbation() : main.poll();
+                if (node == null)
+                    node = fromProbation ? main.poll() : pollProbation();
+                if (node == null)
+                    break;
+                queued.decrementAndGet();
+
+                if (node.removed)
+                    continue;
+                if (node.isExpired(now)) {
+                    removeNode(node);
+                } else if (node.frequency > 0) {
+                    // read on probation: promote, read in main queue: give another pass
+                    node.frequency = node.inMain ? node.frequency - 1 : 0;
+                    node.inMain = true;
+                    main.offer(node);
+                    queued.incrementAndGet();
+                } else if (removeNode(node)) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Takes node from the head of the probation queue.
+     */
+    private Node<K, V> pollProbation() {
+        Node<K, V> node = probation.poll();
+        if (node != null)
+            probationWeight.addAndGet(-node.weight);
+        return node;
+    }
+
+    /**
+     * Drops removed and expired nodes from the queue, keeping the order of the rest.
+     */
+    private void compact(ConcurrentLinkedQueue<Node<K, V>> queue, long now, boolean isProbation) {
+        queue.removeIf(node -> {
+            if (!node.removed && !node.isExpired(now))
+                return false;
+            removeNode(node);
+            queued.decrementAndGet();
+            if (isProbation)
+                probationWeight.addAndGet(-node.weight);
+            return true;
+        });
+    }
+
+    /**
+     * Converts duration to nanoseconds, returning {@link Long#MAX_VALUE} on overflow.
+     */
+    private static long saturatedNanos(Duration duration) {
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Adds two numbers, returning {@link Long#MAX_VALUE} on overflow.
+     */
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return ((a ^ sum) & (b ^ sum)) < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    /**
+     * Cache entry with its access counter.
+     */
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final long weight;
+        final long expiresAt;
+        volatile int frequency;
+        volatile boolean removed;
+        boolean inMain;
+
+        Node(K key, V value, long weight, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0 && expiresAt != Long.MAX_VALUE;
+        }
+
+        void touch() {
+            // racy increment is fine: the counter is only a hint for eviction
+            int current = frequency;
+            if (current < MAX_FREQUENCY)
+                frequency = current + 1;
+        }
+    }
+
+    /**
+     * Statistics of the cache.
+     *
+     * @param hitCount number of reads that found a value.
+     * @param missCount number of reads that didn't find a value.
+     * @param evictionCount number of entries evicted because of the size limit.
+     * @param size number of entries at the moment of the snapshot.
+     * @param weight total weight of entries at the moment of the snapshot.
+     */
+    public record Stats(long hitCount, long missCount, long evictionCount, long size, long weight) {
+
+        /**
+         * Returns ratio of reads that found a value.
+         *
+         * @return hit rate from 0 to 1, or 0 if there were no reads.
+         */
+        public double hitRate() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 0 : (double) hitCount / requests;
+        }
+    }
+}
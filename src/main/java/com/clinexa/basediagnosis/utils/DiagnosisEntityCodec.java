@@ -0,0 +1,287 @@
+/*
+ * This file is part of Clinexa DiagnosisBase.
+ *
+ * Clinexa DiagnosisBase is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Clinexa DiagnosisBase is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU Lesser General Public License and GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License and GNU General Public
+ * License along with Clinexa DiagnosisBase. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.clinexa.basediagnosis.utils;
+
+import com.clinexa.basediagnosis.*;
+import com.clinexa.basediagnosis.implementations.TitledImplementation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compact binary format for large collections of {@link Diagnosis} and {@link Symptom} objects.
+ * <br>
+ *
+ * Unlike Java serialization, every record is just a type tag and three strings
+ * (ICD 11 code, title and its language). Every distinct string is written once; repeated
+ * ones are written as a reference to the first occurrence and share a single instance
+ * when read. Entities are written and read one by one, so the whole collection doesn't
+ * have to be kept in memory. Nothing is requested from diagnoses system while reading.
+ *
+ * @since 0.1-dev.2
+ * @author Nikita S.
+ */
+public final class DiagnosisEntityCodec {
+
+    private static final int MAGIC = 0x49434445;  // "ICDE"
+    private static final int VERSION = 1;
+
+    private static final int END = 0;
+    private static final int DIAGNOSIS = 1;
+    private static final int SYMPTOM = 2;
+
+    /**
+     * Maximal length of a single string in bytes. Codes and titles are far shorter,
+     * so longer length read from a stream means that the stream is corrupted.
+     */
+    static final int MAX_STRING_LENGTH = 1 << 16;
+
+    private DiagnosisEntityCodec() {}
+
+    /**
+     * Writes entities to the stream. The stream is not closed.
+     *
+     * @param out stream to write to.
+     * @param entities {@link Diagnosis} and {@link Symptom} objects to write.
+     * @throws IOException if stream can't be written.
+     * @throws IllegalArgumentException if some entity is neither {@link Diagnosis} nor {@link Symptom}.
+     */
+    public static void write(@NotNull OutputStream out, @NotNull Iterable<? extends DiagnosisEntity> entities) throws IOException {
+        Writer writer = new Writer(out);
+        for (DiagnosisEntity entity : entities)
+            writer.write(entity);
+        writer.finish();
+    }
+
+    /**
+     * Reads all entities from the stream. The stream is not closed.
+     *
+     * @param in stream to read from.
+     * @param system system to be used for translations of the read entities.
+     * @return list of read {@link Diagnosis} and {@link Symptom} objects.
+     * @throws IOException if stream can't be read or doesn't contain entities written by this codec.
+     */
+    public static @NotNull List<DiagnosisEntity> read(@NotNull InputStream in, @NotNull DiagnosesSystem system) throws IOException {
+        Reader reader = new Reader(in, system);
+        List<DiagnosisEntity> entities = new ArrayList<>();
+        for (DiagnosisEntity entity = reader.read(); entity != null; entity = reader.read())
+            entities.add(entity);
+        return entities;
+    }
+
+    /**
+     * Writes entities one by one.
+     */
+    public static final class Writer {
+
+        private final DataOutputStream out;
+        private final Map<String, Integer> strings = new HashMap<>();
+        private boolean finished;
+
+        /**
+         * Creates writer and writes header of the format.
+         *
+         * @param out stream to write to. Buffered stream should be given for performance.
+         * @throws IOException if stream can't be written.
+         */
+        public Writer(@NotNull OutputStream out) throws IOException {
+            this.out = new DataOutputStream(out);
+            this.out.writeInt(MAGIC);
+            this.out.writeByte(VERSION);
+        }
+
+        /**
+         * Writes a single entity.
+         *
+         * @param entity {@link Diagnosis} or {@link Symptom} object to write.
+         * @throws IOException if stream can't be written.
+         * @throws IllegalArgumentException if entity is neither {@link Diagnosis} nor {@link Symptom}, or if its
+         *                                  code or title is longer than 64 KiB in UTF-8.
+         *                                  Nothing is written in this case, so the writer can still be used.
+         * @throws IllegalStateException if writer was already finished.
+         */
+        public void write(@NotNull DiagnosisEntity entity) throws IOException {
+            if (finished)
+                throw new IllegalStateException("Writer is already finished");
+            int type = switch (entity) {
+                case Diagnosis _ -> DIAGNOSIS;
+                case Symptom _ -> SYMPTOM;
+                default -> throw new IllegalArgumentException("Unsupported entity: " + entity.getClass().getName());
+            };
+            ICDLanguage language = ((TitledImplementation) entity).getLanguage();
+            if (language == null)
+                language = ICDLanguage.ENGLISH;
+            String code = entity.getICD11Code();
+            String title = entity.getTitle(language);
+            checkLength(code);
+            checkLength(title);
+            checkLength(language.getCode());
+            out.writeByte(type);
+            writeString(code);
+            writeString(title);
+            writeString(language.getCode());
+        }
+
+        /**
+         * Writes end of the entities and flushes the stream. The stream is not closed.
+         *
+         * @throws IOException if stream can't be written.
+         */
+        public void finish() throws IOException {
+            if (!finished) {
+                out.writeByte(END);
+                finished = true;
+            }
+            out.flush();
+        }
+
+        /**
+         * Writes reference to already written string or the string itself.
+         */
+        private void writeString(String string) throws IOException {
+            Integer index = strings.get(string);
+            if (index != null) {
+                writeVarInt(out, index + 1);
+                return;
+            }
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, 0);
+            writeVarInt(out, bytes.length);
+            out.write(bytes);
+            strings.put(string, strings.size());
+        }
+
+        /**
+         * Checks that string fits into {@link #MAX_STRING_LENGTH} bytes in UTF-8.
+         */
+        private void checkLength(String string) {
+            if (strings.containsKey(string))
+                return;
+            int length = string.getBytes(StandardCharsets.UTF_8).length;
+            if (length > MAX_STRING_LENGTH)
+                throw new IllegalArgumentException("String is too long: " + length + " bytes");
+        }
+    }
+
+    /**
+     * Reads entities one by one.
+     */
+    public static final class Reader {
+
+        private final DataInputStream in;
+        private final DiagnosesSystem system;
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, ICDLanguage> languages = new HashMap<>();
+        private boolean finished;
+
+        /**
+         * Creates reader and checks header of the format.
+         *
+         * @param in stream to read from. Buffered stream should be given for performance.
+         * @param system system to be used for translations of the read entities.
+         * @throws IOException if stream can't be read or doesn't contain entities written by this codec.
+         */
+        public Reader(@NotNull InputStream in, @NotNull DiagnosesSystem system) throws IOException {
+            this.in = new DataInputStream(in);
+            this.system = system;
+            if (this.in.readInt() != MAGIC)
+                throw new StreamCorruptedException("Stream doesn't contain diagnosis entities");
+            int version = this.in.readUnsignedByte();
+            if (version != VERSION)
+                throw new StreamCorruptedException("Unsupported version of diagnosis entities: " + version);
+            for (ICDLanguage language : ICDLanguage.values())
+                languages.put(language.getCode(), language);
+        }
+
+        /**
+         * Reads the next entity.
+         *
+         * @return {@link Diagnosis} or {@link Symptom} object, or null if there are no more entities.
+         * @throws IOException if stream can't be read or is corrupted.
+         */
+        public @Nullable DiagnosisEntity read() throws IOException {
+            if (finished)
+                return null;
+            int type = in.readUnsignedByte();
+            if (type == END) {
+                finished = true;
+                return null;
+            }
+            String code = readString();
+            String title = readString();
+            String languageCode = readString();
+            ICDLanguage language = languages.get(languageCode);
+            if (language == null)
+                throw new StreamCorruptedException("Unknown language: " + languageCode);
+            return switch (type) {
+                case DIAGNOSIS -> new Diagnosis(system, language, code, title);
+                case SYMPTOM -> new Symptom(system, language, code, title);
+                default -> throw new StreamCorruptedException("Unknown entity type: " + type);
+            };
+        }
+
+        /**
+         * Reads string or reference to already read one.
+         */
+        private String readString() throws IOException {
+            int reference = readVarInt(in);
+            if (reference > 0) {
+                if (reference > strings.size())
+                    throw new StreamCorruptedException("Reference to unknown string: " + reference);
+                return strings.get(reference - 1);
+            }
+            int length = readVarInt(in);
+            if (length > MAX_STRING_LENGTH)
+                throw new StreamCorruptedException("String is too long: " + length + " bytes");
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            String string = new String(bytes, StandardCharsets.UTF_8);
+            strings.add(string);
+            return string;
+        }
+    }
+
+    /**
+     * Writes non-negative int using 7 bits per byte.
+     */
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Reads int written by {@link #writeVarInt(DataOutputStream, int)}.
+     */
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0)
+                    throw new StreamCorruptedException("Negative length or reference");
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Malformed variable-length int");
+    }
+}
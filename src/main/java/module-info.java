@@ -5,12 +5,16 @@
  * @author Nikita S.
  */
 module DiagnosisBase {
+    requires java.management;
     requires java.net.http;
+    requires jdk.jfr;
     requires org.json;
     requires org.jetbrains.annotations;
 
     exports com.clinexa.basediagnosis;
+    exports com.clinexa.basediagnosis.events;
     exports com.clinexa.basediagnosis.exceptions;
+    exports com.clinexa.basediagnosis.metrics;
     exports com.clinexa.basediagnosis.systems;
     exports com.clinexa.basediagnosis.utils;
     exports com.clinexa.basediagnosis.services;
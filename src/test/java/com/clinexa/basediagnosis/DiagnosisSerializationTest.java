@@ -0,0 +1,27 @@
+package com.clinexa.basediagnosis;
+
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiagnosisSerializationTest {
+
+    @Test
+    void readsWithoutDiagnosesSystem() throws IOException, ClassNotFoundException {
+        var diagnosis = new Diagnosis(DiagnosesSystem.getDefaultDiagnosesSystem(), ICDLanguage.RUSSIAN, "1A00", "Холера");
+        var byteArrayOut = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(byteArrayOut)) {
+            out.writeObject(diagnosis);
+        }
+
+        // title and language come from the stream, nothing is requested from the system
+        var in = new ObjectInputStream(new ByteArrayInputStream(byteArrayOut.toByteArray()));
+        Diagnosis diagnosisFromStream = (Diagnosis) in.readObject();
+        assertEquals(diagnosis, diagnosisFromStream);
+        assertEquals("Холера", diagnosisFromStream.getTitle(ICDLanguage.RUSSIAN));
+        assertEquals(ICDLanguage.RUSSIAN, diagnosisFromStream.getLanguage());
+    }
+}
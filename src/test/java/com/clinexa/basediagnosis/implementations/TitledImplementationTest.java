@@ -0,0 +1,89 @@
+package com.clinexa.basediagnosis.implementations;
+
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TitledImplementationTest {
+
+    @Test
+    void translationIsRequestedOnce() {
+        AtomicInteger requests = new AtomicInteger();
+        var titled = new TitledImplementation("Cholera", ICDLanguage.ENGLISH, language -> {
+            requests.incrementAndGet();
+            return "Cholera (" + language.getCode() + ")";
+        });
+
+        assertEquals("Cholera (ru)", titled.getTitle(ICDLanguage.RUSSIAN));
+        assertEquals("Cholera (ru)", titled.getTitle(ICDLanguage.RUSSIAN));
+        assertEquals("Cholera", titled.getTitle(ICDLanguage.ENGLISH));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void concurrentCallersShareRequest() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        var titled = new TitledImplementation("Cholera", ICDLanguage.ENGLISH, language -> {
+            requests.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return "Холера";
+        });
+
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 8; i++)
+                results.add(executor.submit(() -> titled.getTitle(ICDLanguage.RUSSIAN)));
+            Thread.sleep(50);
+            release.countDown();
+            for (Future<String> result : results)
+                assertEquals("Холера", result.get());
+        }
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void failuresAreNotRemembered() {
+        AtomicInteger requests = new AtomicInteger();
+        var titled = new TitledImplementation("Cholera", ICDLanguage.ENGLISH, language -> {
+            if (requests.incrementAndGet() == 1)
+                throw new UnsupportedOperationException("Unavailable");
+            return "Choléra";
+        });
+
+        assertThrows(UnsupportedOperationException.class, () -> titled.getTitle(ICDLanguage.FRENCH));
+        assertEquals("Choléra", titled.getTitle(ICDLanguage.FRENCH));
+    }
+
+    @Test
+    void prefetchLoadsLanguagesConcurrently() {
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        AtomicInteger requests = new AtomicInteger();
+        var titled = new TitledImplementation("Cholera", ICDLanguage.ENGLISH, language -> {
+            requests.incrementAndGet();
+            try {
+                barrier.await(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException("Languages were not requested concurrently", e);
+            }
+            return language.getCode();
+        });
+
+        titled.prefetchTitles(EnumSet.of(ICDLanguage.ENGLISH, ICDLanguage.RUSSIAN, ICDLanguage.SPANISH));
+        assertEquals(2, requests.get());
+        assertEquals("ru", titled.getTitle(ICDLanguage.RUSSIAN));
+        assertEquals("es", titled.getTitle(ICDLanguage.SPANISH));
+        assertEquals(2, requests.get());
+    }
+}
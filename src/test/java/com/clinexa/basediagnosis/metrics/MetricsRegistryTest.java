@@ -0,0 +1,85 @@
+package com.clinexa.basediagnosis.metrics;
+
+import com.clinexa.basediagnosis.exceptions.DiagnosesSystemException;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+    @Test
+    void histogramEstimatesPercentiles() {
+        Histogram histogram = new MetricsRegistry().histogram("latency");
+        for (int value = 1; value <= 1000; value++)
+            histogram.record(value);
+
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.count());
+        assertEquals(500_500, snapshot.sum());
+        assertEquals(1000, snapshot.max());
+        assertEquals(500.5, snapshot.mean());
+        // Power-of-two buckets: 500 is counted in (256, 512]
+        assertEquals(512, snapshot.percentile(50));
+        assertEquals(1000, snapshot.percentile(99));
+        assertEquals(1, snapshot.percentile(0));
+        assertThrows(IllegalArgumentException.class, () -> snapshot.percentile(101));
+        assertEquals(0, new MetricsRegistry().histogram("empty").snapshot().percentile(50));
+    }
+
+    @Test
+    void countsFromManyThreads() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int thread = 0; thread < 8; thread++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        registry.counter("requests").increment();
+                        registry.gauge("in_flight").increment();
+                        registry.histogram("sizes").record(i);
+                        registry.gauge("in_flight").decrement();
+                    }
+                });
+            }
+        }
+
+        MetricsSnapshot snapshot = registry.snapshot();
+        assertEquals(80_000, snapshot.counter("requests"));
+        assertEquals(0, snapshot.gauge("in_flight"));
+        assertEquals(80_000, snapshot.histogram("sizes").count());
+        assertEquals(80_000, Arrays.stream(snapshot.histogram("sizes").bucketCounts()).sum());
+        assertEquals(0, snapshot.counter("unknown"));
+        assertEquals(0, snapshot.histogram("unknown").count());
+    }
+
+    @Test
+    void exposesMetricsThroughJmx() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("icd11.api.entity.requests").add(3);
+        registry.histogram("icd11.api.entity.latency.nanos").record(100);
+
+        ObjectName name = registry.registerMBean("test");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(3L, server.getAttribute(name, "icd11.api.entity.requests"));
+            assertEquals(1L, server.getAttribute(name, "icd11.api.entity.latency.nanos.count"));
+            assertEquals(100L, server.getAttribute(name, "icd11.api.entity.latency.nanos.p99"));
+
+            registry.gauge("icd11.api.in_flight").increment();
+            assertTrue(Arrays.stream(server.getMBeanInfo(name).getAttributes())
+                    .map(MBeanAttributeInfo::getName)
+                    .anyMatch("icd11.api.in_flight"::equals));
+            assertThrows(DiagnosesSystemException.class, () -> registry.registerMBean("test"));
+        } finally {
+            registry.unregisterMBean("test");
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+}
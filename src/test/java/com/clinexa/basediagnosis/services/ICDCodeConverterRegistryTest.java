@@ -0,0 +1,67 @@
+package com.clinexa.basediagnosis.services;
+
+import com.clinexa.basediagnosis.ICDVersion;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.ProviderNotFoundException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ICDCodeConverterRegistryTest {
+
+    private record SuffixConverter(ICDVersion from, ICDVersion to, String suffix, AtomicInteger bulkCalls)
+            implements ICDCodeConverter {
+
+        @Override
+        public @NotNull ICDVersion getFromVersion() {
+            return from;
+        }
+
+        @Override
+        public @NotNull ICDVersion getToVersion() {
+            return to;
+        }
+
+        @Override
+        public @NotNull String convert(@NotNull String code) {
+            return code + suffix;
+        }
+
+        @Override
+        public @NotNull String @NotNull [] convertAll(@NotNull String @NotNull [] codes) {
+            bulkCalls.incrementAndGet();
+            return ICDCodeConverter.super.convertAll(codes);
+        }
+    }
+
+    private final AtomicInteger bulkCalls = new AtomicInteger();
+    private final ICDCodeConverterRegistry registry = new ICDCodeConverterRegistry(List.of(
+            new SuffixConverter(ICDVersion.ICD11, ICDVersion.ICD10, "/10", bulkCalls),
+            new SuffixConverter(ICDVersion.ICD10, ICDVersion.ICD10CM, "/CM", bulkCalls)));
+
+    @Test
+    void convertsThroughIntermediateVersion() {
+        assertTrue(registry.supports(ICDVersion.ICD11, ICDVersion.ICD10CM));
+        assertEquals("1A00/10", registry.convert("1A00", ICDVersion.ICD11, ICDVersion.ICD10));
+        assertEquals("1A00/10/CM", registry.convert("1A00", ICDVersion.ICD11, ICDVersion.ICD10CM));
+        assertEquals("1A00", registry.convert("1A00", ICDVersion.ICD11, ICDVersion.ICD11));
+    }
+
+    @Test
+    void convertsArrayWithSingleCallPerConverter() {
+        String[] codes = {"1A00", "1A40.0"};
+        assertArrayEquals(new String[] {"1A00/10/CM", "1A40.0/10/CM"},
+                registry.convertAll(codes, ICDVersion.ICD11, ICDVersion.ICD10CM));
+        assertArrayEquals(new String[] {"1A00", "1A40.0"}, codes);
+        assertEquals(2, bulkCalls.get());
+    }
+
+    @Test
+    void failsWithoutPath() {
+        assertFalse(registry.supports(ICDVersion.ICD10CM, ICDVersion.ICD11));
+        assertThrows(ProviderNotFoundException.class, () -> registry.convert("A00", ICDVersion.ICD10CM, ICDVersion.ICD11));
+    }
+}
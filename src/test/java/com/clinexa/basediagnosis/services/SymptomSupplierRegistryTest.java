@@ -0,0 +1,84 @@
+package com.clinexa.basediagnosis.services;
+
+import com.clinexa.basediagnosis.DiagnosesSystem;
+import com.clinexa.basediagnosis.Diagnosis;
+import com.clinexa.basediagnosis.Symptom;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.ProviderNotFoundException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymptomSupplierRegistryTest {
+
+    private static final DiagnosesSystem SYSTEM = DiagnosesSystem.getDefaultDiagnosesSystem();
+
+    private static final Diagnosis CHOLERA = new Diagnosis(SYSTEM, ICDLanguage.ENGLISH, "1A00", "Cholera");
+    private static final Diagnosis TYPHOID = new Diagnosis(SYSTEM, ICDLanguage.ENGLISH, "1A07", "Typhoid fever");
+    private static final Diagnosis UNKNOWN = new Diagnosis(SYSTEM, ICDLanguage.ENGLISH, "XX00", "Unknown");
+    private static final Symptom DIARRHOEA = new Symptom(SYSTEM, ICDLanguage.ENGLISH, "ME05.1", "Diarrhoea");
+
+    private static final class CountingSupplier implements SymptomSupplier {
+
+        final AtomicInteger checks = new AtomicInteger();
+        final AtomicInteger singleCalls = new AtomicInteger();
+        final AtomicInteger bulkCalls = new AtomicInteger();
+
+        @Override
+        public boolean canProcess(@NotNull Diagnosis diagnosis) {
+            checks.incrementAndGet();
+            return diagnosis.getICD11Code().startsWith("1A");
+        }
+
+        @Override
+        public @NotNull List<Symptom> process(@NotNull Diagnosis diagnosis) {
+            singleCalls.incrementAndGet();
+            return List.of(DIARRHOEA);
+        }
+
+        @Override
+        public @NotNull Map<Diagnosis, List<Symptom>> processAll(@NotNull Collection<Diagnosis> diagnoses) {
+            bulkCalls.incrementAndGet();
+            return SymptomSupplier.super.processAll(diagnoses);
+        }
+    }
+
+    private final CountingSupplier supplier = new CountingSupplier();
+    private final SymptomSupplierRegistry registry = new SymptomSupplierRegistry(List.of(supplier));
+
+    @Test
+    void remembersSupplierAndSymptoms() {
+        assertEquals(List.of(DIARRHOEA), registry.getSymptoms(CHOLERA));
+        assertEquals(List.of(DIARRHOEA), registry.getSymptoms(CHOLERA));
+        assertEquals(1, supplier.checks.get());
+        assertEquals(1, supplier.singleCalls.get());
+
+        registry.setMemoization(0, Duration.ofMinutes(1));
+        registry.getSymptoms(CHOLERA);
+        registry.getSymptoms(CHOLERA);
+        assertEquals(1, supplier.checks.get());
+        assertEquals(3, supplier.singleCalls.get());
+    }
+
+    @Test
+    void failsWithoutSupplier() {
+        assertThrows(ProviderNotFoundException.class, () -> registry.getSymptoms(UNKNOWN));
+    }
+
+    @Test
+    void processesManyDiagnosesInSingleCall() {
+        registry.getSymptoms(CHOLERA);
+        Map<Diagnosis, List<Symptom>> symptoms = registry.getSymptoms(List.of(TYPHOID, CHOLERA, UNKNOWN, TYPHOID));
+        assertEquals(List.of(TYPHOID, CHOLERA), List.copyOf(symptoms.keySet()));
+        assertEquals(List.of(DIARRHOEA), symptoms.get(TYPHOID));
+        assertEquals(1, supplier.bulkCalls.get());
+        assertEquals(2, supplier.singleCalls.get());
+    }
+}
@@ -0,0 +1,93 @@
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.*;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutocompleteIndexTest {
+
+    @TempDir
+    Path directory;
+
+    private AutocompleteIndex.Session newSession(ICDLanguage language) throws Exception {
+        Path file = directory.resolve("icd11.snapshot");
+        ICD11SnapshotWriter.write(file, ICD11SnapshotDiagnosesSystemTest.ENTRIES, "2025-01");
+        ICD11SnapshotDiagnosesSystem system = new ICD11SnapshotDiagnosesSystem(file);
+        return system.getAutocompleteIndex().newSession(language, system);
+    }
+
+    @Test
+    void narrowsSuggestionsWhileTyping() throws Exception {
+        AutocompleteIndex.Session session = newSession(ICDLanguage.ENGLISH);
+        assertEquals(Set.of("1907420475", "588616678", "1688127370", "1442426592", "1435254666"),
+                ids(session.suggest("c", 10)));
+        assertEquals(Set.of("588616678", "1688127370", "1442426592"), ids(session.suggest("col", 10)));
+        assertEquals(Set.of("588616678", "1442426592"), ids(session.suggest("colitis orig", 10)));
+
+        AutocompleteIndex.Suggestions suggestions = session.suggest("Colitis Origin", 1);
+        assertTrue(suggestions.complete());
+        assertEquals(1, suggestions.hits().size());
+        // Both words match whole words and the title is the shorter one
+        assertEquals("588616678", suggestions.hits().getFirst().getEntityID());
+
+        // Starting over with a query that doesn't extend the previous one
+        assertEquals(Set.of("1907420475"), ids(session.suggest("fear", 10)));
+        assertTrue(session.suggest("   ", 10).hits().isEmpty());
+    }
+
+    @Test
+    void suggestsByCodeAndInOtherLanguages() throws Exception {
+        AutocompleteIndex.Session session = newSession(ICDLanguage.ENGLISH);
+        List<SearchHit> hits = session.suggest("1A40", 10).hits();
+        assertEquals(Set.of("1688127370", "1442426592"), ids(hits));
+        assertEquals("1688127370", hits.getFirst().getEntityID());
+        assertInstanceOf(DiagnosisCategory.class, hits.getFirst().getEntity());
+        assertInstanceOf(Diagnosis.class, hits.get(1).getEntity());
+
+        AutocompleteIndex.Session russian = newSession(ICDLanguage.RUSSIAN);
+        assertEquals(Set.of("1442426592"), ids(russian.suggest("неуточн", 10)));
+    }
+
+    @Test
+    void stopsWhenTimeBudgetRunsOut() {
+        List<ICD11SnapshotEntry> entries = IntStream.range(0, 20_000)
+                .mapToObj(i -> new ICD11SnapshotEntry(Integer.toString(i), "X" + i, List.of(), List.of(),
+                        Map.of(ICDLanguage.ENGLISH, "Disease number " + i)))
+                .toList();
+        AutocompleteIndex index = AutocompleteIndex.of(entries);
+        AutocompleteIndex.Session session = index.newSession(ICDLanguage.ENGLISH, new ICD11SnapshotDiagnosesSystem());
+
+        session.setTimeBudget(Duration.ofNanos(1));
+        AutocompleteIndex.Suggestions partial = session.suggest("dis", 5);
+        assertFalse(partial.complete());
+
+        session.setTimeBudget(Duration.ofSeconds(10));
+        AutocompleteIndex.Suggestions complete = session.suggest("disease", 5);
+        assertTrue(complete.complete());
+        assertEquals(5, complete.hits().size());
+        assertEquals(List.of("1234"), session.suggest("disease number 1234", 1).hits().stream()
+                .map(SearchHit::getEntityID).toList());
+
+        assertThrows(IllegalArgumentException.class, () -> session.setTimeBudget(Duration.ZERO));
+        assertThrows(UnsupportedOperationException.class,
+                () -> index.newSession(ICDLanguage.RUSSIAN, new ICD11SnapshotDiagnosesSystem()));
+    }
+
+    private static Set<String> ids(AutocompleteIndex.Suggestions suggestions) {
+        return ids(suggestions.hits());
+    }
+
+    private static Set<String> ids(List<SearchHit> hits) {
+        Set<String> ids = new HashSet<>();
+        hits.forEach(hit -> ids.add(hit.getEntityID()));
+        return ids;
+    }
+}
@@ -0,0 +1,58 @@
+package com.clinexa.basediagnosis.systems;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentDecoderTest {
+
+    private static final byte[] BODY = "{\"title\": {\"@value\": \"Cholera\"}}".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void decodesGzipAndDeflate() throws IOException {
+        assertArrayEquals(BODY, decode(BODY, ""));
+        assertArrayEquals(BODY, decode(BODY, "identity"));
+        assertArrayEquals(BODY, decode(gzip(BODY), "gzip"));
+        assertArrayEquals(BODY, decode(deflate(BODY, false), "deflate"));
+        // Raw deflate without zlib header, as sent by some servers
+        assertArrayEquals(BODY, decode(deflate(BODY, true), "Deflate"));
+        // Applied in order: deflate, then gzip
+        assertArrayEquals(BODY, decode(gzip(deflate(BODY, false)), "deflate, gzip"));
+    }
+
+    @Test
+    void rejectsUnsupportedEncoding() {
+        assertThrows(IOException.class, () -> decode(BODY, "br"));
+    }
+
+    private static byte[] decode(byte[] body, String encoding) throws IOException {
+        try (InputStream in = ContentDecoder.decode(new ByteArrayInputStream(body), encoding)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        var out = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] data, boolean raw) throws IOException {
+        var out = new ByteArrayOutputStream();
+        try (var deflate = new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+            deflate.write(data);
+        }
+        return out.toByteArray();
+    }
+}
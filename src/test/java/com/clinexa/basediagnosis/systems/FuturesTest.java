@@ -0,0 +1,115 @@
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.exceptions.DiagnosesSystemException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuturesTest {
+
+    @Test
+    void mapAllKeepsOrderAndLimitsConcurrency() {
+        List<CompletableFuture<Integer>> pending = new ArrayList<>();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CompletableFuture<List<Integer>> result = Futures.mapAll(List.of(1, 2, 3, 4, 5), item -> {
+            CompletableFuture<Integer> future = new CompletableFuture<>();
+            pending.add(future);
+            maxRunning.accumulateAndGet((int) pending.stream().filter(step -> !step.isDone()).count(), Math::max);
+            return future.thenApply(value -> value * item);
+        }, 2);
+
+        assertEquals(2, pending.size());
+        for (int i = pending.size() - 1; i >= 0; i--)
+            pending.get(i).complete(10);
+        for (int i = 2; i < pending.size(); i++)
+            pending.get(i).complete(10);
+        assertEquals(2, maxRunning.get());
+        assertEquals(List.of(10, 20, 30, 40, 50), result.join());
+    }
+
+    @Test
+    void mapAllCompletesSynchronousStepsWithoutRecursion() {
+        List<Integer> items = IntStream.range(0, 100_000).boxed().toList();
+        List<Integer> results = Futures.mapAll(items, CompletableFuture::completedFuture, 4).join();
+        assertEquals(items, results);
+    }
+
+    @Test
+    void mapAllFailsFastAndCancelsRunningSteps() {
+        List<CompletableFuture<Integer>> pending = new ArrayList<>();
+        CompletableFuture<List<Integer>> result = Futures.mapAll(List.of(1, 2, 3, 4), _ -> {
+            CompletableFuture<Integer> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        }, 2);
+
+        pending.getFirst().completeExceptionally(new DiagnosesSystemException("Failed"));
+        assertTrue(pending.get(1).isCancelled());
+        assertEquals(2, pending.size());
+        ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+        assertInstanceOf(DiagnosesSystemException.class, exception.getCause());
+    }
+
+    @Test
+    void cancellationReachesRunningStep() {
+        CompletableFuture<String> exchange = new CompletableFuture<>();
+        Futures.map(exchange, String::length).cancel(true);
+        assertTrue(exchange.isCancelled());
+
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<Integer> second = new CompletableFuture<>();
+        CompletableFuture<Integer> composed = Futures.compose(first, _ -> second);
+        first.complete("done");
+        composed.cancel(true);
+        assertTrue(second.isCancelled());
+    }
+
+    @Test
+    void checkedFailuresAreWrapped() {
+        CompletableFuture<Integer> result = Futures.map(CompletableFuture.<String>failedFuture(new IOException("Offline")),
+                String::length);
+        DiagnosesSystemException exception = assertThrows(DiagnosesSystemException.class, () -> Futures.await(result));
+        assertInstanceOf(IOException.class, exception.getCause());
+    }
+
+    @Test
+    void hedgeWinsAndCancelsSlowAttempt() {
+        List<CompletableFuture<String>> attempts = new CopyOnWriteArrayList<>();
+        AtomicInteger hedges = new AtomicInteger();
+        CompletableFuture<String> result = Futures.hedge(() -> {
+            CompletableFuture<String> attempt = new CompletableFuture<>();
+            attempts.add(attempt);
+            return attempt;
+        }, Duration.ofMillis(10), hedges::incrementAndGet);
+
+        while (attempts.size() < 2)
+            Thread.onSpinWait();
+        attempts.get(1).complete("hedge");
+        assertEquals("hedge", result.join());
+        assertTrue(attempts.getFirst().isCancelled());
+        assertEquals(1, hedges.get());
+    }
+
+    @Test
+    void hedgeIsNotStartedAfterFailure() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<String> result = Futures.hedge(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new DiagnosesSystemException("Failed"));
+        }, Duration.ofMillis(10), () -> {});
+
+        assertThrows(DiagnosesSystemException.class, () -> Futures.await(result));
+        Thread.sleep(50);
+        assertEquals(1, attempts.get());
+    }
+}
@@ -0,0 +1,105 @@
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ICD11CrawlerTest {
+
+    private static final List<ICD11SnapshotEntry> ENTRIES = ICD11SnapshotDiagnosesSystemTest.ENTRIES.stream()
+            .filter(entry -> entry.titles().containsKey(ICDLanguage.RUSSIAN))
+            .toList();
+
+    @TempDir
+    Path directory;
+
+    private ICD11SnapshotDiagnosesSystem source;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path file = directory.resolve("source.snapshot");
+        ICD11SnapshotWriter.write(file, ENTRIES, "2025-01");
+        source = new ICD11SnapshotDiagnosesSystem(file);
+    }
+
+    @Test
+    void crawlsWholeHierarchyInAllLanguages() throws IOException {
+        Path dump = directory.resolve("icd11.dump");
+        ICD11Crawler crawler = new ICD11Crawler(source, dump);
+        crawler.setLanguages(EnumSet.of(ICDLanguage.ENGLISH, ICDLanguage.RUSSIAN));
+        crawler.setMaxConcurrency(2);
+        List<ICD11Crawler.Progress> reports = new CopyOnWriteArrayList<>();
+        crawler.setProgressListener(reports::add);
+
+        ICD11Crawler.Progress progress = crawler.crawl();
+        assertEquals(ENTRIES.size(), progress.entities());
+        assertEquals(0, progress.pendingCategories());
+        // Root and three categories
+        assertEquals(4, progress.listedCategories());
+        assertEquals(4, reports.size());
+
+        Map<String, ICD11SnapshotEntry> crawled = byID(ICD11Crawler.readDump(dump));
+        assertEquals(List.of("1435254666"), crawled.get("").childIDs());
+        for (ICD11SnapshotEntry expected : ENTRIES) {
+            ICD11SnapshotEntry actual = crawled.get(expected.entityID());
+            assertEquals(expected.parentIDs(), actual.parentIDs());
+            assertEquals(expected.childIDs(), actual.childIDs());
+            assertEquals(expected.titles(), actual.titles());
+            if (!expected.isCategory())
+                assertEquals(expected.code(), actual.code());
+        }
+
+        Path snapshot = directory.resolve("crawled.snapshot");
+        ICD11Crawler.writeSnapshot(dump, snapshot, "2025-01");
+        var system = new ICD11SnapshotDiagnosesSystem(snapshot);
+        assertEquals("Гастроэнтерит или колит неуточненного происхождения",
+                system.getTitleByEntityID("1442426592", ICDLanguage.RUSSIAN).getTitle(ICDLanguage.RUSSIAN));
+        assertEquals(List.of("1442426592"), system.getCategoryListing("1688127370").stream()
+                .map(Map.Entry::getValue).toList());
+    }
+
+    @Test
+    void resumesAfterTornWrite() throws IOException {
+        Path dump = directory.resolve("icd11.dump");
+        new ICD11Crawler(source, dump).crawl();
+        Map<String, ICD11SnapshotEntry> complete = byID(ICD11Crawler.readDump(dump));
+
+        // Keep the first frames and a part of the next one, as if the process was killed
+        try (FileChannel channel = FileChannel.open(dump, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(dump) * 2 / 3);
+        }
+        ICD11Crawler.Progress progress = new ICD11Crawler(source, dump).crawl();
+        assertTrue(progress.resumedEntities() > 0);
+        assertTrue(progress.listedCategories() < 4);
+        assertEquals(ENTRIES.size(), progress.entities());
+        assertEquals(complete, byID(ICD11Crawler.readDump(dump)));
+
+        ICD11Crawler.Progress finished = new ICD11Crawler(source, dump).crawl();
+        assertEquals(0, finished.listedCategories());
+        assertEquals(ENTRIES.size(), finished.resumedEntities());
+    }
+
+    @Test
+    void rejectsFileThatIsNotDump() throws IOException {
+        Path file = directory.resolve("other.dump");
+        Files.writeString(file, "not a dump");
+        assertThrows(IOException.class, () -> ICD11Crawler.readDump(file));
+    }
+
+    private static Map<String, ICD11SnapshotEntry> byID(List<ICD11SnapshotEntry> entries) {
+        return entries.stream().collect(Collectors.toMap(ICD11SnapshotEntry::entityID, Function.identity()));
+    }
+}
@@ -0,0 +1,151 @@
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.DiagnosisCategory;
+import com.clinexa.basediagnosis.DiagnosisEntity;
+import com.clinexa.basediagnosis.systems.stub.ICD11StubServer;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ICD11DiagnosesSystemConcurrencyTest {
+
+    private static final int THREADS = 64;
+    private static final int ITERATIONS = 2_000;
+
+    @SuppressWarnings("removal")
+    private static ICD11DiagnosesSystem newSystem() {
+        return new ICD11DiagnosesSystem();
+    }
+
+    @Test
+    void concurrentSetParameterLosesNoUpdates() throws Exception {
+        ICD11DiagnosesSystem system = newSystem();
+        runConcurrently(thread -> {
+            for (int i = 0; i < ITERATIONS; i++) {
+                system.setParameter("STRESS_" + thread, Integer.toString(i));
+                system.setParameter("STRESS_" + thread + "_" + (i % 10), Integer.toString(i));
+            }
+        });
+
+        for (int thread = 0; thread < THREADS; thread++) {
+            assertEquals(Integer.toString(ITERATIONS - 1), system.getParameter("STRESS_" + thread));
+            for (int i = 0; i < 10; i++)
+                assertEquals(Integer.toString(ITERATIONS - 10 + i), system.getParameter("STRESS_" + thread + "_" + i));
+        }
+    }
+
+    @Test
+    void readersSeeConsistentState() throws Exception {
+        ICD11DiagnosesSystem system = newSystem();
+        ICDLanguage[] languages = ICDLanguage.values();
+        runConcurrently(thread -> {
+            for (int i = 0; i < ITERATIONS; i++) {
+                if (thread % 2 == 0) {
+                    system.setLanguage(languages[i % languages.length]);
+                    system.setParameter(ICD11DiagnosesSystem.CACHE_MAX_SIZE_KEY, Integer.toString(i % 5));
+                    system.setParameter(ICD11DiagnosesSystem.CACHE_TTL_KEY, Integer.toString(1 + i % 5));
+                } else {
+                    assertNotNull(system.getLanguage());
+                    assertNotNull(system.getCacheStats());
+                    system.clearCache();
+                    String maxSize = system.getParameter(ICD11DiagnosesSystem.CACHE_MAX_SIZE_KEY);
+                    assertTrue(maxSize == null || Long.parseLong(maxSize) < 5);
+                }
+            }
+        });
+        assertEquals(Integer.toString((ITERATIONS - 1) % 5), system.getParameter(ICD11DiagnosesSystem.CACHE_MAX_SIZE_KEY));
+    }
+
+    @Test
+    void concurrentCloseAndReconfigurationKeepSystemUsable() throws Exception {
+        ICD11DiagnosesSystem system = newSystem();
+        runConcurrently(thread -> {
+            for (int i = 0; i < ITERATIONS / 10; i++) {
+                switch ((thread + i) % 3) {
+                    case 0 -> system.setParameter(ICD11DiagnosesSystem.REQUEST_TIMEOUT_KEY, Integer.toString(1 + i % 30));
+                    case 1 -> system.close();
+                    default -> system.setExecutor(null);
+                }
+            }
+        });
+        system.setParameter(ICD11DiagnosesSystem.REQUEST_TIMEOUT_KEY, "5");
+        assertEquals("5", system.getParameter(ICD11DiagnosesSystem.REQUEST_TIMEOUT_KEY));
+        system.close();
+    }
+
+    @Test
+    void lookupsStayCorrectDuringReconfiguration() throws Exception {
+        try (ICD11StubServer server = ICD11StubServer.start()) {
+            ICD11DiagnosesSystem system = newSystem();
+            server.configure(system);
+            system.init();
+            List<String> codes = server.getCodes();
+            ICDLanguage[] languages = {ICDLanguage.ENGLISH, ICDLanguage.RUSSIAN};
+            runConcurrently(thread -> {
+                for (int i = 0; i < ITERATIONS / 20; i++) {
+                    if (thread % 8 == 0) {
+                        switch (i % 4) {
+                            case 0 -> system.setLanguage(languages[(thread + i) % languages.length]);
+                            case 1 -> system.init();
+                            case 2 -> system.setParameter(ICD11DiagnosesSystem.CACHE_MAX_SIZE_KEY, Integer.toString(i % 3 * 50));
+                            default -> system.setParameter(ICD11DiagnosesSystem.REQUEST_TIMEOUT_KEY, Integer.toString(5 + i % 5));
+                        }
+                        continue;
+                    }
+                    String code = codes.get((thread * 31 + i) % codes.size());
+                    Object entity = system.getByICD11Code(code);
+                    if (entity instanceof DiagnosisEntity diagnosisEntity)
+                        assertEquals(code, diagnosisEntity.getICD11Code());
+                    else
+                        assertInstanceOf(DiagnosisCategory.class, entity);
+                    List<Map.Entry<Object, String>> listing = system.getCategoryListing("588616678");
+                    assertFalse(listing.isEmpty());
+                }
+            });
+            system.close();
+        }
+    }
+
+    /**
+     * Task of a single stress thread.
+     */
+    private interface StressTask {
+        void run(int thread) throws Exception;
+    }
+
+    /**
+     * Starts all threads at once and rethrows the first failure.
+     */
+    private static void runConcurrently(StressTask task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CyclicBarrier start = new CyclicBarrier(THREADS);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int id = thread;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    task.run(id);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get(60, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Error error)
+                        throw error;
+                    throw (Exception) e.getCause();
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.events.ApiRequestEvent;
+import com.clinexa.basediagnosis.events.TranslationEvent;
+import com.clinexa.basediagnosis.implementations.TitledImplementation;
+import com.clinexa.basediagnosis.metrics.MetricsRegistry;
+import com.clinexa.basediagnosis.metrics.MetricsSnapshot;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ICD11MetricsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void detectsEndpointByURI() {
+        assertEquals(ICD11Metrics.Endpoint.RELEASE, ICD11Metrics.Endpoint.of(URI.create("release/11/mms")));
+        assertEquals(ICD11Metrics.Endpoint.CODEINFO,
+                ICD11Metrics.Endpoint.of(URI.create("release/11/2024-01/mms/codeinfo/1A00")));
+        assertEquals(ICD11Metrics.Endpoint.SEARCH,
+                ICD11Metrics.Endpoint.of(URI.create("release/11/2024-01/mms/search?q=cholera&flatResults=true")));
+        assertEquals(ICD11Metrics.Endpoint.ENTITY, ICD11Metrics.Endpoint.of(URI.create("release/11/2024-01/mms/257068234")));
+    }
+
+    @Test
+    void recordsRequests() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        ICD11Metrics metrics = new ICD11Metrics(registry);
+
+        ICD11Metrics.Request found = metrics.start(ICD11Metrics.Endpoint.ENTITY, ICDLanguage.ENGLISH);
+        assertEquals(1, registry.snapshot().gauge(ICD11Metrics.IN_FLIGHT));
+        try (InputStream body = found.countBytes(new ByteArrayInputStream(new byte[1234]))) {
+            body.transferTo(OutputStream.nullOutputStream());
+        }
+        found.finish(false, null);
+        found.finish(false, null);
+        metrics.start(ICD11Metrics.Endpoint.ENTITY, ICDLanguage.ENGLISH).finish(true, null);
+        metrics.start(ICD11Metrics.Endpoint.ENTITY, ICDLanguage.ENGLISH).finish(false, new IllegalStateException());
+        metrics.start(ICD11Metrics.Endpoint.ENTITY, ICDLanguage.ENGLISH).finish(false, new CancellationException());
+        metrics.cacheLookup(true);
+        metrics.cacheLookup(false);
+
+        MetricsSnapshot snapshot = registry.snapshot();
+        assertEquals(0, snapshot.gauge(ICD11Metrics.IN_FLIGHT));
+        assertEquals(4, snapshot.counter("icd11.api.entity.requests"));
+        assertEquals(1, snapshot.counter("icd11.api.entity.not_found"));
+        assertEquals(1, snapshot.counter("icd11.api.entity.errors"));
+        assertEquals(4, snapshot.histogram("icd11.api.entity.latency.nanos").count());
+        assertEquals(1234, snapshot.histogram("icd11.api.entity.response.bytes").max());
+        assertEquals(1, snapshot.counter(ICD11Metrics.CACHE_HITS));
+        assertEquals(1, snapshot.counter(ICD11Metrics.CACHE_MISSES));
+    }
+
+    @Test
+    @SuppressWarnings("removal")
+    void systemUsesDefaultRegistryUntilAnotherIsSet() {
+        ICD11DiagnosesSystem system = new ICD11DiagnosesSystem();
+        assertSame(MetricsRegistry.getDefault(), system.getMetricsRegistry());
+        MetricsRegistry registry = new MetricsRegistry();
+        system.setMetricsRegistry(registry);
+        assertSame(registry, system.getMetricsRegistry());
+    }
+
+    @Test
+    void recordsJfrEvents() throws Exception {
+        Path file = directory.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ApiRequestEvent.class).withThreshold(Duration.ZERO);
+            recording.enable(TranslationEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+
+            ICD11Metrics.Request request = new ICD11Metrics(new MetricsRegistry())
+                    .start(ICD11Metrics.Endpoint.SEARCH, ICDLanguage.RUSSIAN);
+            request.status(404);
+            request.responseBytes(42);
+            request.finish(true, null);
+            new TitledImplementation("Cholera", ICDLanguage.ENGLISH, _ -> "Choléra").getTitle(ICDLanguage.FRENCH);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent apiRequest = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.clinexa.basediagnosis.ApiRequest"))
+                .findFirst().orElseThrow();
+        assertEquals("search", apiRequest.getString("endpoint"));
+        assertEquals("ru", apiRequest.getString("language"));
+        assertEquals(404, apiRequest.getInt("status"));
+        assertEquals(42, apiRequest.getLong("responseBytes"));
+        assertNull(apiRequest.getString("error"));
+        // Committed on the thread completing the request, so the caller is recorded instead of the stack
+        assertNull(apiRequest.getStackTrace());
+        assertEquals(Thread.currentThread().getName(), apiRequest.getThread("callerThread").getJavaName());
+
+        RecordedEvent translation = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.clinexa.basediagnosis.Translation"))
+                .findFirst().orElseThrow();
+        assertEquals("en", translation.getString("sourceLanguage"));
+        assertEquals("fr", translation.getString("targetLanguage"));
+        assertTrue(translation.getBoolean("success"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.clinexa.basediagnosis.systems;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ICD11ResponseReaderTest {
+
+    @Test
+    void readsEntityAndSkipsOtherFields() throws IOException {
+        ICD11Response response = read("""
+                {
+                  "@context": "http://id.who.int/icd/contexts/contextForLinearizationEntity.json",
+                  "@id": "http://id.who.int/icd/release/11/2024-01/mms/1435254666",
+                  "parent": ["http://id.who.int/icd/release/11/2024-01/mms"],
+                  "definition": {"@language": "en", "@value": "Skipped \\"quoted\\" {text} [with] brackets"},
+                  "exclusion": [{"label": {"@value": "x"}, "linearizationReference": "y"}],
+                  "code": "1A00",
+                  "classKind": "category",
+                  "blockId": null,
+                  "isLeaf": true,
+                  "codingNote": {"@value": 1.5e3},
+                  "title": {"@language": "en", "@value": "Cholera"}
+                }""");
+
+        assertEquals("Cholera", response.title());
+        assertEquals("1A00", response.code());
+        assertNull(response.children());
+        assertNull(response.destinationEntities());
+    }
+
+    @Test
+    void readsChildrenAndSearchResults() throws IOException {
+        ICD11Response category = read("{\"title\":{\"@value\":\"Chapter\"},\"child\":[\"a/1\",\"a/2\"],\"code\":\"\"}");
+        assertEquals(List.of("a/1", "a/2"), category.children());
+        assertEquals("", category.code());
+
+        ICD11Response search = read("""
+                {"error": false, "destinationEntities": [
+                  {"id": "x", "title": "Cholera", "stemId": "http://id.who.int/icd/entity/1", "theCode": "1A00",
+                   "score": 0.75, "matchingPVs": [{"label": "Cholera", "score": 1}]},
+                  {"title": "Intestinal infections", "stemId": "s/2", "theCode": "", "score": 1, "important": true}
+                ], "resultChopped": false}""");
+        assertEquals(List.of(
+                new ICD11Response.SearchEntity("http://id.who.int/icd/entity/1", "1A00", "Cholera", 0.75),
+                new ICD11Response.SearchEntity("s/2", null, "Intestinal infections", 1)), search.destinationEntities());
+    }
+
+    @Test
+    void decodesEscapesAndMultibyteCharacters() throws IOException {
+        ICD11Response response = read("{\"title\":{\"@value\":\"Холера \\u00e9\\ud83d\\ude00\\n\\/\"},\"latestRelease\":\"r\"}");
+        assertEquals("Холера é😀\n/", response.title());
+        assertEquals("r", response.latestRelease());
+    }
+
+    @Test
+    void keepsEscapeAfterLoneHighSurrogate() throws IOException {
+        assertEquals("\uFFFD\n", read("{\"title\":\"\\uD83D\\n\"}").title());
+        assertEquals("\uFFFDA", read("{\"title\":\"\\uD83D\\u0041\"}").title());
+        assertEquals("\uFFFD", read("{\"title\":\"\\uD83D\"}").title());
+        assertEquals("\uFFFD\uFFFD", read("{\"title\":\"\\uDE00\\uD83D\"}").title());
+        assertEquals("\uD83D\uDE00", read(new SlowStream("{\"title\":\"\\uD83D\\uDE00\"}"
+                .getBytes(StandardCharsets.UTF_8))).title());
+    }
+
+    @Test
+    void readsBodyLongerThanBuffer() throws IOException {
+        String filler = "x".repeat(50_000);
+        ICD11Response response = read(new SlowStream(("{\"skipped\":\"" + filler + "\",\"title\":\"" + filler + "\"}")
+                .getBytes(StandardCharsets.UTF_8)));
+        assertEquals(filler, response.title());
+    }
+
+    @Test
+    void failsOnMalformedBody() {
+        assertThrows(IOException.class, () -> read("[\"not an object\"]"));
+        assertThrows(EOFException.class, () -> read("{\"title\": {\"@value\": \"Chol"));
+    }
+
+    private static ICD11Response read(String json) throws IOException {
+        return read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static ICD11Response read(InputStream in) throws IOException {
+        return ICD11ResponseReader.read(in);
+    }
+
+    /**
+     * Stream that returns few bytes at a time, like a body that's still being received.
+     */
+    private static final class SlowStream extends ByteArrayInputStream {
+
+        SlowStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            return super.read(b, off, Math.min(len, 7));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.*;
+import com.clinexa.basediagnosis.exceptions.DiagnosesSystemException;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ICD11SnapshotDiagnosesSystemTest {
+
+    static final List<ICD11SnapshotEntry> ENTRIES = List.of(
+            new ICD11SnapshotEntry("1435254666", null, List.of(), List.of("588616678"),
+                    Map.of(ICDLanguage.ENGLISH, "Certain infectious or parasitic diseases",
+                            ICDLanguage.RUSSIAN, "Некоторые инфекционные или паразитарные болезни")),
+            new ICD11SnapshotEntry("588616678", null, List.of("1435254666"), List.of("1688127370"),
+                    Map.of(ICDLanguage.ENGLISH, "Gastroenteritis or colitis of infectious origin",
+                            ICDLanguage.RUSSIAN, "Гастроэнтерит или колит инфекционного происхождения")),
+            new ICD11SnapshotEntry("1688127370", "1A40", List.of("588616678"), List.of("1442426592"),
+                    Map.of(ICDLanguage.ENGLISH, "Gastroenteritis or colitis without specification of infectious agent",
+                            ICDLanguage.RUSSIAN, "Гастроэнтерит или колит без уточнения инфекционного агента")),
+            new ICD11SnapshotEntry("1442426592", "1A40.0", List.of("1688127370"), List.of(),
+                    Map.of(ICDLanguage.ENGLISH, "Gastroenteritis or colitis without specification of origin",
+                            ICDLanguage.RUSSIAN, "Гастроэнтерит или колит неуточненного происхождения")),
+            new ICD11SnapshotEntry("1907420475", "MG24.01", List.of(), List.of(),
+                    Map.of(ICDLanguage.ENGLISH, "Fear of breast cancer female")));
+
+    @TempDir
+    Path directory;
+
+    private ICD11SnapshotDiagnosesSystem system;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path file = directory.resolve("icd11.snapshot");
+        ICD11SnapshotWriter.write(file, ENTRIES, "2025-01");
+        system = new ICD11SnapshotDiagnosesSystem(file);
+    }
+
+    @Test
+    void getByICD11Code() {
+        Diagnosis diagnosis = (Diagnosis) system.getByICD11Code("1A40.0");
+        assertEquals("1A40.0", diagnosis.getICD11Code());
+        assertEquals("Gastroenteritis or colitis without specification of origin", diagnosis.getTitle(ICDLanguage.ENGLISH));
+        assertEquals("Гастроэнтерит или колит неуточненного происхождения", diagnosis.getTitle(ICDLanguage.RUSSIAN));
+
+        assertInstanceOf(Symptom.class, system.getByICD11Code("MG24.01"));
+        assertInstanceOf(DiagnosisCategory.class, system.getByICD11Code("1A40"));
+        assertThrows(DiagnosesSystemException.class, () -> system.getByICD11Code("XX00"));
+    }
+
+    @Test
+    void getCategoryListing() {
+        List<Map.Entry<Object, String>> chapters = system.getParentCategoryListing();
+        assertEquals(List.of("1435254666", "1907420475"), chapters.stream().map(Map.Entry::getValue).toList());
+
+        List<Map.Entry<Object, String>> listing = system.getCategoryListing("1688127370", ICDLanguage.RUSSIAN);
+        assertEquals(1, listing.size());
+        assertEquals("1442426592", listing.getFirst().getValue());
+        assertEquals("Гастроэнтерит или колит неуточненного происхождения",
+                ((Titled) listing.getFirst().getKey()).getTitle(ICDLanguage.RUSSIAN));
+
+        assertThrows(DiagnosesSystemException.class, () -> system.getCategoryListing("1442426592"));
+    }
+
+    @Test
+    void getTitleByEntityID() {
+        assertEquals("Gastroenteritis or colitis of infectious origin",
+                system.getTitleByEntityID("588616678").getTitle(ICDLanguage.ENGLISH));
+        assertThrows(UnsupportedOperationException.class,
+                () -> system.getTitleByEntityID("1907420475", ICDLanguage.RUSSIAN));
+    }
+
+    @Test
+    void getByICD11Codes() {
+        BatchResult<Object> batch = system.getByICD11Codes(List.of("1A40.0", "XX00", "MG24.01", "1A40.0"), ICDLanguage.ENGLISH);
+        assertFalse(batch.isComplete());
+        assertEquals(List.of("1A40.0", "MG24.01"), List.copyOf(batch.results().keySet()));
+        assertInstanceOf(Symptom.class, batch.results().get("MG24.01"));
+        assertInstanceOf(DiagnosesSystemException.class, batch.failures().get("XX00"));
+
+        BatchResult<Titled> titles = system.getTitlesByEntityIDs(List.of("588616678", "1442426592"), ICDLanguage.RUSSIAN);
+        assertTrue(titles.isComplete());
+        assertEquals("Гастроэнтерит или колит инфекционного происхождения",
+                titles.results().get("588616678").getTitle(ICDLanguage.RUSSIAN));
+    }
+
+    @Test
+    void readsHeader() {
+        assertEquals("2025-01", system.getRelease());
+        assertEquals(EnumSet.of(ICDLanguage.ENGLISH, ICDLanguage.RUSSIAN), system.getLanguages());
+    }
+
+    @Test
+    void storesLanguagesByCode() throws Exception {
+        Path file = directory.resolve("russian.snapshot");
+        ICD11SnapshotWriter.write(file, List.of(new ICD11SnapshotEntry("1907420475", "MG24.01", List.of(), List.of(),
+                Map.of(ICDLanguage.RUSSIAN, "Страх рака груди"))), null);
+        ICD11Snapshot snapshot = ICD11Snapshot.open(file);
+        assertEquals(EnumSet.of(ICDLanguage.RUSSIAN), snapshot.languages());
+        int entity = snapshot.findCode("MG24.01");
+        assertEquals("Страх рака груди", snapshot.title(entity, ICDLanguage.RUSSIAN));
+        assertNull(snapshot.title(entity, ICDLanguage.ENGLISH));
+        assertEquals(EntityType.SYMPTOM, snapshot.type(entity));
+    }
+
+    @Test
+    void rejectsUnknownEntityType() throws Exception {
+        Path file = directory.resolve("corrupted.snapshot");
+        ICD11SnapshotWriter.write(file, ENTRIES, null);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(ICD11SnapshotWriter.HEADER_SIZE);
+            channel.read(header, 0);
+            long entities = header.getLong(ICD11SnapshotWriter.HEADER_ENTITIES_OFFSET);
+            channel.write(ByteBuffer.allocate(4).putInt(0, 99), entities + ICD11SnapshotWriter.RECORD_TYPE);
+        }
+        DiagnosesSystemException exception = assertThrows(DiagnosesSystemException.class,
+                () -> ICD11Snapshot.open(file).type(0));
+        assertInstanceOf(StreamCorruptedException.class, exception.getCause());
+    }
+}
@@ -0,0 +1,234 @@
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.*;
+import com.clinexa.basediagnosis.exceptions.DiagnosesSystemException;
+import com.clinexa.basediagnosis.metrics.MetricsRegistry;
+import com.clinexa.basediagnosis.systems.stub.ICD11StubServer;
+import com.clinexa.basediagnosis.systems.stub.LoadGenerator;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ICD11StubServerTest {
+
+    private ICD11StubServer server;
+    private ICD11DiagnosesSystem system;
+
+    @BeforeEach
+    @SuppressWarnings("removal")
+    void setUp() throws Exception {
+        server = ICD11StubServer.start();
+        system = new ICD11DiagnosesSystem();
+        server.configure(system);
+        system.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        system.close();
+        server.close();
+    }
+
+    @Test
+    void looksUpEntitiesFromStub() {
+        Diagnosis diagnosis = (Diagnosis) system.getByICD11Code("1A40.0");
+        assertEquals("Gastroenteritis or colitis without specification of origin", diagnosis.getTitle());
+        assertEquals("Гастроэнтерит или колит неуточненного происхождения", diagnosis.getTitle(ICDLanguage.RUSSIAN));
+        assertInstanceOf(Symptom.class, system.getByICD11Code("MG24.01"));
+        assertInstanceOf(DiagnosisCategory.class, system.getByICD11Code("1A40"));
+        assertThrows(DiagnosesSystemException.class, () -> system.getByICD11Code("XX00"));
+
+        assertEquals(2, system.getParentCategoryListing().size());
+        assertAll(system.getCategoryListing("588616678").stream()
+                .map(entry -> () -> assertInstanceOf(DiagnosisCategory.class, entry.getKey())));
+        List<Map.Entry<Object, String>> symptoms = system.getCategoryListing("1907420475");
+        assertEquals(2, symptoms.size());
+        assertAll(symptoms.stream().map(entry -> () -> assertInstanceOf(Symptom.class, entry.getKey())));
+
+        List<SearchHit> hits = system.getSearchHits("fear cancer", ICDLanguage.ENGLISH, 0, 10);
+        assertEquals("MG24.0", hits.getFirst().getCode());
+        assertEquals(3, hits.size());
+        assertEquals(1, server.getRequestCount("token"));
+        assertEquals(1, server.getRequestCount("release"));
+        assertEquals(1, server.getRequestCount("head"));
+    }
+
+    @Test
+    void decompressesResponses() {
+        var registry = new MetricsRegistry();
+        system.setMetricsRegistry(registry);
+        String title = system.getTitleByEntityID("588616678").getTitle(ICDLanguage.ENGLISH);
+        long compressed = registry.snapshot().histogram("icd11.api.entity.response.bytes").sum();
+
+        server.setCompression(false);
+        system.clearCache();
+        assertEquals(title, system.getTitleByEntityID("588616678").getTitle(ICDLanguage.ENGLISH));
+        long uncompressed = registry.snapshot().histogram("icd11.api.entity.response.bytes").sum() - compressed;
+        assertTrue(compressed < uncompressed, compressed + " >= " + uncompressed);
+    }
+
+    @Test
+    @SuppressWarnings("removal")
+    void worksWithoutAuthentication() {
+        server.setAuthentication(false);
+        var anonymous = new ICD11DiagnosesSystem();
+        anonymous.setParameter(ICD11DiagnosesSystem.API_URL_KEY, server.getApiURL().toString());
+        anonymous.setParameter(ICD11DiagnosesSystem.AUTHENTICATION_KEY, "false");
+        anonymous.init();
+        assertInstanceOf(Diagnosis.class, anonymous.getByICD11Code("1A20"));
+        // Only the system from setUp() has requested a token
+        assertEquals(1, server.getRequestCount("token"));
+        anonymous.close();
+    }
+
+    @Test
+    void errorsAndThrottlingFailRequests() {
+        // Retried requests would outwait the rate limit
+        system.setParameter(ICD11DiagnosesSystem.MAX_RETRIES_KEY, "0");
+        server.setErrorRate(1);
+        assertThrows(DiagnosesSystemException.class, () -> system.getByICD11Code("1A03.0"));
+
+        server.setErrorRate(0);
+        server.setThrottleRate(1);
+        assertThrows(DiagnosesSystemException.class, () -> system.getByICD11Code("1A03.1"));
+
+        server.setThrottleRate(0);
+        server.setMaxRequestsPerSecond(1);
+        assertThrows(DiagnosesSystemException.class, () -> {
+            system.getByICD11Code("1A03.2");
+            system.getByICD11Code("1A20");
+        });
+    }
+
+    @Test
+    void retriesFailedRequests() {
+        var registry = new MetricsRegistry();
+        system.setMetricsRegistry(registry);
+        server.failNext(2, 503, null);
+        assertEquals("Intestinal infections due to Escherichia coli", system.getTitleByEntityID("344162786").getTitle(ICDLanguage.ENGLISH));
+        assertEquals(2, registry.snapshot().counter("icd11.api.retries"));
+
+        server.failNext(3, 500, null);
+        assertThrows(DiagnosesSystemException.class, () -> system.getTitleByEntityID("30738976"));
+        assertEquals(4, registry.snapshot().counter("icd11.api.retries"));
+
+        server.failNext(1, 400, null);
+        assertThrows(DiagnosesSystemException.class, () -> system.getTitleByEntityID("30738976"));
+        assertEquals(4, registry.snapshot().counter("icd11.api.retries"));
+    }
+
+    @Test
+    void waitsForRetryAfter() {
+        server.failNext(1, 429, "1");
+        long start = System.nanoTime();
+        system.getTitleByEntityID("30738976");
+        assertTrue(System.nanoTime() - start >= Duration.ofSeconds(1).toNanos());
+
+        // Too long to wait for
+        server.failNext(1, 503, "120");
+        assertThrows(DiagnosesSystemException.class, () -> system.getTitleByEntityID("344162786"));
+    }
+
+    @Test
+    void hedgesSlowRequests() {
+        var registry = new MetricsRegistry();
+        system.setMetricsRegistry(registry);
+        system.setParameter(ICD11DiagnosesSystem.HEDGE_PERCENTILE_KEY, "90");
+        server.setLatency(ICD11StubServer.Latency.fixed(Duration.ofMillis(5)));
+        for (int i = 0; i < 25; i++) {
+            system.clearCache();
+            system.getTitleByEntityID("30738976");
+        }
+        long hedges = registry.snapshot().counter("icd11.api.hedges");
+
+        system.clearCache();
+        server.delayNext(1, Duration.ofSeconds(5));
+        long start = System.nanoTime();
+        system.getTitleByEntityID("30738976");
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(2).toNanos());
+        assertEquals(hedges + 1, registry.snapshot().counter("icd11.api.hedges"));
+
+        system.setParameter(ICD11DiagnosesSystem.HEDGE_PERCENTILE_KEY, "100");
+        system.clearCache();
+        assertThrows(DiagnosesSystemException.class, () -> system.getTitleByEntityID("30738976"));
+    }
+
+    @Test
+    void interruptedCallerDoesNotFailJoinedOne() throws Exception {
+        server.delayNext(1, Duration.ofMillis(500));
+        long before = server.getRequestCount("entity");
+        long coalesced = system.getCoalescedRequestCount();
+        var leaderFailure = new CompletableFuture<Throwable>();
+        Thread leader = Thread.ofVirtual().start(() -> {
+            try {
+                system.getTitleByEntityID("1316612097");
+                leaderFailure.complete(null);
+            } catch (Throwable e) {
+                leaderFailure.complete(e);
+            }
+        });
+        while (server.getRequestCount("entity") == before)
+            Thread.onSpinWait();
+
+        var follower = CompletableFuture.supplyAsync(() -> system.getTitleByEntityID("1316612097")
+                .getTitle(ICDLanguage.ENGLISH), Thread.ofVirtual()::start);
+        while (system.getCoalescedRequestCount() == coalesced)
+            Thread.onSpinWait();
+        leader.interrupt();
+
+        assertInstanceOf(DiagnosesSystemException.class, leaderFailure.get(5, TimeUnit.SECONDS));
+        assertEquals("Enteropathogenic Escherichia coli infection", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(before + 1, server.getRequestCount("entity"));
+    }
+
+    @Test
+    void reconfigurationDoesNotWaitForRequestsInFlight() throws Exception {
+        server.delayNext(1, Duration.ofSeconds(1));
+        long before = server.getRequestCount("entity");
+        var lookup = CompletableFuture.supplyAsync(() -> system.getTitleByEntityID("1316612097")
+                .getTitle(ICDLanguage.ENGLISH), Thread.ofVirtual()::start);
+        while (server.getRequestCount("entity") == before)
+            Thread.onSpinWait();
+
+        long start = System.nanoTime();
+        system.setParameter(ICD11DiagnosesSystem.REQUEST_TIMEOUT_KEY, "20");
+        assertTrue(System.nanoTime() - start < Duration.ofMillis(500).toNanos());
+        assertEquals("Enteropathogenic Escherichia coli infection", lookup.get(5, TimeUnit.SECONDS));
+        assertEquals("Viral intestinal infections", system.getTitleByEntityID("30738976").getTitle(ICDLanguage.ENGLISH));
+    }
+
+    @Test
+    void injectsLatency() {
+        server.setLatency(ICD11StubServer.Latency.fixed(Duration.ofMillis(100)));
+        long start = System.nanoTime();
+        system.getTitleByEntityID("30738976");
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(100).toNanos());
+    }
+
+    @Test
+    void loadGeneratorKeepsRate() {
+        system.setParameter(ICD11DiagnosesSystem.CACHE_MAX_SIZE_KEY, "0");
+        server.setLatency(ICD11StubServer.Latency.uniform(Duration.ofMillis(5), Duration.ofMillis(15)));
+        List<String> codes = server.getCodes();
+        long before = server.getRequestCount("entity");
+
+        LoadGenerator.Report report = LoadGenerator.run(200, Duration.ofMillis(500),
+                sequence -> system.getByICD11Code(codes.get((int) (sequence % codes.size()))));
+
+        assertEquals(100, report.operations());
+        assertEquals(0, report.errors());
+        assertEquals(100, report.latency().count());
+        assertTrue(report.latency().percentile(50) >= Duration.ofMillis(5).toNanos());
+        // Lookups of the same code in flight at once share a request
+        assertTrue(server.getRequestCount("entity") - before + system.getCoalescedRequestCount() >= 100);
+    }
+}
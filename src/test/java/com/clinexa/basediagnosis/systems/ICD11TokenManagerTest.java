@@ -0,0 +1,99 @@
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.exceptions.DiagnosesSystemException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ICD11TokenManagerTest {
+
+    private final List<CompletableFuture<ICD11TokenManager.AccessToken>> requests = new CopyOnWriteArrayList<>();
+    private final ICD11TokenManager tokens = new ICD11TokenManager(() -> {
+        CompletableFuture<ICD11TokenManager.AccessToken> request = new CompletableFuture<>();
+        requests.add(request);
+        return request;
+    });
+
+    @Test
+    void concurrentCallersShareSingleRequest() {
+        CompletableFuture<String> first = tokens.getAsync();
+        CompletableFuture<String> second = tokens.getAsync();
+        assertEquals(1, requests.size());
+
+        requests.getFirst().complete(new ICD11TokenManager.AccessToken("token", Duration.ofHours(1)));
+        assertEquals("token", first.join());
+        assertEquals("token", second.join());
+        assertEquals("token", tokens.getAsync().join());
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void expiredTokenIsRefreshed() {
+        tokens.getAsync();
+        requests.getFirst().complete(new ICD11TokenManager.AccessToken("old", Duration.ZERO));
+
+        CompletableFuture<String> token = tokens.getAsync();
+        assertEquals(2, requests.size());
+        assertFalse(token.isDone());
+        requests.getLast().complete(new ICD11TokenManager.AccessToken("new", Duration.ofHours(1)));
+        assertEquals("new", token.join());
+    }
+
+    @Test
+    void tokenCloseToExpiryIsRefreshedInBackground() {
+        tokens.getAsync();
+        requests.getFirst().complete(new ICD11TokenManager.AccessToken("old", Duration.ofMillis(200)));
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (requests.size() < 2)
+                Thread.onSpinWait();
+        });
+        assertEquals("old", tokens.getAsync().join());
+    }
+
+    @Test
+    void rejectedTokenIsReplacedOnce() {
+        tokens.getAsync();
+        requests.getFirst().complete(new ICD11TokenManager.AccessToken("old", Duration.ofHours(1)));
+
+        CompletableFuture<String> first = tokens.refreshRejected("old");
+        CompletableFuture<String> second = tokens.refreshRejected("old");
+        assertEquals(2, requests.size());
+        requests.getLast().complete(new ICD11TokenManager.AccessToken("new", Duration.ofHours(1)));
+        assertEquals("new", first.join());
+        assertEquals("new", second.join());
+
+        assertEquals("new", tokens.refreshRejected("old").join());
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    void failedRefreshIsRetried() {
+        CompletableFuture<String> failed = tokens.getAsync();
+        requests.getFirst().completeExceptionally(new DiagnosesSystemException("Unavailable"));
+        assertThrows(DiagnosesSystemException.class, () -> Futures.await(failed));
+
+        tokens.getAsync();
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    void refreshStartedBeforeResetIsNotPublished() {
+        CompletableFuture<String> before = tokens.getAsync();
+        tokens.reset();
+        CompletableFuture<String> after = tokens.getAsync();
+        assertEquals(2, requests.size());
+
+        requests.getFirst().complete(new ICD11TokenManager.AccessToken("old", Duration.ofHours(1)));
+        assertFalse(before.isDone());
+        requests.getLast().complete(new ICD11TokenManager.AccessToken("new", Duration.ofHours(1)));
+        assertEquals("new", before.join());
+        assertEquals("new", after.join());
+        assertEquals("new", tokens.getAsync().join());
+        assertEquals(2, requests.size());
+    }
+}
@@ -0,0 +1,96 @@
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.exceptions.DiagnosesSystemException;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryPolicyTest {
+
+    @Test
+    void backoffIsJitteredAndCapped() {
+        RetryPolicy policy = new RetryPolicy(100, Duration.ofMillis(100));
+        ICD11StatusException unavailable = new ICD11StatusException(503, null, "");
+        for (int i = 0; i < 1000; i++) {
+            Duration first = policy.retryDelay(0, unavailable);
+            assertNotNull(first);
+            assertTrue(first.compareTo(Duration.ofMillis(100)) <= 0, first::toString);
+            Duration third = policy.retryDelay(2, new CompletionException(new HttpTimeoutException("Timed out")));
+            assertNotNull(third);
+            assertTrue(third.compareTo(Duration.ofMillis(400)) <= 0, third::toString);
+            Duration late = policy.retryDelay(60, unavailable);
+            assertNotNull(late);
+            assertTrue(late.compareTo(RetryPolicy.MAX_BACKOFF) <= 0, late::toString);
+        }
+    }
+
+    @Test
+    void retryAfterIsRespected() {
+        RetryPolicy policy = new RetryPolicy(2, Duration.ofMillis(100));
+        assertEquals(Duration.ofSeconds(3), policy.retryDelay(0, new ICD11StatusException(429, Duration.ofSeconds(3), "")));
+        assertNull(policy.retryDelay(0, new ICD11StatusException(503, Duration.ofMinutes(5), "")));
+    }
+
+    @Test
+    void onlyTransientFailuresAreRetried() {
+        assertTrue(RetryPolicy.isRetryable(new ICD11StatusException(502, null, "")));
+        assertTrue(RetryPolicy.isRetryable(new DiagnosesSystemException(new HttpTimeoutException("Timed out"))));
+        assertFalse(RetryPolicy.isRetryable(new ICD11StatusException(400, null, "")));
+        assertFalse(RetryPolicy.isRetryable(new ICD11StatusException(401, null, "")));
+        assertFalse(RetryPolicy.isRetryable(new CancellationException()));
+        assertFalse(RetryPolicy.isRetryable(new DiagnosesSystemException("Not found")));
+    }
+
+    @Test
+    void executeRetriesUntilExhausted() {
+        RetryPolicy policy = new RetryPolicy(2, Duration.ZERO);
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger retries = new AtomicInteger();
+        CompletableFuture<String> result = policy.execute(() -> attempts.incrementAndGet() < 3
+                ? CompletableFuture.failedFuture(new ICD11StatusException(500, null, ""))
+                : CompletableFuture.completedFuture("done"), retries::incrementAndGet);
+        assertEquals("done", result.join());
+        assertEquals(2, retries.get());
+
+        attempts.set(0);
+        CompletableFuture<String> failed = policy.execute(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new ICD11StatusException(500, null, ""));
+        }, () -> {});
+        assertThrows(ICD11StatusException.class, () -> Futures.await(failed));
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void cancellationStopsRetries() {
+        RetryPolicy policy = new RetryPolicy(2, Duration.ZERO);
+        CompletableFuture<String> attempt = new CompletableFuture<>();
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<String> result = policy.execute(() -> {
+            attempts.incrementAndGet();
+            return attempt;
+        }, () -> {});
+        result.cancel(true);
+        assertTrue(attempt.isCancelled());
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void parsesRetryAfter() {
+        assertEquals(Duration.ofSeconds(120), RetryPolicy.parseRetryAfter(" 120 "));
+        assertEquals(Duration.ZERO, RetryPolicy.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT"));
+        Duration future = RetryPolicy.parseRetryAfter(DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().plusMinutes(1)));
+        assertNotNull(future);
+        assertTrue(future.compareTo(Duration.ofSeconds(50)) > 0, future::toString);
+        assertNull(RetryPolicy.parseRetryAfter("soon"));
+    }
+}
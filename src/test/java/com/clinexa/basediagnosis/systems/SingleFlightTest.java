@@ -0,0 +1,75 @@
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.exceptions.DiagnosesSystemException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallersShareResultAndError() {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger started = new AtomicInteger();
+        CompletableFuture<String> call = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flight.execute("a", () -> { started.incrementAndGet(); return call; });
+        CompletableFuture<String> second = flight.execute("a", () -> { started.incrementAndGet(); return call; });
+        CompletableFuture<String> other = flight.execute("b", () -> CompletableFuture.completedFuture("b"));
+        call.complete("a");
+
+        assertEquals("a", first.join());
+        assertEquals("a", second.join());
+        assertEquals("b", other.join());
+        assertEquals(1, started.get());
+        assertEquals(1, flight.getCoalescedCount());
+
+        CompletableFuture<String> failing = new CompletableFuture<>();
+        CompletableFuture<String> third = flight.execute("a", () -> failing);
+        CompletableFuture<String> fourth = flight.execute("a", () -> failing);
+        failing.completeExceptionally(new DiagnosesSystemException("failed"));
+        assertThrows(DiagnosesSystemException.class, () -> Futures.await(third));
+        assertThrows(DiagnosesSystemException.class, () -> Futures.await(fourth));
+        assertEquals(2, flight.getCoalescedCount());
+    }
+
+    @Test
+    void callIsCancelledOnlyWhenAllCallersCancel() {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CompletableFuture<String> call = new CompletableFuture<>();
+        CompletableFuture<String> first = flight.execute("a", () -> call);
+        CompletableFuture<String> second = flight.execute("a", () -> call);
+
+        first.cancel(true);
+        assertFalse(call.isCancelled());
+        second.cancel(true);
+        assertTrue(call.isCancelled());
+
+        CompletableFuture<String> fresh = flight.execute("a", () -> CompletableFuture.completedFuture("again"));
+        assertEquals("again", fresh.join());
+    }
+
+    @Test
+    void completedCallIsNotReused() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger started = new AtomicInteger();
+        for (int i = 0; i < 3; i++)
+            assertEquals(i + 1, flight.execute("a", () -> CompletableFuture.completedFuture(started.incrementAndGet())).join());
+        assertEquals(0, flight.getCoalescedCount());
+    }
+
+    @Test
+    void callCompletedButNotRemovedIsNotJoined() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        CompletableFuture<Integer> first = new CompletableFuture<>();
+        CompletableFuture<Integer> own = flight.execute("a", () -> first);
+        // Runs as soon as the caller's future completes, like a woken up caller would
+        CompletableFuture<Integer> next = own.thenCompose(_ -> flight.execute("a", () -> CompletableFuture.completedFuture(2)));
+        first.complete(1);
+        assertEquals(2, next.join());
+        assertEquals(0, flight.getCoalescedCount());
+    }
+}
@@ -0,0 +1,107 @@
+package com.clinexa.basediagnosis.systems;
+
+import com.clinexa.basediagnosis.*;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TitleSearchIndexTest {
+
+    private static final List<ICD11SnapshotEntry> ENTRIES = List.of(
+            new ICD11SnapshotEntry("1", "1A00", List.of(), List.of(),
+                    Map.of(ICDLanguage.ENGLISH, "Cholera",
+                            ICDLanguage.FRENCH, "Choléra",
+                            ICDLanguage.CHINESE, "霍乱")),
+            new ICD11SnapshotEntry("2", "1A40.0", List.of(), List.of(),
+                    Map.of(ICDLanguage.ENGLISH, "Gastroenteritis or colitis without specification of origin",
+                            ICDLanguage.FRENCH, "Gastro-entérite ou colite d'origine non précisée",
+                            ICDLanguage.CHINESE, "未特指病因的胃肠炎或结肠炎")),
+            new ICD11SnapshotEntry("3", "1A40", List.of(), List.of("2"),
+                    Map.of(ICDLanguage.ENGLISH, "Gastroenteritis or colitis without specification of infectious agent")),
+            new ICD11SnapshotEntry("4", "MG24.01", List.of(), List.of(),
+                    Map.of(ICDLanguage.ENGLISH, "Fear of cancer")),
+            new ICD11SnapshotEntry("5", null, List.of(), List.of("1", "3"),
+                    Map.of(ICDLanguage.ENGLISH, "Colitis")));
+
+    private final TitleSearchIndex index = TitleSearchIndex.of(ENTRIES);
+    private final ICD11SnapshotDiagnosesSystem system = new ICD11SnapshotDiagnosesSystem();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void ranksShortMatchingTitlesFirst() {
+        List<SearchHit> hits = index.search("colitis", ICDLanguage.ENGLISH, 0, 10, system);
+        assertEquals(List.of("5", "2", "3"), hits.stream().map(SearchHit::getEntityID).toList());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+
+        List<SearchHit> specific = index.search("colitis origin", ICDLanguage.ENGLISH, 0, 10, system);
+        assertEquals("2", specific.getFirst().getEntityID());
+        assertEquals(List.of("2"), index.search("colitis origin", ICDLanguage.ENGLISH, 0, 1, system).stream()
+                .map(SearchHit::getEntityID).toList());
+        assertEquals(List.of("3"), index.search("colitis origin", ICDLanguage.ENGLISH, 1, 2, system).stream()
+                .map(SearchHit::getEntityID).toList());
+    }
+
+    @Test
+    void createsEntitiesWithoutRequests() {
+        List<SearchHit> hits = index.search("1a40.0 cancer", ICDLanguage.ENGLISH, 0, 10, system);
+        assertEquals(Set.of("2", "4"), Set.copyOf(hits.stream().map(SearchHit::getEntityID).toList()));
+
+        Map<String, Object> entities = new HashMap<>();
+        hits.forEach(hit -> entities.put(hit.getEntityID(), hit.getEntity()));
+        assertInstanceOf(Diagnosis.class, entities.get("2"));
+        assertInstanceOf(Symptom.class, entities.get("4"));
+        assertEquals("Fear of cancer", ((Titled) entities.get("4")).getTitle(ICDLanguage.ENGLISH));
+        assertInstanceOf(DiagnosisCategory.class,
+                index.search("Colitis", ICDLanguage.ENGLISH, 0, 1, system).getFirst().getEntity());
+    }
+
+    @Test
+    void ignoresCaseAndDiacritics() {
+        assertEquals(List.of("1"), index.search("CHOLERA", ICDLanguage.FRENCH, 0, 10, system).stream()
+                .map(SearchHit::getEntityID).toList());
+        assertEquals(List.of("2"), index.search("gastro enterite precisee", ICDLanguage.FRENCH, 0, 10, system).stream()
+                .map(SearchHit::getEntityID).toList());
+        assertTrue(index.search("choléra", ICDLanguage.ENGLISH, 0, 10, system).stream()
+                .anyMatch(hit -> hit.getEntityID().equals("1")));
+    }
+
+    @Test
+    void splitsChineseIntoCharacterPairs() {
+        assertEquals(List.of("胃肠", "肠炎"), TitleSearchIndex.tokenize("胃肠炎", Locale.CHINESE));
+        assertEquals(List.of("2"), index.search("结肠炎", ICDLanguage.CHINESE, 0, 10, system).stream()
+                .map(SearchHit::getEntityID).toList());
+        assertEquals(List.of("1"), index.search("霍乱", ICDLanguage.CHINESE, 0, 10, system).stream()
+                .map(SearchHit::getEntityID).toList());
+    }
+
+    @Test
+    void rejectsUnsupportedLanguage() {
+        assertEquals(EnumSet.of(ICDLanguage.ENGLISH, ICDLanguage.FRENCH, ICDLanguage.CHINESE), index.getLanguages());
+        assertFalse(index.supports(ICDLanguage.RUSSIAN));
+        assertThrows(UnsupportedOperationException.class,
+                () -> index.search("колит", ICDLanguage.RUSSIAN, 0, 10, system));
+        assertThrows(IllegalArgumentException.class, () -> index.search("colitis", ICDLanguage.ENGLISH, 0, 0, system));
+        assertTrue(index.search("typhoid", ICDLanguage.ENGLISH, 0, 10, system).isEmpty());
+    }
+
+    @Test
+    void snapshotSystemSearchesWithIndex() throws Exception {
+        Path file = directory.resolve("icd11.snapshot");
+        ICD11SnapshotWriter.write(file, ICD11SnapshotDiagnosesSystemTest.ENTRIES, "2025-01");
+        ICD11SnapshotDiagnosesSystem snapshotSystem = new ICD11SnapshotDiagnosesSystem(file);
+
+        List<Map.Entry<Object, String>> results = snapshotSystem.getSearchResult("колит происхождения", ICDLanguage.RUSSIAN);
+        assertEquals(Set.of("588616678", "1442426592"), Set.of(results.get(0).getValue(), results.get(1).getValue()));
+        assertEquals(List.of("1688127370"), results.subList(2, results.size()).stream().map(Map.Entry::getValue).toList());
+        assertEquals(List.of("1907420475"), snapshotSystem.getSearchHits("breast cancer", ICDLanguage.ENGLISH, 0, 5)
+                .stream().map(SearchHit::getEntityID).toList());
+        assertSame(snapshotSystem.getSearchIndex(), snapshotSystem.getSearchIndex());
+    }
+}
@@ -0,0 +1,491 @@
+package com.clinexa.basediagnosis.systems.stub;
+
+import com.clinexa.basediagnosis.systems.ICD11DiagnosesSystem;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stand-in for ICD 11 API and its token endpoint on the JDK HTTP server. Serves recorded
+ * responses from the {@code icd11-stub} test resources: token, release, entities (with
+ * children) in English and Russian; codeinfo and search responses are built from the entities.
+ * <br>
+ *
+ * Every request is delayed by the configured {@link Latency}. API requests (not token ones)
+ * may also fail with 500 or be throttled with 429 at the configured rates, and are throttled
+ * when they exceed the configured number of requests per second. For deterministic tests, the next
+ * API requests can be made to fail with a given status or to be delayed.
+ * <br>
+ *
+ * Responses are compressed with gzip or deflate if the client accepts it. Authentication can be
+ * turned off, like in the ICD-API container. HEAD requests to the API are answered with an empty 200.
+ */
+public final class ICD11StubServer implements AutoCloseable {
+
+    public static final String RELEASE = "2024-01";
+    public static final String CLIENT_ID = "stub-client";
+    public static final String CLIENT_SECRET = "stub-secret";
+
+    private static final String RELEASE_URI = "http://id.who.int/icd/release/11/" + RELEASE + "/mms";
+    private static final String RELEASE_PATH = "release/11/" + RELEASE + "/mms";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final String accessToken;
+    private final byte[] tokenResponse;
+    private final byte[] releaseResponse;
+    private final Map<String, Map<String, JSONObject>> entities = new HashMap<>();
+    private final Map<String, String> codes = new HashMap<>();
+    private final ConcurrentHashMap<String, LongAdder> requests = new ConcurrentHashMap<>();
+
+    private volatile Latency latency = Latency.none();
+    private volatile double errorRate;
+    private volatile double throttleRate;
+    private volatile int maxRequestsPerSecond;
+    private volatile boolean compression = true;
+    private volatile boolean authentication = true;
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private volatile Response failure;
+    private final AtomicInteger delaysLeft = new AtomicInteger();
+    private volatile Duration delay = Duration.ZERO;
+    private long windowStart;
+    private int windowRequests;
+
+    /**
+     * Delay of every response.
+     */
+    @FunctionalInterface
+    public interface Latency {
+
+        /**
+         * Returns delay of the next response.
+         *
+         * @param random source of randomness.
+         * @return delay, not negative.
+         */
+        Duration next(RandomGenerator random);
+
+        static Latency none() {
+            return _ -> Duration.ZERO;
+        }
+
+        static Latency fixed(Duration delay) {
+            return _ -> delay;
+        }
+
+        static Latency uniform(Duration min, Duration max) {
+            return random -> Duration.ofNanos(random.nextLong(min.toNanos(), max.toNanos() + 1));
+        }
+
+        /**
+         * Returns log-normal distribution, the usual shape of network latency: most responses
+         * are close to the median, but the tail is long.
+         *
+         * @param median median delay.
+         * @param p99 99th percentile of delay, not less than the median.
+         * @return latency distribution.
+         */
+        static Latency logNormal(Duration median, Duration p99) {
+            double sigma = Math.log((double) p99.toNanos() / median.toNanos()) / 2.326;
+            return random -> Duration.ofNanos((long) (median.toNanos() * Math.exp(sigma * random.nextGaussian())));
+        }
+    }
+
+    private ICD11StubServer(HttpServer server) {
+        this.server = server;
+        JSONObject token = new JSONObject(fixture("token.json"));
+        accessToken = token.getString("access_token");
+        tokenResponse = token.toString().getBytes(StandardCharsets.UTF_8);
+        releaseResponse = fixture("release.json").getBytes(StandardCharsets.UTF_8);
+        for (String language : List.of("en", "ru")) {
+            JSONObject recorded = new JSONObject(fixture("entities." + language + ".json"));
+            Map<String, JSONObject> byID = new HashMap<>();
+            for (String id : recorded.keySet()) {
+                JSONObject entity = recorded.getJSONObject(id);
+                byID.put(id, entity);
+                if (entity.has("code"))
+                    codes.put(entity.getString("code"), id);
+            }
+            entities.put(language, byID);
+        }
+        server.createContext("/connect/token", exchange -> handle(exchange, this::token));
+        server.createContext("/icd/", exchange -> handle(exchange, this::api));
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Starts server on a free port of the loopback interface.
+     *
+     * @return started server.
+     * @throws IOException if server can't be started.
+     */
+    public static ICD11StubServer start() throws IOException {
+        var server = new ICD11StubServer(HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0));
+        server.server.start();
+        return server;
+    }
+
+    public URI getApiURL() {
+        return URI.create("http://" + address() + "/icd/");
+    }
+
+    public URI getTokenURL() {
+        return URI.create("http://" + address() + "/connect/token");
+    }
+
+    /**
+     * Points the system at this server and gives it the stub credentials.
+     * {@link ICD11DiagnosesSystem#init()} should be called after that.
+     *
+     * @param system system to configure.
+     */
+    public void configure(ICD11DiagnosesSystem system) {
+        system.setParameter(ICD11DiagnosesSystem.API_URL_KEY, getApiURL().toString());
+        system.setParameter(ICD11DiagnosesSystem.TOKEN_URL_KEY, getTokenURL().toString());
+        system.setParameter(ICD11DiagnosesSystem.CLIENT_ID_KEY, CLIENT_ID);
+        system.setParameter(ICD11DiagnosesSystem.CLIENT_SECRET_KEY, CLIENT_SECRET);
+    }
+
+    public void setLatency(Latency latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Sets share of API requests answered with 500.
+     *
+     * @param errorRate rate between 0 and 1.
+     */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Sets share of API requests answered with 429 and {@code Retry-After: 1}.
+     *
+     * @param throttleRate rate between 0 and 1.
+     */
+    public void setThrottleRate(double throttleRate) {
+        this.throttleRate = throttleRate;
+    }
+
+    /**
+     * Sets number of API requests per second after which requests are answered with 429.
+     *
+     * @param maxRequestsPerSecond limit or 0 for no limit.
+     */
+    public void setMaxRequestsPerSecond(int maxRequestsPerSecond) {
+        this.maxRequestsPerSecond = maxRequestsPerSecond;
+    }
+
+    /**
+     * Sets whether responses are compressed when the client accepts it. Enabled by default.
+     *
+     * @param compression true to compress responses.
+     */
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Sets whether API requests need access token. Enabled by default.
+     *
+     * @param authentication false to accept requests without Authorization header.
+     */
+    public void setAuthentication(boolean authentication) {
+        this.authentication = authentication;
+    }
+
+    /**
+     * Makes the next API requests fail.
+     *
+     * @param count number of requests to fail.
+     * @param status status to answer them with.
+     * @param retryAfter value of {@code Retry-After} header or null to send none.
+     */
+    public void failNext(int count, int status, String retryAfter) {
+        failure = new Response(status, "{\"error\":\"Injected failure\"}".getBytes(StandardCharsets.UTF_8),
+                retryAfter == null ? Map.of() : Map.of("Retry-After", retryAfter));
+        failuresLeft.set(count);
+    }
+
+    /**
+     * Delays the next API requests on top of the configured latency.
+     *
+     * @param count number of requests to delay.
+     * @param delay delay of every one of them.
+     */
+    public void delayNext(int count, Duration delay) {
+        this.delay = delay;
+        delaysLeft.set(count);
+    }
+
+    /**
+     * Returns all codes of the recorded entities.
+     *
+     * @return ICD 11 codes, sorted.
+     */
+    public List<String> getCodes() {
+        return codes.keySet().stream().sorted().toList();
+    }
+
+    /**
+     * Returns number of requests received by endpoint, including failed ones.
+     *
+     * @param endpoint "token", "head", "release", "codeinfo", "entity" or "search".
+     * @return number of requests.
+     */
+    public long getRequestCount(String endpoint) {
+        LongAdder count = requests.get(endpoint);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * Returns number of requests received by all the endpoints.
+     *
+     * @return number of requests.
+     */
+    public long getRequestCount() {
+        return requests.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        // Requests still sleeping are interrupted, so closing doesn't wait for them
+        executor.shutdownNow();
+        executor.close();
+    }
+
+    /**
+     * Response to send.
+     */
+    private record Response(int status, byte[] body, Map<String, String> headers) {
+
+        static Response json(int status, String body) {
+            return new Response(status, body.getBytes(StandardCharsets.UTF_8), Map.of());
+        }
+    }
+
+    /**
+     * Handler of an endpoint.
+     */
+    @FunctionalInterface
+    private interface Endpoint {
+        Response respond(HttpExchange exchange) throws IOException, InterruptedException;
+    }
+
+    private void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        try (exchange) {
+            Duration delay = latency.next(ThreadLocalRandom.current());
+            if (delay.isPositive())
+                Thread.sleep(delay);
+            Response response = compress(exchange, endpoint.respond(exchange));
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            response.headers().forEach(exchange.getResponseHeaders()::set);
+            exchange.sendResponseHeaders(response.status(), response.body().length == 0 ? -1 : response.body().length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(response.body());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Compresses the body with the first of gzip and deflate the client accepts.
+     */
+    private Response compress(HttpExchange exchange, Response response) throws IOException {
+        String accepted = Objects.requireNonNullElse(exchange.getRequestHeaders().getFirst("Accept-Encoding"), "");
+        String encoding = accepted.contains("gzip") ? "gzip" : accepted.contains("deflate") ? "deflate" : null;
+        if (!compression || encoding == null || response.body().length == 0)
+            return response;
+        var compressed = new ByteArrayOutputStream();
+        try (OutputStream out = encoding.equals("gzip") ? new GZIPOutputStream(compressed)
+                : new DeflaterOutputStream(compressed)) {
+            out.write(response.body());
+        }
+        Map<String, String> headers = new HashMap<>(response.headers());
+        headers.put("Content-Encoding", encoding);
+        return new Response(response.status(), compressed.toByteArray(), headers);
+    }
+
+    private Response token(HttpExchange exchange) throws IOException {
+        count("token");
+        String form;
+        try (InputStream body = exchange.getRequestBody()) {
+            form = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        Map<String, String> parameters = parseQuery(form);
+        if (!exchange.getRequestMethod().equals("POST") || !CLIENT_ID.equals(parameters.get("client_id"))
+                || !CLIENT_SECRET.equals(parameters.get("client_secret"))
+                || !"client_credentials".equals(parameters.get("grant_type")))
+            return Response.json(400, "{\"error\":\"invalid_client\"}");
+        return new Response(200, tokenResponse, Map.of());
+    }
+
+    private Response api(HttpExchange exchange) throws InterruptedException {
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            count("head");
+            return new Response(200, new byte[0], Map.of());
+        }
+        String path = exchange.getRequestURI().getPath().substring("/icd/".length());
+        String endpoint = endpoint(path);
+        count(endpoint);
+
+        if (authentication && !("Bearer " + accessToken).equals(exchange.getRequestHeaders().getFirst("Authorization")))
+            return Response.json(401, "{\"error\":\"Unauthorized\"}");
+        if (takeOne(delaysLeft))
+            Thread.sleep(delay);
+        if (takeOne(failuresLeft))
+            return failure;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (overRateLimit() || random.nextDouble() < throttleRate)
+            return new Response(429, "{\"error\":\"Too many requests\"}".getBytes(StandardCharsets.UTF_8),
+                    Map.of("Retry-After", "1"));
+        if (random.nextDouble() < errorRate)
+            return Response.json(500, "{\"error\":\"Internal server error\"}");
+
+        String language = exchange.getRequestHeaders().getFirst("Accept-Language");
+        Map<String, JSONObject> recorded = entities.getOrDefault(language, entities.get("en"));
+        return switch (endpoint) {
+            case "release" -> new Response(200, releaseResponse, Map.of());
+            case "codeinfo" -> {
+                String code = path.substring(path.lastIndexOf('/') + 1);
+                String id = codes.get(code);
+                yield id == null ? notFound() : Response.json(200,
+                        new JSONObject().put("code", code).put("stemId", RELEASE_URI + "/" + id).toString());
+            }
+            case "search" -> Response.json(200, search(recorded,
+                    parseQuery(Objects.requireNonNullElse(exchange.getRequestURI().getRawQuery(), "")).getOrDefault("q", "")));
+            default -> {
+                JSONObject entity = path.startsWith(RELEASE_PATH) ? recorded.get(path.substring(RELEASE_PATH.length())
+                        .replaceFirst("^/", "")) : null;
+                yield entity == null ? notFound() : Response.json(200, entity.toString());
+            }
+        };
+    }
+
+    private static String endpoint(String path) {
+        if (path.equals("release/11/mms"))
+            return "release";
+        if (path.contains("/codeinfo/"))
+            return "codeinfo";
+        if (path.endsWith("/search"))
+            return "search";
+        return "entity";
+    }
+
+    private static Response notFound() {
+        return Response.json(404, "{\"error\":\"Not found\"}");
+    }
+
+    /**
+     * Finds entities with all the words of the query in their titles, best matching first.
+     */
+    private static String search(Map<String, JSONObject> recorded, String query) {
+        List<String> words = words(query);
+        List<JSONObject> results = new ArrayList<>();
+        for (Map.Entry<String, JSONObject> entry : recorded.entrySet()) {
+            if (entry.getKey().isEmpty())
+                continue;
+            JSONObject entity = entry.getValue();
+            String title = entity.getJSONObject("title").getString("@value");
+            List<String> titleWords = words(title);
+            if (words.isEmpty() || !new HashSet<>(titleWords).containsAll(words))
+                continue;
+            results.add(new JSONObject()
+                    .put("id", entity.getString("@id"))
+                    .put("title", title)
+                    .put("stemId", entity.getString("@id"))
+                    .put("isLeaf", !entity.has("child"))
+                    .put("theCode", entity.optString("code", null))
+                    .put("score", (double) words.size() / titleWords.size()));
+        }
+        results.sort(Comparator.comparingDouble((JSONObject result) -> result.getDouble("score")).reversed());
+        return new JSONObject()
+                .put("error", false)
+                .put("resultChopped", false)
+                .put("destinationEntities", new JSONArray(results))
+                .toString();
+    }
+
+    private static List<String> words(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .toList();
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0)
+                parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private synchronized boolean overRateLimit() {
+        int limit = maxRequestsPerSecond;
+        if (limit <= 0)
+            return false;
+        long now = System.nanoTime();
+        if (now - windowStart >= 1_000_000_000L) {
+            windowStart = now;
+            windowRequests = 0;
+        }
+        return ++windowRequests > limit;
+    }
+
+    /**
+     * Takes one from a positive counter.
+     *
+     * @return false if the counter was already 0.
+     */
+    private static boolean takeOne(AtomicInteger counter) {
+        return counter.getAndUpdate(left -> Math.max(0, left - 1)) > 0;
+    }
+
+    private void count(String endpoint) {
+        requests.computeIfAbsent(endpoint, _ -> new LongAdder()).increment();
+    }
+
+    private String address() {
+        InetSocketAddress address = server.getAddress();
+        return address.getAddress().getHostAddress() + ":" + address.getPort();
+    }
+
+    private static String fixture(String name) {
+        try (InputStream in = ICD11StubServer.class.getResourceAsStream("/icd11-stub/" + name)) {
+            if (in == null)
+                throw new IllegalStateException("No stub fixture " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
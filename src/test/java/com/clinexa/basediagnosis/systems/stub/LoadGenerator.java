@@ -0,0 +1,144 @@
+package com.clinexa.basediagnosis.systems.stub;
+
+import com.clinexa.basediagnosis.metrics.Histogram;
+import com.clinexa.basediagnosis.metrics.MetricsRegistry;
+import com.clinexa.basediagnosis.systems.ICD11DiagnosesSystem;
+import com.clinexa.basediagnosis.utils.ICDLanguage;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator: operations are started at a fixed rate whether or not the previous
+ * ones have finished, and latency is measured from the moment an operation was due to start,
+ * so a slow system isn't hidden by a slower request rate (coordinated omission).
+ * <br>
+ *
+ * {@link #main(String[])} drives {@link ICD11DiagnosesSystem} against {@link ICD11StubServer}.
+ */
+public final class LoadGenerator {
+
+    /**
+     * Single operation of the load.
+     */
+    @FunctionalInterface
+    public interface Operation {
+
+        /**
+         * Performs the operation.
+         *
+         * @param sequence number of the operation, starting from 0.
+         * @throws Exception if operation failed. It is counted as an error.
+         */
+        void run(long sequence) throws Exception;
+    }
+
+    /**
+     * Result of a load run.
+     *
+     * @param operations number of started operations.
+     * @param errors number of failed operations.
+     * @param elapsed time from the start until all operations finished.
+     * @param latency latencies of all operations in nanoseconds.
+     */
+    public record Report(long operations, long errors, Duration elapsed, Histogram.Snapshot latency) {
+
+        public double achievedRate() {
+            return operations / (elapsed.toNanos() / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d operations (%d errors) in %.1f s, %.1f op/s; " +
+                            "latency p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms",
+                    operations, errors, elapsed.toNanos() / 1e9, achievedRate(), millis(latency.percentile(50)),
+                    millis(latency.percentile(90)), millis(latency.percentile(99)), millis(latency.max()));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1e6;
+        }
+    }
+
+    private LoadGenerator() {}
+
+    /**
+     * Runs the operation at the given rate, every one on its own virtual thread.
+     *
+     * @param rate operations per second.
+     * @param duration time operations are started for.
+     * @param operation operation to run.
+     * @return report after all started operations have finished.
+     */
+    public static Report run(double rate, Duration duration, Operation operation) {
+        if (!(rate > 0))
+            throw new IllegalArgumentException("Invalid rate: " + rate);
+        Histogram latency = new MetricsRegistry().histogram("latency");
+        LongAdder errors = new LongAdder();
+        long interval = (long) (1e9 / rate);
+        long start = System.nanoTime();
+        long operations = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long due = start; due - start < duration.toNanos(); due = start + ++operations * interval) {
+                for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime())
+                    LockSupport.parkNanos(wait);
+                long sequence = operations;
+                long dueTime = due;
+                executor.execute(() -> {
+                    try {
+                        operation.run(sequence);
+                    } catch (Exception e) {
+                        errors.increment();
+                    } finally {
+                        latency.record(System.nanoTime() - dueTime);
+                    }
+                });
+            }
+        }
+        return new Report(operations, errors.sum(), Duration.ofNanos(System.nanoTime() - start), latency.snapshot());
+    }
+
+    /**
+     * Drives {@link ICD11DiagnosesSystem} against a stub server with log-normal latency and
+     * cache disabled, looking up recorded codes, listing their categories and searching.
+     *
+     * @param args rate (operations per second, 50 by default), duration in seconds (10),
+     *             median and 99th percentile of server latency in milliseconds (20 and 200),
+     *             error rate (0) and throttle rate (0).
+     */
+    @SuppressWarnings("removal")
+    public static void main(String[] args) throws Exception {
+        double rate = args.length > 0 ? Double.parseDouble(args[0]) : 50;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 10);
+        Duration median = Duration.ofMillis(args.length > 2 ? Long.parseLong(args[2]) : 20);
+        Duration p99 = Duration.ofMillis(args.length > 3 ? Long.parseLong(args[3]) : 200);
+
+        try (ICD11StubServer server = ICD11StubServer.start()) {
+            var system = new ICD11DiagnosesSystem();
+            server.configure(system);
+            system.setParameter(ICD11DiagnosesSystem.CACHE_MAX_SIZE_KEY, "0");
+            system.init();
+            server.setLatency(ICD11StubServer.Latency.logNormal(median, p99));
+            server.setErrorRate(args.length > 4 ? Double.parseDouble(args[4]) : 0);
+            server.setThrottleRate(args.length > 5 ? Double.parseDouble(args[5]) : 0);
+
+            List<String> codes = server.getCodes();
+            Report report = run(rate, duration, sequence -> {
+                String code = codes.get((int) (sequence % codes.size()));
+                switch ((int) (sequence % 10)) {
+                    case 0 -> system.getCategoryListing("588616678", ICDLanguage.ENGLISH);
+                    case 1 -> system.getSearchHits("fear cancer", ICDLanguage.ENGLISH, 0, 10);
+                    default -> system.getByICD11Code(code, ICDLanguage.ENGLISH);
+                }
+            });
+            System.out.println(report);
+            System.out.println(server.getRequestCount() + " requests received by the server");
+            system.close();
+        }
+    }
+}
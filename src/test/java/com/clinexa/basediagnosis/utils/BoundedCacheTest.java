@@ -0,0 +1,69 @@
+package com.clinexa.basediagnosis.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    @Test
+    void storesAndCountsHits() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofMinutes(1));
+        cache.put("1A40.0", "Gastroenteritis");
+
+        assertEquals("Gastroenteritis", cache.get("1A40.0"));
+        assertNull(cache.get("1A40.Z"));
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+        assertEquals(0.5, cache.stats().hitRate());
+    }
+
+    @Test
+    void keepsFrequentlyUsedEntries() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100, Duration.ofMinutes(1));
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, i);
+            cache.get(i);
+            cache.get(i);
+        }
+        for (int i = 100; i < 1000; i++)
+            cache.put(i, i);
+
+        assertTrue(cache.size() <= 100);
+        for (int i = 0; i < 10; i++)
+            assertEquals(i, cache.get(i));
+        assertTrue(cache.stats().evictionCount() > 0);
+    }
+
+    @Test
+    void limitsTotalWeight() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofMinutes(1), String::length);
+        cache.put("a", "12345");
+        cache.put("b", "12345");
+        cache.put("c", "12345");
+        cache.put("too large", "12345678901");
+
+        assertTrue(cache.stats().weight() <= 10);
+        assertNull(cache.get("too large"));
+    }
+
+    @Test
+    void expiresEntries() throws InterruptedException {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofMinutes(1));
+        cache.put("XX00", "not found", Duration.ofMillis(1));
+        Thread.sleep(5);
+
+        assertNull(cache.get("XX00"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void zeroSizeDisablesCaching() {
+        BoundedCache<String, String> cache = new BoundedCache<>(0, Duration.ofMinutes(1));
+        cache.put("1A40.0", "Gastroenteritis");
+
+        assertNull(cache.get("1A40.0"));
+    }
+}
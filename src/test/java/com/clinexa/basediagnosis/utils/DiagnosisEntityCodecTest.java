@@ -0,0 +1,80 @@
+package com.clinexa.basediagnosis.utils;
+
+import com.clinexa.basediagnosis.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiagnosisEntityCodecTest {
+
+    private static final DiagnosesSystem SYSTEM = DiagnosesSystem.getDefaultDiagnosesSystem();
+
+    @Test
+    void readsWrittenEntities() throws IOException {
+        List<DiagnosisEntity> entities = List.of(
+                new Diagnosis(SYSTEM, ICDLanguage.RUSSIAN, "1A00", "Холера"),
+                new Symptom(SYSTEM, ICDLanguage.ENGLISH, "MG24.01", "Fear of breast cancer female"));
+        var out = new ByteArrayOutputStream();
+        DiagnosisEntityCodec.write(out, entities);
+
+        List<DiagnosisEntity> read = DiagnosisEntityCodec.read(new ByteArrayInputStream(out.toByteArray()), SYSTEM);
+        assertEquals(entities, read);
+        assertInstanceOf(Diagnosis.class, read.get(0));
+        assertInstanceOf(Symptom.class, read.get(1));
+        assertEquals("Холера", read.get(0).getTitle(ICDLanguage.RUSSIAN));
+        assertEquals(ICDLanguage.ENGLISH, ((Symptom) read.get(1)).getLanguage());
+    }
+
+    @Test
+    void sharesRepeatedStrings() throws IOException {
+        List<DiagnosisEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+            entities.add(new Diagnosis(SYSTEM, ICDLanguage.ENGLISH, "1A40.0", "Gastroenteritis or colitis without specification of origin"));
+        var compact = new ByteArrayOutputStream();
+        DiagnosisEntityCodec.write(compact, entities);
+        var serialized = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(serialized)) {
+            out.writeObject(new ArrayList<>(entities));
+        }
+        assertTrue(compact.size() < serialized.size() / 2);
+
+        List<DiagnosisEntity> read = DiagnosisEntityCodec.read(new ByteArrayInputStream(compact.toByteArray()), SYSTEM);
+        assertEquals(1000, read.size());
+        assertSame(read.get(0).getICD11Code(), read.get(999).getICD11Code());
+        assertSame(read.get(0).getTitle(ICDLanguage.ENGLISH), read.get(999).getTitle(ICDLanguage.ENGLISH));
+    }
+
+    @Test
+    void skipsEntityWithTooLongTitle() throws IOException {
+        var out = new ByteArrayOutputStream();
+        var writer = new DiagnosisEntityCodec.Writer(out);
+        String title = "x".repeat(DiagnosisEntityCodec.MAX_STRING_LENGTH + 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> writer.write(new Diagnosis(SYSTEM, ICDLanguage.ENGLISH, "1A00", title)));
+        List<DiagnosisEntity> entities = List.of(
+                new Diagnosis(SYSTEM, ICDLanguage.ENGLISH, "1A00", "Cholera"),
+                new Diagnosis(SYSTEM, ICDLanguage.ENGLISH, "1A00", "Cholera"));
+        for (DiagnosisEntity entity : entities)
+            writer.write(entity);
+        writer.finish();
+
+        assertEquals(entities, DiagnosisEntityCodec.read(new ByteArrayInputStream(out.toByteArray()), SYSTEM));
+    }
+
+    @Test
+    void rejectsOtherStreams() {
+        assertThrows(StreamCorruptedException.class,
+                () -> DiagnosisEntityCodec.read(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5}), SYSTEM));
+    }
+
+    @Test
+    void rejectsTooLongStrings() {
+        byte[] corrupted = {0x49, 0x43, 0x44, 0x45, 1, 1, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        assertThrows(StreamCorruptedException.class,
+                () -> DiagnosisEntityCodec.read(new ByteArrayInputStream(corrupted), SYSTEM));
+    }
+}